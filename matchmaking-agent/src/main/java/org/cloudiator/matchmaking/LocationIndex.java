@@ -0,0 +1,132 @@
+package org.cloudiator.matchmaking;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloudiator.Cloud;
+import cloudiator.CloudiatorModel;
+import cloudiator.Location;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Precomputed view on the location hierarchy of a model. Every location gets a dense index and a
+ * bitset of its ancestors (including itself), so hierarchy checks do not need to walk the parents
+ * or scan all clouds.
+ * <p>
+ * The index is a snapshot of the locations when it is built. Models are modified in place, e.g.
+ * by discovery, so indices are not cached per model, callers build one per solve.
+ *
+ * @see LocationUtil
+ */
+public class LocationIndex {
+
+  private final List<Location> locations = new ArrayList<>();
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final Map<Location, Integer> positions = new HashMap<>();
+  private final List<BitSet> ancestors = new ArrayList<>();
+
+  private LocationIndex(Iterable<Location> locations) {
+    for (Location location : locations) {
+      add(location);
+    }
+  }
+
+  public static LocationIndex of(CloudiatorModel cloudiatorModel) {
+    checkNotNull(cloudiatorModel, "cloudiatorModel is null");
+    List<Location> locations = new ArrayList<>();
+    for (Cloud cloud : cloudiatorModel.getClouds()) {
+      locations.addAll(cloud.getLocations());
+    }
+    return new LocationIndex(locations);
+  }
+
+  public static LocationIndex of(Iterable<Location> locations) {
+    checkNotNull(locations, "locations is null");
+    return new LocationIndex(locations);
+  }
+
+  private int add(Location location) {
+    final Integer existing = positions.get(location);
+    if (existing != null) {
+      return existing;
+    }
+    //parents first, so the ancestors of the parent are known
+    BitSet bitSet = new BitSet();
+    if (location.getParent() != null) {
+      bitSet.or(ancestors.get(add(location.getParent())));
+    }
+    final int position = locations.size();
+    bitSet.set(position);
+    locations.add(location);
+    ancestors.add(bitSet);
+    positions.put(location, position);
+    ids.putIfAbsent(location.getId(), position);
+    return position;
+  }
+
+  public int size() {
+    return locations.size();
+  }
+
+  public Optional<Location> findLocation(String id) {
+    final Integer position = ids.get(id);
+    if (position == null) {
+      return Optional.empty();
+    }
+    return Optional.of(locations.get(position));
+  }
+
+  /**
+   * Index of the location with the given id or -1 if it is not part of this index.
+   */
+  public int indexOf(String id) {
+    final Integer position = ids.get(id);
+    return position == null ? -1 : position;
+  }
+
+  /**
+   * Checks if the location with the given id is the location itself or one of its parents.
+   */
+  public boolean inHierarchy(String id, Location location) {
+    final Integer position = positions.get(location);
+    if (position == null) {
+      //not indexed, walk the parents
+      for (Location current = location; current != null; current = current.getParent()) {
+        if (current.getId().equals(id)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    final int ancestor = indexOf(id);
+    return ancestor >= 0 && ancestors.get(position).get(ancestor);
+  }
+
+  /**
+   * Returns all locations having the given location as (transitive) parent. Does not contain the
+   * location itself.
+   */
+  public Set<Location> subLocations(Location location) {
+    final Set<Location> subLocations = new HashSet<>();
+    final Integer position = positions.get(location);
+    if (position == null) {
+      return subLocations;
+    }
+    for (int i = 0; i < locations.size(); i++) {
+      if (i != position && ancestors.get(i).get(position)) {
+        subLocations.add(locations.get(i));
+      }
+    }
+    return subLocations;
+  }
+
+  public Location get(int index) {
+    return locations.get(index);
+  }
+}
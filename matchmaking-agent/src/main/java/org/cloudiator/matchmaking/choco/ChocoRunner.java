@@ -5,6 +5,7 @@ import com.google.inject.Injector;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
 import org.cloudiator.matchmaking.experiment.ExperimentCSP;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
 import org.cloudiator.matchmaking.ocl.ConstraintChecker;
 import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
@@ -13,6 +14,7 @@ import org.cloudiator.matchmaking.ocl.ModelGenerator;
 import org.cloudiator.matchmaking.ocl.NodeGenerator;
 import org.cloudiator.matchmaking.ocl.OclContext;
 import org.cloudiator.matchmaking.ocl.MatchmakingModule;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.cloudiator.messaging.kafka.KafkaContext;
 import org.cloudiator.messaging.kafka.KafkaMessagingModule;
 import org.cloudiator.messaging.services.MessageServiceModule;
@@ -27,14 +29,16 @@ public class ChocoRunner {
             new OclContext(Configuration.conf().getConfig("ocl"))));
 
     final ModelGenerator instance = injector.getInstance(ModelGenerator.class);
+    final MetricsRegistry metricsRegistry = injector.getInstance(MetricsRegistry.class);
+    final Tracer tracer = injector.getInstance(Tracer.class);
 
     NodeGenerator nodeGenerator = new ConsistentNodeGenerator(
         new DefaultNodeGenerator(NodeCandidateFactory.create(),
             instance.generateModel("dummy_user_id"),
-            null),
-        ConstraintChecker.create(ExperimentCSP.CSP));
+            null, metricsRegistry, tracer),
+        ConstraintChecker.create(ExperimentCSP.CSP), metricsRegistry, tracer);
 
-    new ChocoSolver().solve(ExperimentCSP.CSP, nodeGenerator.get(), null, 1);
+    injector.getInstance(ChocoSolver.class).solve(ExperimentCSP.CSP, nodeGenerator.get(), null, 1);
   }
 
 }
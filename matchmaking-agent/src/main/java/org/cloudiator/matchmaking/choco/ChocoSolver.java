@@ -1,23 +1,35 @@
 package org.cloudiator.matchmaking.choco;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import cloudiator.CloudiatorModel;
 import cloudiator.CloudiatorPackage.Literals;
 import com.google.common.base.MoreObjects;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.exception.ContradictionException;
-import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+import org.chocosolver.solver.search.loop.monitors.IMonitorDownBranch;
+import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
 import org.chocosolver.solver.search.strategy.Search;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.util.criteria.Criterion;
+import org.cloudiator.matchmaking.domain.SearchStatistics;
+import org.cloudiator.matchmaking.domain.SearchStatistics.Improvement;
 import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolutionBound;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.Counter;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.NodeCandidates;
 import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.eclipse.emf.ecore.EAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,21 +37,55 @@ import org.slf4j.LoggerFactory;
 public class ChocoSolver implements org.cloudiator.matchmaking.domain.Solver {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ChocoSolver.class);
+  private static final String SEARCH_HELP = "Search statistics of the choco solver.";
+  private final Counter nodes;
+  private final Counter fails;
+  private final Counter backtracks;
+  private final Counter restarts;
+  private final Counter contradictions;
+  private final Histogram firstSolution;
+  private final GenerationEstimate generationEstimate;
+  private final Tracer tracer;
+
+  @Inject
+  public ChocoSolver(MetricsRegistry metricsRegistry, GenerationEstimate generationEstimate,
+      Tracer tracer) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    checkNotNull(generationEstimate, "generationEstimate is null");
+    checkNotNull(tracer, "tracer is null");
+    this.generationEstimate = generationEstimate;
+    this.tracer = tracer;
+    this.nodes = metricsRegistry
+        .counter("matchmaking_choco_search_total", SEARCH_HELP, "statistic", "nodes");
+    this.fails = metricsRegistry
+        .counter("matchmaking_choco_search_total", SEARCH_HELP, "statistic", "fails");
+    this.backtracks = metricsRegistry
+        .counter("matchmaking_choco_search_total", SEARCH_HELP, "statistic", "backtracks");
+    this.restarts = metricsRegistry
+        .counter("matchmaking_choco_search_total", SEARCH_HELP, "statistic", "restarts");
+    this.contradictions = metricsRegistry
+        .counter("matchmaking_choco_search_total", SEARCH_HELP, "statistic", "contradictions");
+    this.firstSolution = metricsRegistry.timer("matchmaking_choco_first_solution_seconds",
+        "Time until the choco solver found its first solution.");
+  }
 
   private static class ChocoSolverInternal {
 
     private final OclCsp oclCsp;
     private final CloudiatorModel cloudiatorModel;
     private final NodeCandidates nodeCandidates;
+    private final GenerationEstimate generationEstimate;
 
     private ChocoSolverInternal(OclCsp oclCsp, CloudiatorModel cloudiatorModel,
-        NodeCandidates nodeCandidates) {
+        NodeCandidates nodeCandidates, GenerationEstimate generationEstimate) {
       this.oclCsp = oclCsp;
       this.cloudiatorModel = cloudiatorModel;
       this.nodeCandidates = nodeCandidates;
+      this.generationEstimate = generationEstimate;
     }
 
-    Solution solve(int numberOfNodes, @Nullable Solution existingSolution) {
+    Solution solve(int numberOfNodes, @Nullable Solution existingSolution,
+        SearchStatistics.Builder statistics, long start, SolverBudget budget) {
 
       final ModelGenerationContext modelGenerationContext = new ModelGenerationContext(
           cloudiatorModel,
@@ -50,6 +96,8 @@ public class ChocoSolver implements org.cloudiator.matchmaking.domain.Solver {
       ChocoModelGeneration.visit(modelGenerationContext);
 
       final long stopGeneration = System.currentTimeMillis();
+      generationEstimate
+          .observe(stopGeneration - startGeneration, nodeCandidates.size(), numberOfNodes);
 
       LOGGER.debug(
           "Generation of choco solver model took " + (stopGeneration - startGeneration) + " ms for "
@@ -90,21 +138,51 @@ public class ChocoSolver implements org.cloudiator.matchmaking.domain.Solver {
       //solver.setSearch(
       //    Search.activityBasedSearch(modelGenerationContext.getModel().retrieveIntVars(true)));
 
-      final LinkedList<ContradictionException> contradictions = new LinkedList<>();
-
-      solver.plugMonitor((IMonitorContradiction) contradictions::add);
-      solver.limitSearch(() -> Thread.currentThread().isInterrupted());
+      final ContradictionTracker contradictions = new ContradictionTracker();
+
+      solver.plugMonitor(contradictions);
+      solver.plugMonitor((IMonitorSolution) () -> statistics
+          .addImprovement(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+              objectiveFunction.getValue()));
+      solver.plugMonitor(new BoundMonitor(solver, budget.solutionBound()));
+      solver.limitSearch(new BudgetCriterion(budget));
+      //node and fail limits are shared by all searches of this solver
+      if (budget.nodeLimit() > 0) {
+        solver.limitNode(Math.max(1, budget.nodeLimit() - statistics.nodes()));
+      }
+      if (budget.failLimit() > 0) {
+        solver.limitFail(Math.max(1, budget.failLimit() - statistics.fails()));
+      }
+      if (budget.hasDeadline()) {
+        solver.limitTime(Math.max(1, budget.remainingMillis()));
+      }
 
       while (solver.solve()) {
         solution.record();
+        if (budget.solutionBound() != SolutionBound.NONE) {
+          //share the improvement with the other solvers while searching on
+          final Solution improvement = ChocoSolutionToSolution
+              .create(nodeCandidates, modelGenerationContext).apply(solution);
+          improvement.setSolver(ChocoSolver.class);
+          budget.solutionBound().offer(improvement);
+        }
       }
 
-      solver.printStatistics();
+      statistics.addRun(solver.getNodeCount(), solver.getFailCount(),
+          solver.getBackTrackCount(), solver.getRestartCount(), solver.getSolutionCount(),
+          (long) (solver.getTimeCount() * 1000));
+      statistics.addContradictions(contradictions.count(), contradictions.last());
+
+      LOGGER.debug(String.format(
+          "Search for %s nodes explored %s nodes with %s fails, %s backtracks and %s contradictions in %s s.",
+          numberOfNodes, solver.getNodeCount(), solver.getFailCount(),
+          solver.getBackTrackCount(), contradictions.count(), solver.getTimeCount()));
 
       if (solver.getSolutionCount() == 0) {
         LOGGER.debug(String.format("%s could not find a solution.", this));
-        if (!contradictions.isEmpty()) {
-          LOGGER.debug("Last contradiction " + contradictions.getLast());
+        if (contradictions.count() > 0) {
+          LOGGER.debug("Last contradiction " + contradictions.last());
+          LOGGER.trace("Sampled contradictions " + contradictions.samples());
         }
         return Solution.EMPTY_SOLUTION;
       }
@@ -131,11 +209,97 @@ public class ChocoSolver implements org.cloudiator.matchmaking.domain.Solver {
     return solvingModelGenerator.apply(nodeCandidates);
   }
 
+  /**
+   * Stops the search when the budget is exhausted. Checking the heap is not free, so it is only
+   * checked every {@link #HEAP_CHECK_INTERVAL} calls.
+   */
+  private static class BudgetCriterion implements Criterion {
+
+    private static final int HEAP_CHECK_INTERVAL = 1024;
+
+    private final SolverBudget budget;
+    private int calls = 0;
+
+    private BudgetCriterion(SolverBudget budget) {
+      this.budget = budget;
+    }
+
+    @Override
+    public boolean isMet() {
+      if (Thread.currentThread().isInterrupted()) {
+        return true;
+      }
+      if (++calls % HEAP_CHECK_INTERVAL == 0 && budget.heapExceeded()) {
+        LOGGER.warn(String.format("Stopping search as heap exceeds budget %s.", budget));
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Tightens the upper bound of the objective whenever another solver found a cheaper solution.
+   * <p>
+   * Runs in the search thread before every branch, choco posts the cut right after. The objective
+   * is the sum of the mapped prices, which are at most a hundred times the prices, so a hundred
+   * times the costs of the bound is a safe upper bound. An empty search does not mean larger node
+   * sizes can not beat the bound, so they are still tried.
+   */
+  private static class BoundMonitor implements IMonitorDownBranch {
+
+    private final Solver solver;
+    private final SolutionBound solutionBound;
+
+    private BoundMonitor(Solver solver, SolutionBound solutionBound) {
+      this.solver = solver;
+      this.solutionBound = solutionBound;
+    }
+
+    @Override
+    public void beforeDownBranch(boolean left) {
+      final double costs = solutionBound.costs();
+      if (costs < 0 || Math.ceil(costs * 100) >= IntVar.MAX_INT_BOUND) {
+        return;
+      }
+      final int bound = (int) Math.ceil(costs * 100);
+      if (bound < solver.getObjectiveManager().getBestUB().intValue()) {
+        solver.getObjectiveManager().updateBestUB(bound);
+      }
+    }
+
+    @Override
+    public void afterDownBranch(boolean left) {
+    }
+  }
+
+  private static boolean limitReached(SolverBudget budget, SearchStatistics.Builder statistics) {
+    return (budget.nodeLimit() > 0 && statistics.nodes() >= budget.nodeLimit()) || (
+        budget.failLimit() > 0 && statistics.fails() >= budget.failLimit());
+  }
+
   @Override
   public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
       @Nullable Solution existingSolution, @Nullable Integer targetNodeSize) {
+    return solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize,
+        SolverBudget.UNLIMITED);
+  }
+
+  @Override
+  public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Solution existingSolution, @Nullable Integer targetNodeSize,
+      SolverBudget budget) {
 
     final long start = System.currentTimeMillis();
+    final long startNanos = System.nanoTime();
+
+    if (targetNodeSize == null) {
+      targetNodeSize = 1;
+    }
+
+    if (generationEstimate.tooLittleTime(budget, nodeCandidates.size(), targetNodeSize)) {
+      LOGGER.debug(String.format("%s skips solving as budget %s is too small.", this, budget));
+      return Solution.EMPTY_SOLUTION;
+    }
 
     CloudiatorModel solverModel = generateSolvingModel(nodeCandidates);
 
@@ -143,20 +307,53 @@ public class ChocoSolver implements org.cloudiator.matchmaking.domain.Solver {
 
     LOGGER.debug("Generation of solving model took " + (stop - start) + " ms");
 
-    if (targetNodeSize == null) {
-      targetNodeSize = 1;
-    }
-
-    while (!Thread.currentThread().isInterrupted()) {
-      final ChocoSolverInternal chocoSolverInternal = new ChocoSolverInternal(oclCsp,
-          solverModel, nodeCandidates);
-      Solution solution = chocoSolverInternal.solve(targetNodeSize, existingSolution);
-      if (!solution.noSolution()) {
-        return solution;
+    final SearchStatistics.Builder statistics = SearchStatistics.builder();
+    try {
+      while (!budget.exhausted()) {
+        if (limitReached(budget, statistics)) {
+          LOGGER.debug(String.format("%s reached the search limits of budget %s.", this, budget));
+          break;
+        }
+        if (generationEstimate.tooLittleTime(budget, nodeCandidates.size(), targetNodeSize)) {
+          LOGGER.debug(String.format(
+              "%s skips model generation for %s nodes as budget %s is too small.", this,
+              targetNodeSize, budget));
+          break;
+        }
+        final ChocoSolverInternal chocoSolverInternal = new ChocoSolverInternal(oclCsp,
+            solverModel, nodeCandidates, generationEstimate);
+        Solution solution = chocoSolverInternal
+            .solve(targetNodeSize, existingSolution, statistics, startNanos, budget);
+        if (!solution.noSolution()) {
+          solution.setStatistics(statistics.build());
+          return solution;
+        }
+        targetNodeSize++;
       }
-      targetNodeSize++;
+      return Solution.EMPTY_SOLUTION;
+    } finally {
+      export(statistics.build());
     }
-    return Solution.EMPTY_SOLUTION;
+  }
+
+  private void export(SearchStatistics statistics) {
+    nodes.inc(statistics.nodes());
+    fails.inc(statistics.fails());
+    backtracks.inc(statistics.backtracks());
+    restarts.inc(statistics.restarts());
+    contradictions.inc(statistics.contradictions());
+    statistics.first()
+        .ifPresent(first -> firstSolution.observeNanos(
+            TimeUnit.MILLISECONDS.toNanos(first.timeMillis())));
+    tracer.current().ifPresent(span -> span.attribute("choco.runs", statistics.runs())
+        .attribute("choco.nodes", statistics.nodes())
+        .attribute("choco.fails", statistics.fails())
+        .attribute("choco.backtracks", statistics.backtracks())
+        .attribute("choco.restarts", statistics.restarts())
+        .attribute("choco.solutions", statistics.solutions())
+        .attribute("choco.contradictions", statistics.contradictions())
+        .attribute("choco.timeToFirstMillis",
+            statistics.first().map(Improvement::timeMillis).orElse(null)));
   }
 
   @Override
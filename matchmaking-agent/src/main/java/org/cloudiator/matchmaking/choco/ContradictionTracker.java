@@ -0,0 +1,50 @@
+package org.cloudiator.matchmaking.choco;
+
+import com.google.common.collect.EvictingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.loop.monitors.IMonitorContradiction;
+
+/**
+ * Counts the contradictions of a search and keeps a bounded sample of them.
+ * <p>
+ * Choco reuses one exception per solver, so only a description is kept. Describing every
+ * contradiction is too expensive, only every {@link #SAMPLE_RATE}th one is sampled.
+ */
+class ContradictionTracker implements IMonitorContradiction {
+
+  static final int SAMPLE_RATE = 1024;
+  private static final int SAMPLE_SIZE = 16;
+
+  private final EvictingQueue<String> samples = EvictingQueue.create(SAMPLE_SIZE);
+  private long count = 0;
+  @Nullable
+  private ContradictionException last;
+
+  @Override
+  public void onContradiction(ContradictionException cex) {
+    if (count % SAMPLE_RATE == 0) {
+      samples.add(cex.toString());
+    }
+    count++;
+    last = cex;
+  }
+
+  long count() {
+    return count;
+  }
+
+  /**
+   * Description of the last contradiction, only valid directly after the search.
+   */
+  @Nullable
+  String last() {
+    return last == null ? null : last.toString();
+  }
+
+  List<String> samples() {
+    return new ArrayList<>(samples);
+  }
+}
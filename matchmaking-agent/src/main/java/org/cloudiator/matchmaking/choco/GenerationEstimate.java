@@ -0,0 +1,46 @@
+package org.cloudiator.matchmaking.choco;
+
+import com.google.common.base.MoreObjects;
+import javax.inject.Singleton;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+
+/**
+ * Learns the time the generation of a choco model takes per candidate and node, to skip
+ * generations that would use up the remaining time of a budget.
+ * <p>
+ * Shared by the choco solvers of the agent, so each solve starts with the estimate of the
+ * previous ones.
+ */
+@Singleton
+public class GenerationEstimate {
+
+  private static final long MINIMUM_GENERATION_MILLIS = 100;
+  private volatile double millisPerCandidateAndNode = 0;
+
+  public void observe(long millis, int candidates, int numberOfNodes) {
+    final double observed = (double) millis / Math.max(1, candidates * numberOfNodes);
+    //races only lose an observation
+    final double previous = millisPerCandidateAndNode;
+    millisPerCandidateAndNode = previous == 0 ? observed : 0.8 * previous + 0.2 * observed;
+  }
+
+  public double estimateMillis(int candidates, int numberOfNodes) {
+    return Math.max(MINIMUM_GENERATION_MILLIS,
+        millisPerCandidateAndNode * candidates * numberOfNodes);
+  }
+
+  /**
+   * The choco model is not worth generating if the remaining time does not even cover the
+   * generation of it, as there would be no time left to search.
+   */
+  public boolean tooLittleTime(SolverBudget budget, int candidates, int numberOfNodes) {
+    return budget.hasDeadline()
+        && budget.remainingMillis() < estimateMillis(candidates, numberOfNodes);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("millisPerCandidateAndNode", millisPerCandidateAndNode).toString();
+  }
+}
@@ -15,7 +15,7 @@ import java.util.Set;
 import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.Variable;
-import org.cloudiator.matchmaking.LocationUtil;
+import org.cloudiator.matchmaking.LocationIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,10 +23,12 @@ public class QuotaHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(QuotaHandler.class);
   private final ModelGenerationContext modelGenerationContext;
+  private final LocationIndex locationIndex;
 
   public QuotaHandler(
       ModelGenerationContext modelGenerationContext) {
     this.modelGenerationContext = modelGenerationContext;
+    this.locationIndex = LocationIndex.of(modelGenerationContext.getCloudiatorModel());
   }
 
   public void handle() {
@@ -58,8 +60,7 @@ public class QuotaHandler {
   }
 
   private boolean checkQuota(Quota quota) {
-    final Optional<Location> location = LocationUtil
-        .findLocation(quota.locationId().get(), modelGenerationContext.getCloudiatorModel());
+    final Optional<Location> location = locationIndex.findLocation(quota.locationId().get());
 
     if (!location.isPresent()) {
       return false;
@@ -93,6 +94,11 @@ public class QuotaHandler {
 
     IntVar[] vars = new IntVar[modelGenerationContext.nodeSize()];
 
+    final Location location = locationIndex.findLocation(offerQuota.locationId().get())
+        .orElseThrow(() -> new IllegalStateException(
+            "Could not find location with id " + offerQuota.locationId().get()));
+    final int[] locationValues = locationValues(location);
+
     for (int node = 1; node <= modelGenerationContext.nodeSize(); node++) {
 
       final String name = String
@@ -100,12 +106,7 @@ public class QuotaHandler {
 
       final IntVar nodeUsesHardwareAndLocation = modelGenerationContext.getModel().boolVar(name);
 
-      final Location location = LocationUtil
-          .findLocation(offerQuota.locationId().get(), modelGenerationContext.getCloudiatorModel())
-          .orElseThrow(() -> new IllegalStateException(
-              "Could not find location with id " + offerQuota.locationId().get()));
-
-      final Constraint orConstraint = generateSubLocationOrConstraint(location, node);
+      final Constraint orConstraint = generateSubLocationOrConstraint(locationValues, node);
 
       //get variable for offer
       final IntVar offerVariable = getVariable(offerQuota.type(), node);
@@ -129,20 +130,29 @@ public class QuotaHandler {
 
   }
 
-  private Constraint generateSubLocationOrConstraint(Location location, int node) {
+  /**
+   * Encoded location ids of the location and all its sublocations. Independent of the node, so
+   * computed once per quota.
+   */
+  private int[] locationValues(Location location) {
+    //get all sublocations
+    final Set<Location> subLocations = locationIndex.subLocations(location);
+    subLocations.add(location);
+
+    return subLocations.stream()
+        .mapToInt(l -> modelGenerationContext.mapValue(l.getId(), Literals.LOCATION__ID))
+        .distinct().toArray();
+  }
+
+  private Constraint generateSubLocationOrConstraint(int[] locationValues, int node) {
 
     //get location id variable
     IntVar locationIdVariable = getLocationIdVariable(node);
 
-    //get all sublocations
-    final Set<Location> subLocations = LocationUtil
-        .subLocations(location, modelGenerationContext.getCloudiatorModel());
-    subLocations.add(location);
-
     Set<Constraint> constraints = new HashSet<>();
-    for (Location forConstraint : subLocations) {
-      constraints.add(modelGenerationContext.getModel().arithm(locationIdVariable, "=",
-          modelGenerationContext.mapValue(forConstraint.getId(), Literals.LOCATION__ID)));
+    for (int locationValue : locationValues) {
+      constraints.add(modelGenerationContext.getModel()
+          .arithm(locationIdVariable, "=", locationValue));
     }
     return modelGenerationContext.getModel()
         .or(constraints.toArray(new Constraint[0]));
@@ -152,6 +162,10 @@ public class QuotaHandler {
 
     IntVar[] vars = new IntVar[modelGenerationContext.nodeSize()];
 
+    final Location location = locationIndex.findLocation(attributeQuota.locationId().get())
+        .get();
+    final int[] locationValues = locationValues(location);
+
     for (int node = 1; node <= modelGenerationContext.nodeSize(); node++) {
 
       //generate a name
@@ -175,9 +189,6 @@ public class QuotaHandler {
       final IntVar locationDependentAttribute = modelGenerationContext.getModel()
           .intVar(name, domainOfVariable);
 
-      final Location location = LocationUtil.findLocation(attributeQuota.locationId().get(),
-          modelGenerationContext.getCloudiatorModel()).get();
-
       //generate constrains: if location variable is set to one of the sublocations or itself set the location core variable
       //to this
 
@@ -185,7 +196,7 @@ public class QuotaHandler {
           .arithm(locationDependentAttribute, "=", originalVariable);
 
       modelGenerationContext.getModel()
-          .ifThen(generateSubLocationOrConstraint(location, node), equalsConstraint);
+          .ifThen(generateSubLocationOrConstraint(locationValues, node), equalsConstraint);
 
       vars[node - 1] = locationDependentAttribute;
     }
@@ -16,12 +16,14 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.choco.ObjectMapper;
 import org.cloudiator.matchmaking.choco.ObjectMapperImpl;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
 import org.cloudiator.matchmaking.domain.Solution;
 import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
 import org.cloudiator.matchmaking.ocl.NodeCandidates;
 import org.cloudiator.matchmaking.ocl.OclCsp;
 import org.slf4j.Logger;
@@ -30,6 +32,10 @@ import org.slf4j.LoggerFactory;
 public class CMPLSolver implements Solver {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CMPLSolver.class);
+  //starting cmpl and cbc as external processes alone takes about this long
+  private static final long MINIMUM_MILLIS = 1000;
+  //prices are rounded up to four decimals
+  private static final double PRICE_PRECISION = 0.0001;
 
   private static class CMPLSolverInternal {
 
@@ -52,9 +58,14 @@ public class CMPLSolver implements Solver {
     }
 
     public Solution solveInternally(OclCsp oclCsp, Integer targetNodeSize,
-        NodeCandidates nodeCandidates) {
+        NodeCandidates nodeCandidates, SolverBudget budget) {
 
-      if (nodeCandidates.size() == 0) {
+      if (nodeCandidates.size() == 0 || budget.exhausted()) {
+        return Solution.EMPTY_SOLUTION;
+      }
+
+      if (budget.remainingMillis() < MINIMUM_MILLIS) {
+        LOGGER.debug(String.format("%s skips solving as budget %s is too small.", this, budget));
         return Solution.EMPTY_SOLUTION;
       }
 
@@ -188,6 +199,19 @@ public class CMPLSolver implements Solver {
         //model.setParameters(costParameter, nodeSize, publicSizeParameter, privateSizeParameter,
         //    privateParameter, publicParameter);
         model.setParameters(costParameter, nodeSize);
+        if (budget.hasDeadline()) {
+          //cmpl runs outside of the jvm, hand the remaining time to its cbc solver
+          model.setOption(String.format("%%opt cbc sec %s",
+              Math.max(1, TimeUnit.MILLISECONDS.toSeconds(budget.remainingMillis()))));
+        }
+        if (budget.solutionBound().isBounded()) {
+          //cbc prunes everything not cheaper than the best solution of the other solvers, with
+          //a margin for the rounding of the prices
+          final double cutoff = budget.solutionBound().costs()
+              + PRICE_PRECISION * Math.max(1, totalSize);
+          LOGGER.debug(String.format("%s uses cutoff %s.", this, cutoff));
+          model.setOption(String.format("%%opt cbc cutoff %s", cutoff));
+        }
 
         model.solve();
 
@@ -238,6 +262,16 @@ public class CMPLSolver implements Solver {
   public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
       @Nullable Solution existingSolution, @Nullable Integer targetNodeSize) {
 
-    return new CMPLSolverInternal().solveInternally(oclCsp, targetNodeSize, nodeCandidates);
+    return solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize,
+        SolverBudget.UNLIMITED);
+  }
+
+  @Override
+  public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Solution existingSolution, @Nullable Integer targetNodeSize,
+      SolverBudget budget) {
+
+    return new CMPLSolverInternal()
+        .solveInternally(oclCsp, targetNodeSize, nodeCandidates, budget);
   }
 }
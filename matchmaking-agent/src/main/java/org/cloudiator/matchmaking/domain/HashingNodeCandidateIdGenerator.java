@@ -1,43 +1,66 @@
 package org.cloudiator.matchmaking.domain;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.Charsets;
 import com.google.common.hash.Funnel;
-import com.google.common.hash.HashFunction;
-import com.google.common.hash.Hashing;
+import com.google.common.hash.PrimitiveSink;
 
 public class HashingNodeCandidateIdGenerator implements NodeCandidateIdGenerator {
 
-  private static final Funnel<NodeCandidate> IAAS_NODE_CANDIDATE_FUNNEL =
-      (Funnel<NodeCandidate>) (from, into) -> {
-        into.putString(from.getCloud().getId(), Charsets.UTF_8);
-        into.putString(from.getHardware().getId(), Charsets.UTF_8);
-        into.putString(from.getLocation().getId(), Charsets.UTF_8);
-        into.putString(from.getImage().getId(), Charsets.UTF_8);
-      };
-  private static final Funnel<NodeCandidate> BYON_NODE_CANDIDATE_FUNNEL =
-      IAAS_NODE_CANDIDATE_FUNNEL;
-  private static final Funnel<NodeCandidate> FAAS_NODE_CANDIDATE_FUNNEL =
-      (Funnel<NodeCandidate>) (from, into) -> {
-        into.putString(from.getCloud().getId(), Charsets.UTF_8);
-        into.putInt(from.getHardware().getRam());
-        into.putString(from.getLocation().getId(), Charsets.UTF_8);
-        into.putString(from.getEnvironment().getRuntime().getName(), Charsets.UTF_8);
-        into.putDouble(from.getPricePerInvocation());
-        into.putDouble(from.getMemoryPrice());
-      };
-
-  private final static HashFunction HASH_FUNCTION = Hashing.md5();
+  private final IdHashing idHashing;
+  private final Funnel<NodeCandidate> iaasNodeCandidateFunnel;
+  private final Funnel<NodeCandidate> byonNodeCandidateFunnel;
+  private final Funnel<NodeCandidate> faasNodeCandidateFunnel;
+
+  public HashingNodeCandidateIdGenerator() {
+    this(IdHashing.MD5);
+  }
+
+  public HashingNodeCandidateIdGenerator(IdHashing idHashing) {
+    checkNotNull(idHashing, "idHashing is null");
+    this.idHashing = idHashing;
+    this.iaasNodeCandidateFunnel = (Funnel<NodeCandidate>) (from, into) -> {
+      putString(into, from.getCloud().getId());
+      putString(into, from.getHardware().getId());
+      putString(into, from.getLocation().getId());
+      putString(into, from.getImage().getId());
+    };
+    this.byonNodeCandidateFunnel = iaasNodeCandidateFunnel;
+    this.faasNodeCandidateFunnel = (Funnel<NodeCandidate>) (from, into) -> {
+      putString(into, from.getCloud().getId());
+      into.putInt(from.getHardware().getRam());
+      putString(into, from.getLocation().getId());
+      putString(into, from.getEnvironment().getRuntime().getName());
+      into.putDouble(from.getPricePerInvocation());
+      into.putDouble(from.getMemoryPrice());
+    };
+  }
+
+  private void putString(PrimitiveSink into, String value) {
+    if (idHashing.lengthPrefixed()) {
+      into.putInt(value.length());
+    }
+    into.putString(value, Charsets.UTF_8);
+  }
+
+  public IdHashing idHashing() {
+    return idHashing;
+  }
 
   @Override
   public String generateId(NodeCandidate nodeCandidate) {
     switch (nodeCandidate.getType()) {
       case IAAS:
       case SIMULATION:
-        return HASH_FUNCTION.hashObject(nodeCandidate, IAAS_NODE_CANDIDATE_FUNNEL).toString();
+        return idHashing.hashFunction().hashObject(nodeCandidate, iaasNodeCandidateFunnel)
+            .toString();
       case FAAS:
-        return HASH_FUNCTION.hashObject(nodeCandidate, FAAS_NODE_CANDIDATE_FUNNEL).toString();
+        return idHashing.hashFunction().hashObject(nodeCandidate, faasNodeCandidateFunnel)
+            .toString();
       case BYON:
-        return HASH_FUNCTION.hashObject(nodeCandidate, BYON_NODE_CANDIDATE_FUNNEL).toString();
+        return idHashing.hashFunction().hashObject(nodeCandidate, byonNodeCandidateFunnel)
+            .toString();
       case PAAS:
       default:
         throw new IllegalStateException(
@@ -0,0 +1,34 @@
+package org.cloudiator.matchmaking.domain;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hash functions available for node candidate ids.
+ * <p>
+ * {@link #MD5} is the original format and stays the default, as the ids are stored with the
+ * nodes. {@link #MURMUR3_128} is considerably cheaper and length prefixes the components, so
+ * different component ids can not produce the same input. Candidates generated with it still
+ * answer to their MD5 id, see {@link NodeCandidate#hasId(String)}.
+ */
+public enum IdHashing {
+
+  MD5(Hashing.md5(), false),
+  MURMUR3_128(Hashing.murmur3_128(), true);
+
+  private final HashFunction hashFunction;
+  private final boolean lengthPrefixed;
+
+  IdHashing(HashFunction hashFunction, boolean lengthPrefixed) {
+    this.hashFunction = hashFunction;
+    this.lengthPrefixed = lengthPrefixed;
+  }
+
+  public HashFunction hashFunction() {
+    return hashFunction;
+  }
+
+  public boolean lengthPrefixed() {
+    return lengthPrefixed;
+  }
+}
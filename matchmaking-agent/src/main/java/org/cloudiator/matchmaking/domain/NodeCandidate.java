@@ -10,13 +10,20 @@ import cloudiator.Location;
 import cloudiator.Node;
 import cloudiator.NodeType;
 import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.typesafe.config.Config;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.ocl.ByonGenerator;
 
 public class NodeCandidate implements Comparable<NodeCandidate> {
 
   private static final CloudiatorFactory CLOUDIATOR_FACTORY = CloudiatorFactory.eINSTANCE;
-  private String id;
+  private static final String ID_HASHING_PATH = "matchmaking.idHashing";
+  private final String id;
   private NodeType type;
   private Cloud cloud;
   private Location location;
@@ -29,7 +36,16 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
   private double pricePerInvocation;
   private double memoryPrice;
   private Environment environment;
-  private static final NodeCandidateIdGenerator ID_GENERATOR = new HashingNodeCandidateIdGenerator();
+  private static final IdHashing ID_HASHING = idHashing();
+  private static final NodeCandidateIdGenerator ID_GENERATOR = new HashingNodeCandidateIdGenerator(
+      ID_HASHING);
+  //generates the ids of the original format, for candidates referenced by existing nodes
+  private static final NodeCandidateIdGenerator LEGACY_ID_GENERATOR = new HashingNodeCandidateIdGenerator(
+      IdHashing.MD5);
+  @Nullable
+  private volatile String legacyId;
+  @Nullable
+  private volatile Node nodeView;
 
   public NodeCandidate(Cloud cloud, Hardware hardware,
       Image image, Location location, @Nullable Double price) {
@@ -44,6 +60,7 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
     this.image = image;
     this.location = location;
     this.price = price;
+    this.id = ID_GENERATOR.generateId(this);
   }
 
   public NodeCandidate(String id, Hardware hardware,
@@ -67,6 +84,7 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
     this.pricePerInvocation = pricePerInvocation;
     this.memoryPrice = memoryPrice;
     this.environment = environment;
+    this.id = ID_GENERATOR.generateId(this);
   }
 
   private Node toNode() {
@@ -84,17 +102,63 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
     return node;
   }
 
-  public synchronized String id() {
-    if (id == null) {
-      id = ID_GENERATOR.generateId(this);
+  private static IdHashing idHashing() {
+    final Config config = Configuration.conf();
+    if (config.hasPath(ID_HASHING_PATH)) {
+      return IdHashing.valueOf(config.getString(ID_HASHING_PATH));
     }
+    return IdHashing.MD5;
+  }
+
+  public String id() {
     return id;
   }
 
+  /**
+   * The id in the original MD5 format. Equal to {@link #id()} unless another {@link IdHashing}
+   * is configured.
+   */
+  public String legacyId() {
+    if (ID_HASHING == IdHashing.MD5 || type == NodeType.BYON) {
+      return id;
+    }
+    String legacy = legacyId;
+    if (legacy == null) {
+      legacy = LEGACY_ID_GENERATOR.generateId(this);
+      legacyId = legacy;
+    }
+    return legacy;
+  }
+
+  /**
+   * Checks if the candidate is identified by the given id, either in the current or in the
+   * original id format.
+   */
+  public boolean hasId(String id) {
+    return this.id.equals(id) || legacyId().equals(id);
+  }
+
+  /**
+   * Returns a new node for this candidate, which may be added to a component.
+   */
   public Node getNode() {
     return toNode();
   }
 
+  /**
+   * Returns a node for this candidate that is created once and shared by all callers. It must
+   * only be read, and never be added to a container or modified. Use {@link #getNode()}
+   * otherwise.
+   */
+  public Node nodeView() {
+    Node node = nodeView;
+    if (node == null) {
+      node = toNode();
+      nodeView = node;
+    }
+    return node;
+  }
+
   public NodeType getType() {
     return type;
   }
@@ -220,6 +284,10 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
 
   public static class NodeCandidateFactory {
 
+    //shared by all factories, the same model objects and price always yield the same candidate
+    private static final Cache<InternKey, NodeCandidate> INTERNED = CacheBuilder.newBuilder()
+        .weakValues().build();
+
     private NodeCandidateFactory() {
     }
 
@@ -229,7 +297,12 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
 
     public NodeCandidate of(Cloud cloud, Hardware hardware, Image image,
         Location location, @Nullable Double price) {
-      return new NodeCandidate(cloud, hardware, image, location, price);
+      try {
+        return INTERNED.get(new InternKey(cloud, hardware, image, location, price),
+            () -> new NodeCandidate(cloud, hardware, image, location, price));
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Could not create node candidate.", e.getCause());
+      }
     }
 
     public NodeCandidate byon(String id, Hardware hardware, Image image,
@@ -242,5 +315,49 @@ public class NodeCandidate implements Comparable<NodeCandidate> {
       return new NodeCandidate(cloud, location, hardware, pricePerInvocation, memoryPrice,
           environment);
     }
+
+    /**
+     * Identity of an IaaS candidate. Unlike {@link NodeCandidate#equals(Object)} it includes
+     * the price, so candidates with different prices are never merged.
+     */
+    private static class InternKey {
+
+      private final Cloud cloud;
+      private final Hardware hardware;
+      private final Image image;
+      private final Location location;
+      @Nullable
+      private final Double price;
+      private final int hash;
+
+      private InternKey(Cloud cloud, Hardware hardware, Image image, Location location,
+          @Nullable Double price) {
+        this.cloud = cloud;
+        this.hardware = hardware;
+        this.image = image;
+        this.location = location;
+        this.price = price;
+        this.hash = Objects.hash(cloud, hardware, image, location, price);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) {
+          return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+          return false;
+        }
+        InternKey that = (InternKey) o;
+        return hash == that.hash && cloud == that.cloud && hardware == that.hardware
+            && image == that.image && location == that.location && Objects
+            .equals(price, that.price);
+      }
+
+      @Override
+      public int hashCode() {
+        return hash;
+      }
+    }
   }
 }
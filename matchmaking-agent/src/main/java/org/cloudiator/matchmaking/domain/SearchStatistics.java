@@ -0,0 +1,187 @@
+package org.cloudiator.matchmaking.domain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * Statistics of a tree search, e.g. by the choco solver. Counts are summed over all runs of the
+ * solver, the trajectory lists every improving solution with the time since the solver started.
+ */
+public class SearchStatistics {
+
+  private final int runs;
+  private final long nodes;
+  private final long fails;
+  private final long backtracks;
+  private final long restarts;
+  private final long solutions;
+  private final long contradictions;
+  @Nullable
+  private final String lastContradiction;
+  private final long timeMillis;
+  private final List<Improvement> trajectory;
+
+  private SearchStatistics(Builder builder) {
+    this.runs = builder.runs;
+    this.nodes = builder.nodes;
+    this.fails = builder.fails;
+    this.backtracks = builder.backtracks;
+    this.restarts = builder.restarts;
+    this.solutions = builder.solutions;
+    this.contradictions = builder.contradictions;
+    this.lastContradiction = builder.lastContradiction;
+    this.timeMillis = builder.timeMillis;
+    this.trajectory = ImmutableList.copyOf(builder.trajectory);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Number of searches, e.g. one per tried node size.
+   */
+  public int runs() {
+    return runs;
+  }
+
+  public long nodes() {
+    return nodes;
+  }
+
+  public long fails() {
+    return fails;
+  }
+
+  public long backtracks() {
+    return backtracks;
+  }
+
+  public long restarts() {
+    return restarts;
+  }
+
+  public long solutions() {
+    return solutions;
+  }
+
+  public long contradictions() {
+    return contradictions;
+  }
+
+  public Optional<String> lastContradiction() {
+    return Optional.ofNullable(lastContradiction);
+  }
+
+  public long timeMillis() {
+    return timeMillis;
+  }
+
+  public List<Improvement> trajectory() {
+    return trajectory;
+  }
+
+  public Optional<Improvement> first() {
+    return trajectory.isEmpty() ? Optional.empty() : Optional.of(trajectory.get(0));
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("runs", runs).add("nodes", nodes)
+        .add("fails", fails).add("backtracks", backtracks).add("restarts", restarts)
+        .add("solutions", solutions).add("contradictions", contradictions)
+        .add("timeMillis", timeMillis).add("trajectory", trajectory).toString();
+  }
+
+  /**
+   * An improving solution found by the search.
+   */
+  public static class Improvement {
+
+    private final long timeMillis;
+    private final double objective;
+
+    public Improvement(long timeMillis, double objective) {
+      this.timeMillis = timeMillis;
+      this.objective = objective;
+    }
+
+    public long timeMillis() {
+      return timeMillis;
+    }
+
+    public double objective() {
+      return objective;
+    }
+
+    @Override
+    public String toString() {
+      return timeMillis + "ms:" + objective;
+    }
+  }
+
+  public static class Builder {
+
+    private int runs;
+    private long nodes;
+    private long fails;
+    private long backtracks;
+    private long restarts;
+    private long solutions;
+    private long contradictions;
+    @Nullable
+    private String lastContradiction;
+    private long timeMillis;
+    private final List<Improvement> trajectory = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Adds the counts of one run of the search.
+     */
+    public Builder addRun(long nodes, long fails, long backtracks, long restarts, long solutions,
+        long timeMillis) {
+      this.runs++;
+      this.nodes += nodes;
+      this.fails += fails;
+      this.backtracks += backtracks;
+      this.restarts += restarts;
+      this.solutions += solutions;
+      this.timeMillis += timeMillis;
+      return this;
+    }
+
+    public Builder addContradictions(long contradictions, @Nullable String lastContradiction) {
+      checkArgument(contradictions >= 0, "contradictions needs to be positive");
+      this.contradictions += contradictions;
+      if (lastContradiction != null) {
+        this.lastContradiction = lastContradiction;
+      }
+      return this;
+    }
+
+    public Builder addImprovement(long timeMillis, double objective) {
+      trajectory.add(new Improvement(timeMillis, objective));
+      return this;
+    }
+
+    public long nodes() {
+      return nodes;
+    }
+
+    public long fails() {
+      return fails;
+    }
+
+    public SearchStatistics build() {
+      return new SearchStatistics(this);
+    }
+  }
+}
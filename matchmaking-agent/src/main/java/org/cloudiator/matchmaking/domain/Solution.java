@@ -16,21 +16,20 @@ public class Solution implements Comparable<Solution> {
 
   public static final Solution EMPTY_SOLUTION = Solution.of(Collections.emptyList());
 
-  private final String id;
+  @Nullable
+  private String id;
   private final List<NodeCandidate> nodeCandidates;
   private Double costs = null;
   private Float time = null;
   private boolean isOptimal = false;
   private boolean valid = true;
   private Class<? extends Solver> solver;
+  @Nullable
+  private SearchStatistics statistics;
 
   private Solution(Collection<NodeCandidate> candidates, @Nullable String id) {
     this.nodeCandidates = new ArrayList<>(candidates);
-    if (id != null) {
-      this.id = id;
-    } else {
-      this.id = UUID.randomUUID().toString();
-    }
+    this.id = id;
   }
 
   public static Solution of(Collection<NodeCandidate> candidates) {
@@ -50,6 +49,18 @@ public class Solution implements Comparable<Solution> {
     return solver;
   }
 
+  public void setStatistics(SearchStatistics statistics) {
+    checkNotNull(statistics, "statistics is null");
+    this.statistics = statistics;
+  }
+
+  /**
+   * Statistics of the search that found this solution, if the solver provides them.
+   */
+  public Optional<SearchStatistics> getStatistics() {
+    return Optional.ofNullable(statistics);
+  }
+
   public void expired() {
     this.valid = false;
   }
@@ -130,7 +141,10 @@ public class Solution implements Comparable<Solution> {
     return valid;
   }
 
-  public String getId() {
+  public synchronized String getId() {
+    if (id == null) {
+      id = UUID.randomUUID().toString();
+    }
     return id;
   }
 }
@@ -0,0 +1,31 @@
+package org.cloudiator.matchmaking.domain;
+
+/**
+ * The best solution known while solvers race on the same problem. Solvers only need to find
+ * cheaper solutions than its costs and may prune anything at least as expensive, as prices are
+ * never negative. Solvers may offer improving solutions while still searching.
+ */
+public interface SolutionBound {
+
+  SolutionBound NONE = new SolutionBound() {
+    @Override
+    public double costs() {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void offer(Solution solution) {
+    }
+  };
+
+  /**
+   * Costs of the best known solution, {@link Double#POSITIVE_INFINITY} without one.
+   */
+  double costs();
+
+  void offer(Solution solution);
+
+  default boolean isBounded() {
+    return costs() < Double.POSITIVE_INFINITY;
+  }
+}
@@ -10,4 +10,14 @@ public interface Solver {
   Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates, @Nullable Solution existingSolution, @Nullable Integer targetNodeSize)
       throws InterruptedException;
 
+  /**
+   * Solves within the given, already started budget. Solvers not supporting budgets only stop
+   * when interrupted.
+   */
+  default Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Solution existingSolution, @Nullable Integer targetNodeSize, SolverBudget budget)
+      throws InterruptedException {
+    return solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize);
+  }
+
 }
@@ -0,0 +1,236 @@
+package org.cloudiator.matchmaking.domain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Limits a solver has to respect, enforced by the solver itself.
+ * <p>
+ * A budget is configured without a deadline, {@link #start()} fixes the deadline once the solver
+ * starts. Limits of zero are unlimited. The heap limit is an estimate: the solver stops if the
+ * heap of the whole JVM still in use after the last garbage collection exceeds the given
+ * fraction of the maximum heap, so garbage not yet collected does not stop it. Solvers racing
+ * against others additionally get the {@link SolutionBound} of the race.
+ */
+public class SolverBudget {
+
+  public static final SolverBudget UNLIMITED = builder().build();
+
+  private static final long NO_DEADLINE = Long.MAX_VALUE;
+  private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory
+      .getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP)
+      .collect(Collectors.toList());
+
+  private final long timeMillis;
+  private final long nodeLimit;
+  private final long failLimit;
+  private final int maxGenerationSize;
+  private final double heapFraction;
+  private final long deadlineNanos;
+  private final SolutionBound solutionBound;
+
+  private SolverBudget(long timeMillis, long nodeLimit, long failLimit, int maxGenerationSize,
+      double heapFraction, long deadlineNanos, SolutionBound solutionBound) {
+    this.timeMillis = timeMillis;
+    this.nodeLimit = nodeLimit;
+    this.failLimit = failLimit;
+    this.maxGenerationSize = maxGenerationSize;
+    this.heapFraction = heapFraction;
+    this.deadlineNanos = deadlineNanos;
+    this.solutionBound = solutionBound;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Budget limited only by a deadline starting now, e.g. the one of a request.
+   */
+  public static SolverBudget deadline(long timeMillis) {
+    checkArgument(timeMillis > 0, "timeMillis needs to be larger than zero");
+    return builder().timeMillis(timeMillis).build().start();
+  }
+
+  /**
+   * Starts the budget, the deadline is now plus the time limit.
+   */
+  public SolverBudget start() {
+    if (timeMillis == 0 || deadlineNanos != NO_DEADLINE) {
+      return this;
+    }
+    return new SolverBudget(timeMillis, nodeLimit, failLimit, maxGenerationSize, heapFraction,
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeMillis), solutionBound);
+  }
+
+  /**
+   * This budget, ending at the deadline of the other budget if that one is earlier.
+   */
+  public SolverBudget within(SolverBudget other) {
+    checkNotNull(other, "other is null");
+    if (!other.hasDeadline() || (hasDeadline() && deadlineNanos - other.deadlineNanos <= 0)) {
+      return this;
+    }
+    return new SolverBudget(timeMillis, nodeLimit, failLimit, maxGenerationSize, heapFraction,
+        other.deadlineNanos, solutionBound);
+  }
+
+  /**
+   * This budget, sharing the given bound with the other solvers.
+   */
+  public SolverBudget withBound(SolutionBound solutionBound) {
+    checkNotNull(solutionBound, "solutionBound is null");
+    return new SolverBudget(timeMillis, nodeLimit, failLimit, maxGenerationSize, heapFraction,
+        deadlineNanos, solutionBound);
+  }
+
+  public long timeMillis() {
+    return timeMillis;
+  }
+
+  /**
+   * Maximum number of search nodes of tree search solvers, zero if unlimited.
+   */
+  public long nodeLimit() {
+    return nodeLimit;
+  }
+
+  /**
+   * Maximum number of failures of tree search solvers, zero if unlimited.
+   */
+  public long failLimit() {
+    return failLimit;
+  }
+
+  /**
+   * Maximum number of partial solutions kept per generation, zero if unlimited.
+   */
+  public int maxGenerationSize() {
+    return maxGenerationSize;
+  }
+
+  public double heapFraction() {
+    return heapFraction;
+  }
+
+  public SolutionBound solutionBound() {
+    return solutionBound;
+  }
+
+  public boolean hasDeadline() {
+    return deadlineNanos != NO_DEADLINE;
+  }
+
+  /**
+   * Milliseconds until the deadline, {@link Long#MAX_VALUE} without one.
+   */
+  public long remainingMillis() {
+    if (!hasDeadline()) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+  }
+
+  public boolean deadlinePassed() {
+    return hasDeadline() && System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  public boolean heapExceeded() {
+    if (heapFraction >= 1) {
+      return false;
+    }
+    return heapUsedAfterCollection() > Runtime.getRuntime().maxMemory() * heapFraction;
+  }
+
+  /**
+   * Bytes of the heap in use right after the last collection of each pool.
+   */
+  private static long heapUsedAfterCollection() {
+    long used = 0;
+    for (MemoryPoolMXBean pool : HEAP_POOLS) {
+      //null if the pool does not support it
+      final MemoryUsage usage = pool.getCollectionUsage();
+      if (usage != null) {
+        used += usage.getUsed();
+      }
+    }
+    return used;
+  }
+
+  /**
+   * True if the solver has to stop: it was interrupted, passed the deadline or the heap limit.
+   */
+  public boolean exhausted() {
+    return Thread.currentThread().isInterrupted() || deadlinePassed() || heapExceeded();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("timeMillis", timeMillis)
+        .add("nodeLimit", nodeLimit).add("failLimit", failLimit)
+        .add("maxGenerationSize", maxGenerationSize).add("heapFraction", heapFraction)
+        .add("remainingMillis", hasDeadline() ? remainingMillis() : null)
+        .add("bound", solutionBound.isBounded() ? solutionBound.costs() : null).omitNullValues()
+        .toString();
+  }
+
+  public static class Builder {
+
+    private long timeMillis = 0;
+    private long nodeLimit = 0;
+    private long failLimit = 0;
+    private int maxGenerationSize = 0;
+    private double heapFraction = 1;
+
+    private Builder() {
+    }
+
+    public Builder timeMillis(long timeMillis) {
+      checkArgument(timeMillis >= 0, "timeMillis needs to be positive");
+      this.timeMillis = timeMillis;
+      return this;
+    }
+
+    public Builder nodeLimit(long nodeLimit) {
+      checkArgument(nodeLimit >= 0, "nodeLimit needs to be positive");
+      this.nodeLimit = nodeLimit;
+      return this;
+    }
+
+    public Builder failLimit(long failLimit) {
+      checkArgument(failLimit >= 0, "failLimit needs to be positive");
+      this.failLimit = failLimit;
+      return this;
+    }
+
+    public Builder maxGenerationSize(int maxGenerationSize) {
+      checkArgument(maxGenerationSize >= 0, "maxGenerationSize needs to be positive");
+      this.maxGenerationSize = maxGenerationSize;
+      return this;
+    }
+
+    /**
+     * Fraction of the maximum heap the JVM may use before the solver stops, one disables it.
+     */
+    public Builder heapFraction(double heapFraction) {
+      checkArgument(heapFraction > 0 && heapFraction <= 1,
+          "heapFraction needs to be within (0, 1]");
+      this.heapFraction = heapFraction;
+      return this;
+    }
+
+    public SolverBudget build() {
+      return new SolverBudget(timeMillis, nodeLimit, failLimit, maxGenerationSize, heapFraction,
+          NO_DEADLINE, SolutionBound.NONE);
+    }
+  }
+}
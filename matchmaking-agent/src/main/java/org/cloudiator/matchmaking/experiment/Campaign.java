@@ -0,0 +1,202 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.cloudiator.matchmaking.choco.TimeLimit;
+import org.cloudiator.matchmaking.ocl.OclCsp;
+
+/**
+ * Declarative matrix of an experiment campaign. Every combination of solver, catalogue, node size,
+ * time limit and seed is one {@link Cell}, which is run once.
+ */
+public class Campaign {
+
+  private final OclCsp oclCsp;
+  private final List<CampaignSolver> solvers;
+  private final List<String> catalogues;
+  private final List<Integer> nodeSizes;
+  private final List<TimeLimit> timeLimits;
+  private final List<Long> seeds;
+
+  private Campaign(Builder builder) {
+    checkNotNull(builder.oclCsp, "oclCsp is null");
+    checkArgument(!builder.solvers.isEmpty(), "no solvers");
+    checkArgument(!builder.catalogues.isEmpty(), "no catalogues");
+    checkArgument(!builder.nodeSizes.isEmpty(), "no node sizes");
+    checkArgument(!builder.timeLimits.isEmpty(), "no time limits");
+    checkArgument(!builder.seeds.isEmpty(), "no seeds");
+    this.oclCsp = builder.oclCsp;
+    this.solvers = builder.solvers;
+    this.catalogues = builder.catalogues;
+    this.nodeSizes = builder.nodeSizes;
+    this.timeLimits = builder.timeLimits;
+    this.seeds = builder.seeds;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public OclCsp oclCsp() {
+    return oclCsp;
+  }
+
+  /**
+   * All cells of the matrix. Cells of the same catalogue and seed are adjacent, so their
+   * candidates are only generated once while the campaign runs.
+   */
+  public List<Cell> cells() {
+    ImmutableList.Builder<Cell> cells = ImmutableList.builder();
+    for (String catalogue : catalogues) {
+      for (Long seed : seeds) {
+        for (Integer nodeSize : nodeSizes) {
+          for (TimeLimit timeLimit : timeLimits) {
+            for (CampaignSolver solver : solvers) {
+              cells.add(new Cell(solver, catalogue, nodeSize, timeLimit.toMillis(), seed));
+            }
+          }
+        }
+      }
+    }
+    return cells.build();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("solvers", solvers)
+        .add("catalogues", catalogues).add("nodeSizes", nodeSizes).add("timeLimits", timeLimits)
+        .add("seeds", seeds).toString();
+  }
+
+  public static class Cell {
+
+    private final CampaignSolver solver;
+    private final String catalogue;
+    private final int nodeSize;
+    private final long timeLimitMillis;
+    private final long seed;
+
+    Cell(CampaignSolver solver, String catalogue, int nodeSize, long timeLimitMillis,
+        long seed) {
+      checkNotNull(solver, "solver is null");
+      checkNotNull(catalogue, "catalogue is null");
+      checkArgument(!catalogue.contains(","), "catalogue must not contain a comma");
+      this.solver = solver;
+      this.catalogue = catalogue;
+      this.nodeSize = nodeSize;
+      this.timeLimitMillis = timeLimitMillis;
+      this.seed = seed;
+    }
+
+    public CampaignSolver solver() {
+      return solver;
+    }
+
+    public String catalogue() {
+      return catalogue;
+    }
+
+    public int nodeSize() {
+      return nodeSize;
+    }
+
+    public long timeLimitMillis() {
+      return timeLimitMillis;
+    }
+
+    public long seed() {
+      return seed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Cell cell = (Cell) o;
+      return nodeSize == cell.nodeSize && timeLimitMillis == cell.timeLimitMillis
+          && seed == cell.seed && solver == cell.solver && catalogue.equals(cell.catalogue);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(solver, catalogue, nodeSize, timeLimitMillis, seed);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("solver", solver).add("catalogue", catalogue)
+          .add("nodeSize", nodeSize).add("timeLimitMillis", timeLimitMillis).add("seed", seed)
+          .toString();
+    }
+  }
+
+  public static class Builder {
+
+    private OclCsp oclCsp = ExperimentCSP.CSP;
+    private List<CampaignSolver> solvers = ImmutableList.of(CampaignSolver.BEST_FIT);
+    private List<String> catalogues = ImmutableList.of();
+    private List<Integer> nodeSizes = ImmutableList.of();
+    private List<TimeLimit> timeLimits = ImmutableList.of();
+    private List<Long> seeds = ImmutableList.of(42L);
+
+    private Builder() {
+    }
+
+    public Builder oclCsp(OclCsp oclCsp) {
+      this.oclCsp = oclCsp;
+      return this;
+    }
+
+    public Builder solvers(CampaignSolver... solvers) {
+      this.solvers = ImmutableList.copyOf(solvers);
+      return this;
+    }
+
+    public Builder catalogues(String... catalogues) {
+      this.catalogues = ImmutableList.copyOf(catalogues);
+      return this;
+    }
+
+    public Builder nodeSizes(Integer... nodeSizes) {
+      this.nodeSizes = ImmutableList.copyOf(nodeSizes);
+      return this;
+    }
+
+    /**
+     * All node sizes from {@code from} to {@code to}, inclusive.
+     */
+    public Builder nodeSizeRange(int from, int to) {
+      checkArgument(from > 0 && from <= to, "invalid node size range");
+      ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+      for (int i = from; i <= to; i++) {
+        builder.add(i);
+      }
+      this.nodeSizes = builder.build();
+      return this;
+    }
+
+    public Builder timeLimits(TimeLimit... timeLimits) {
+      this.timeLimits = ImmutableList.copyOf(timeLimits);
+      return this;
+    }
+
+    public Builder seeds(Long... seeds) {
+      this.seeds = ImmutableList.copyOf(Arrays.asList(seeds));
+      return this;
+    }
+
+    public Campaign build() {
+      return new Campaign(this);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.cloudiator.matchmaking.experiment;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.Quantiles;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.cloudiator.matchmaking.experiment.CampaignResult.Status;
+
+/**
+ * Aggregates the results of a campaign over the seeds of every cell, reporting the 50th, 90th
+ * and 99th percentile of the costs, the solving time and the time to the optimal solution.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class CampaignReport {
+
+  private static final String HEADER = "solver,catalogue,nodeSize,timeLimitMillis,runs,solved,optimal,"
+      + "costsP50,costsP90,costsP99,timeP50,timeP90,timeP99,"
+      + "timeToOptimalP50,timeToOptimalP90,timeToOptimalP99";
+  private static final Joiner JOINER = Joiner.on(',');
+  private static final int[] PERCENTILES = new int[]{50, 90, 99};
+
+  private final Map<List<Object>, List<CampaignResult>> groups = new LinkedHashMap<>();
+
+  private CampaignReport(Collection<CampaignResult> results) {
+    for (CampaignResult result : results) {
+      final List<Object> key = ImmutableList
+          .of(result.cell().solver(), result.cell().catalogue(), result.cell().nodeSize(),
+              result.cell().timeLimitMillis());
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+    }
+  }
+
+  public static CampaignReport of(Collection<CampaignResult> results) {
+    return new CampaignReport(results);
+  }
+
+  private static void percentiles(List<Object> line, List<Double> values) {
+    if (values.isEmpty()) {
+      for (int ignored : PERCENTILES) {
+        line.add(Double.NaN);
+      }
+      return;
+    }
+    final Map<Integer, Double> percentiles = Quantiles.percentiles().indexes(PERCENTILES)
+        .compute(values);
+    for (int percentile : PERCENTILES) {
+      line.add(percentiles.get(percentile));
+    }
+  }
+
+  public List<String> lines() {
+    List<String> lines = new ArrayList<>(groups.size() + 1);
+    lines.add(HEADER);
+    for (Map.Entry<List<Object>, List<CampaignResult>> group : groups.entrySet()) {
+      List<Double> costs = new ArrayList<>();
+      List<Double> times = new ArrayList<>();
+      List<Double> timesToOptimal = new ArrayList<>();
+      for (CampaignResult result : group.getValue()) {
+        if (result.status() != Status.SOLVED) {
+          continue;
+        }
+        costs.add(result.costs());
+        times.add((double) result.timeMillis());
+        if (result.optimal()) {
+          timesToOptimal.add((double) result.timeMillis());
+        }
+      }
+      List<Object> line = new ArrayList<>(group.getKey());
+      line.add(group.getValue().size());
+      line.add(costs.size());
+      line.add(timesToOptimal.size());
+      percentiles(line, costs);
+      percentiles(line, times);
+      percentiles(line, timesToOptimal);
+      lines.add(JOINER.join(line));
+    }
+    return lines;
+  }
+
+  public void write(Writer writer) throws IOException {
+    final PrintWriter printWriter = new PrintWriter(writer);
+    for (String line : lines()) {
+      printWriter.println(line);
+    }
+    printWriter.flush();
+    if (printWriter.checkError()) {
+      throw new IOException("Could not write campaign report.");
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import java.util.List;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.experiment.Campaign.Cell;
+
+/**
+ * Result of a single {@link Cell}, stored as one CSV line in the checkpoint of a campaign.
+ * <p>
+ * The solvers only report their final solution, so {@link #timeMillis()} is the time until this
+ * solution was returned and the time to the optimal solution if it is {@link #optimal()}.
+ */
+public class CampaignResult {
+
+  public static final String HEADER = "solver,catalogue,nodeSize,timeLimitMillis,seed,status,costs,timeMillis,optimal";
+  private static final Joiner JOINER = Joiner.on(',');
+  private static final Splitter SPLITTER = Splitter.on(',');
+
+  public enum Status {
+    SOLVED,
+    NO_SOLUTION,
+    FAILED
+  }
+
+  private final Cell cell;
+  private final Status status;
+  private final double costs;
+  private final long timeMillis;
+  private final boolean optimal;
+
+  private CampaignResult(Cell cell, Status status, double costs, long timeMillis,
+      boolean optimal) {
+    checkNotNull(cell, "cell is null");
+    checkNotNull(status, "status is null");
+    this.cell = cell;
+    this.status = status;
+    this.costs = costs;
+    this.timeMillis = timeMillis;
+    this.optimal = optimal;
+  }
+
+  public static CampaignResult of(Cell cell, Solution solution, long timeMillis) {
+    checkNotNull(solution, "solution is null");
+    if (solution.noSolution()) {
+      return new CampaignResult(cell, Status.NO_SOLUTION, Double.NaN, timeMillis, false);
+    }
+    return new CampaignResult(cell, Status.SOLVED, solution.getCosts(), timeMillis,
+        solution.isOptimal());
+  }
+
+  public static CampaignResult failed(Cell cell, long timeMillis) {
+    return new CampaignResult(cell, Status.FAILED, Double.NaN, timeMillis, false);
+  }
+
+  public static CampaignResult parse(String line) {
+    final List<String> values = SPLITTER.splitToList(line);
+    checkArgument(values.size() == 9, "Expected 9 values but got %s in line %s.", values.size(),
+        line);
+    final Cell cell = new Cell(CampaignSolver.valueOf(values.get(0)), values.get(1),
+        Integer.parseInt(values.get(2)), Long.parseLong(values.get(3)),
+        Long.parseLong(values.get(4)));
+    return new CampaignResult(cell, Status.valueOf(values.get(5)),
+        Double.parseDouble(values.get(6)), Long.parseLong(values.get(7)),
+        Boolean.parseBoolean(values.get(8)));
+  }
+
+  public String toLine() {
+    return JOINER.join(cell.solver(), cell.catalogue(), cell.nodeSize(), cell.timeLimitMillis(),
+        cell.seed(), status, costs, timeMillis, optimal);
+  }
+
+  public Cell cell() {
+    return cell;
+  }
+
+  public Status status() {
+    return status;
+  }
+
+  public double costs() {
+    return costs;
+  }
+
+  public long timeMillis() {
+    return timeMillis;
+  }
+
+  public boolean optimal() {
+    return optimal;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("cell", cell).add("status", status)
+        .add("costs", costs).add("timeMillis", timeMillis).add("optimal", optimal).toString();
+  }
+}
@@ -0,0 +1,264 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.experiment.Campaign.Cell;
+import org.cloudiator.matchmaking.experiment.CampaignResult.Status;
+import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
+import org.cloudiator.matchmaking.ocl.ConstraintChecker;
+import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
+import org.cloudiator.matchmaking.ocl.NodeCandidates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the cells of a {@link Campaign} in parallel, each on its own worker thread.
+ * <p>
+ * Every finished cell is appended to the checkpoint file right away. Cells that are already part
+ * of the checkpoint are skipped, so an interrupted campaign resumes where it stopped. Failed cells
+ * run again, their new result is appended and replaces the failed one. A solver
+ * runs until its time limit, then its worker thread is interrupted like the {@link
+ * org.cloudiator.matchmaking.ocl.MetaSolver} does.
+ */
+public class CampaignRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CampaignRunner.class);
+
+  private final Campaign campaign;
+  private final Path checkpoint;
+  private final int parallelism;
+  //consistent candidates by catalogue and seed, shared by the cells using them
+  private final LoadingCache<CandidateKey, Set<NodeCandidate>> candidates;
+
+  public CampaignRunner(Campaign campaign, Path checkpoint, int parallelism) {
+    checkNotNull(campaign, "campaign is null");
+    checkNotNull(checkpoint, "checkpoint is null");
+    checkArgument(parallelism > 0, "parallelism needs to be larger than zero");
+    this.campaign = campaign;
+    this.checkpoint = checkpoint;
+    this.parallelism = parallelism;
+    this.candidates = CacheBuilder.newBuilder().maximumSize(parallelism)
+        .build(new CacheLoader<CandidateKey, Set<NodeCandidate>>() {
+          @Override
+          public Set<NodeCandidate> load(CandidateKey key) {
+            return new ConsistentNodeGenerator(
+                new DefaultNodeGenerator(ExperimentCSP.NODE_CANDIDATE_FACTORY,
+                    Catalogues.model(key.catalogue, key.seed), null,
+                    ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER),
+                ConstraintChecker.create(campaign.oclCsp()), ExperimentCSP.METRICS_REGISTRY,
+                ExperimentCSP.TRACER).get();
+          }
+        });
+  }
+
+  /**
+   * Reads the results of a checkpoint, an absent checkpoint has no results. A trailing line
+   * without line break was only partially written when the campaign stopped, it is skipped.
+   */
+  public static List<CampaignResult> readCheckpoint(Path checkpoint) throws IOException {
+    if (!Files.exists(checkpoint)) {
+      return Collections.emptyList();
+    }
+    final List<String> lines = Files.readAllLines(checkpoint, StandardCharsets.UTF_8);
+    if (completeLength(checkpoint) < Files.size(checkpoint)) {
+      LOGGER.warn(String.format("Skipping partially written line %s of checkpoint %s.",
+          lines.get(lines.size() - 1), checkpoint));
+      lines.remove(lines.size() - 1);
+    }
+    List<CampaignResult> results = new ArrayList<>();
+    for (String line : lines) {
+      if (line.isEmpty() || line.equals(CampaignResult.HEADER)) {
+        continue;
+      }
+      results.add(CampaignResult.parse(line));
+    }
+    return results;
+  }
+
+  /**
+   * Length of the checkpoint up to and including its last line break.
+   */
+  private static long completeLength(Path checkpoint) throws IOException {
+    final byte[] content = Files.readAllBytes(checkpoint);
+    int length = content.length;
+    while (length > 0 && content[length - 1] != '\n') {
+      length--;
+    }
+    return length;
+  }
+
+  /**
+   * Runs all cells missing or failed in the checkpoint and returns the results of the whole
+   * campaign.
+   */
+  public List<CampaignResult> run() throws IOException, InterruptedException {
+
+    final Map<Cell, CampaignResult> results = new LinkedHashMap<>();
+    for (CampaignResult result : readCheckpoint(checkpoint)) {
+      results.put(result.cell(), result);
+    }
+
+    List<Cell> pending = new ArrayList<>();
+    int failed = 0;
+    for (Cell cell : campaign.cells()) {
+      final CampaignResult result = results.get(cell);
+      if (result == null) {
+        pending.add(cell);
+      } else if (result.status() == Status.FAILED) {
+        pending.add(cell);
+        failed++;
+      }
+    }
+    LOGGER.info(String.format(
+        "%s runs %s of %s cells, %s are part of checkpoint %s, %s of them failed before.", this,
+        pending.size(), campaign.cells().size(), results.size(), checkpoint, failed));
+
+    final ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+        new ThreadFactoryBuilder().setNameFormat("campaign-%d").setDaemon(true).build());
+    final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("campaign-timer-%d").setDaemon(true).build());
+
+    if (Files.exists(checkpoint) && completeLength(checkpoint) < Files.size(checkpoint)) {
+      //results are appended, they must not continue the partial line
+      try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+        channel.truncate(completeLength(checkpoint));
+      }
+    }
+    final boolean writeHeader = !Files.exists(checkpoint) || Files.size(checkpoint) == 0;
+    try (BufferedWriter writer = Files
+        .newBufferedWriter(checkpoint, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+      if (writeHeader) {
+        writer.write(CampaignResult.HEADER);
+        writer.newLine();
+        writer.flush();
+      }
+
+      List<Future<CampaignResult>> futures = new ArrayList<>(pending.size());
+      for (Cell cell : pending) {
+        futures.add(workers.submit(() -> {
+          final CampaignResult result = run(cell, timer);
+          checkpoint(writer, result);
+          return result;
+        }));
+      }
+      for (Future<CampaignResult> future : futures) {
+        try {
+          final CampaignResult result = future.get();
+          results.put(result.cell(), result);
+        } catch (ExecutionException e) {
+          throw new IOException("Could not write result to checkpoint.", e.getCause());
+        }
+      }
+    } finally {
+      workers.shutdownNow();
+      timer.shutdownNow();
+    }
+
+    return new ArrayList<>(results.values());
+  }
+
+  private CampaignResult run(Cell cell, ScheduledExecutorService timer) {
+    final Thread worker = Thread.currentThread();
+    final long start = System.currentTimeMillis();
+    try {
+      //copy, so solvers do not share the mutable candidate set
+      final NodeCandidates nodeCandidates = NodeCandidates
+          .of(new HashSet<>(candidates.getUnchecked(new CandidateKey(cell))));
+      final ScheduledFuture<?> interrupt = timer
+          .schedule(worker::interrupt, cell.timeLimitMillis(), TimeUnit.MILLISECONDS);
+      final long solvingStart = System.currentTimeMillis();
+      try {
+        //the solvers stop themselves at the time limit, the interrupt is the fallback
+        final SolverBudget budget = SolverBudget.builder().timeMillis(cell.timeLimitMillis())
+            .build().start();
+        final Solution solution = cell.solver().create()
+            .solve(campaign.oclCsp(), nodeCandidates, null, cell.nodeSize(), budget);
+        return CampaignResult.of(cell, solution, System.currentTimeMillis() - solvingStart);
+      } finally {
+        if (!interrupt.cancel(false)) {
+          //the time limit is already interrupting, wait for it before clearing the interrupt
+          Uninterruptibles.getUninterruptibly(interrupt);
+        }
+        Thread.interrupted();
+      }
+    } catch (Exception e) {
+      LOGGER.warn(String.format("%s failed to run cell %s.", this, cell), e);
+      return CampaignResult.failed(cell, System.currentTimeMillis() - start);
+    }
+  }
+
+  private static void checkpoint(Writer writer, CampaignResult result) throws IOException {
+    synchronized (writer) {
+      writer.write(result.toLine());
+      writer.write(System.lineSeparator());
+      writer.flush();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("parallelism", parallelism).toString();
+  }
+
+  private static class CandidateKey {
+
+    private final String catalogue;
+    private final long seed;
+
+    private CandidateKey(Cell cell) {
+      this.catalogue = cell.catalogue();
+      this.seed = cell.seed();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      CandidateKey that = (CandidateKey) o;
+      return seed == that.seed && catalogue.equals(that.catalogue);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(catalogue, seed);
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package org.cloudiator.matchmaking.experiment;
+
+import java.util.function.Supplier;
+import org.cloudiator.matchmaking.choco.ChocoSolver;
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.cmpl.CMPLSolver;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.ocl.BestFitSolver;
+
+/**
+ * The solvers an experiment campaign can run.
+ */
+public enum CampaignSolver {
+
+  CHOCO(() -> new ChocoSolver(ExperimentCSP.METRICS_REGISTRY, new GenerationEstimate(),
+      ExperimentCSP.TRACER)),
+  BEST_FIT(() -> new BestFitSolver(ExperimentCSP.METRICS_REGISTRY)),
+  //requires the cmpl binaries on the path
+  CMPL(CMPLSolver::new);
+
+  private final Supplier<Solver> solver;
+
+  CampaignSolver(Supplier<Solver> solver) {
+    this.solver = solver;
+  }
+
+  public Solver create() {
+    return solver.get();
+  }
+}
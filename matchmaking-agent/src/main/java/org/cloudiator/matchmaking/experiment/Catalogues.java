@@ -0,0 +1,42 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloudiator.CloudiatorModel;
+import org.cloudiator.matchmaking.experiment.Experiment.CloudiatorModelType;
+
+/**
+ * Resolves catalogue names of experiments and benchmarks to models.
+ * <p>
+ * A name is either a {@link CloudiatorModelType} or {@code synthetic:<candidates>} for a {@link
+ * SyntheticModelGenerator} catalogue with roughly the given number of candidates.
+ */
+public final class Catalogues {
+
+  private static final String SYNTHETIC = "synthetic:";
+
+  private Catalogues() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  public static boolean isSynthetic(String catalogue) {
+    return catalogue.startsWith(SYNTHETIC);
+  }
+
+  /**
+   * Returns the model of the catalogue. The seed is only used by synthetic catalogues, the
+   * models of the {@link CloudiatorModelType}s are generated once and shared.
+   */
+  public static CloudiatorModel model(String catalogue, long seed) {
+    checkNotNull(catalogue, "catalogue is null");
+    if (isSynthetic(catalogue)) {
+      return SyntheticModelGenerator
+          .forCandidates(Integer.parseInt(catalogue.substring(SYNTHETIC.length())), seed)
+          .generateModel("experiment");
+    }
+    //the model types memoize their model unsynchronized
+    synchronized (Catalogues.class) {
+      return CloudiatorModelType.valueOf(catalogue).getCloudiatorModel();
+    }
+  }
+}
@@ -154,8 +154,9 @@ public class Experiment {
         this.candidates = new ConsistentNodeGenerator(
             new DefaultNodeGenerator(ExperimentCSP.NODE_CANDIDATE_FACTORY,
                 getCloudiatorModel(),
-                null),
-            ConstraintChecker.create(ExperimentCSP.CSP)).get();
+                null, ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER),
+            ConstraintChecker.create(ExperimentCSP.CSP), ExperimentCSP.METRICS_REGISTRY,
+            ExperimentCSP.TRACER).get();
       }
 
       return NodeCandidates.of(candidates);
@@ -4,12 +4,17 @@ import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
 import java.util.Collections;
 import java.util.HashSet;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.eclipse.ocl.pivot.utilities.ParserException;
 
 public class ExperimentCSP {
 
   public static final NodeCandidateFactory NODE_CANDIDATE_FACTORY = NodeCandidateFactory.create();
+  //experiments run outside of the agent, their metrics and traces are not exported
+  public static final MetricsRegistry METRICS_REGISTRY = new MetricsRegistry();
+  public static final Tracer TRACER = new Tracer();
 
   public static OclCsp CSP;
 
@@ -1,111 +1,52 @@
 package org.cloudiator.matchmaking.experiment;
 
-import com.google.inject.Guice;
-import com.google.inject.Injector;
 import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
-import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.cloudiator.matchmaking.choco.TimeLimit;
-import org.cloudiator.matchmaking.cmpl.CMPLSolver;
-import org.cloudiator.matchmaking.domain.Solution;
-import org.cloudiator.matchmaking.experiment.Experiment.CloudiatorModelType;
 import org.cloudiator.matchmaking.ocl.OclCsp;
 import org.eclipse.ocl.pivot.utilities.ParserException;
 
+/**
+ * Runs the experiment campaign. Takes the checkpoint file (default {@code campaign.csv}) and the
+ * number of parallel workers (default 1) as arguments. Restarting with the same checkpoint
+ * resumes the campaign, the percentiles are written to {@code <checkpoint>.summary.csv}.
+ */
 public class ExperimentRunner {
 
-  private static final Injector INJECTOR = Guice.createInjector(new ExperimentModule());
-
   public static void main(String[] args)
-      throws FileNotFoundException, UnsupportedEncodingException, ParserException {
-
-    Set<String> constraints = new HashSet<>();
-
-    OclCsp csp = OclCsp.ofConstraints(constraints, Collections.emptyList(), QuotaSet.EMPTY, 1);
-
-    final Data data = new Data();
-
-    List<Experiment> experiments = new ArrayList<>();
-    for (int i = 2; i <= 15; i++) {
-      for (CloudiatorModelType cloudiatorModelType : CloudiatorModelType.values()) {
-        experiments.add(
-            new Experiment(new TimeLimit(TimeUnit.MINUTES, 1), i, 20, false,
-                cloudiatorModelType)
-        );
-      }
-    }
-
-    PrintWriter cloudHarmonyWriter = new PrintWriter("solutionsCloudHarmony", "UTF-8");
-    PrintWriter experimentModelWriter = new PrintWriter("solutionsLarge", "UTF-8");
-    PrintWriter smallModelWriter = new PrintWriter("solutionsSmall", "UTF-8");
-
-    for (Experiment experiment : experiments) {
-      //ChocoSolverTesting chocoSolverTesting = new ChocoSolverTesting(
-      //    experiment.getCloudiatorModelType().getCandidates());
-
-      for (int rep = 0; rep < experiment.getRepetitions(); rep++) {
-        Solution solution = null;
-        if (!experiment.isIterative()) {
-          solution = new CMPLSolver()
-              .solve(csp, experiment.getCloudiatorModelType().getCandidates(), null,
-                  experiment.getNodeSize());
-          //solution = chocoSolverTesting
-          //    .solveDirect(experiment.getNodeSize(), experiment.getLimit());
-        } else {
-          throw new IllegalStateException();
-          //solution = chocoSolverTesting
-          //    .solveIteratively(experiment.getNodeSize(), experiment.getLimit());
-        }
-        if (solution != null) {
-          experiment.addSolution(solution);
-        }
-      }
-
-      PrintWriter writer = null;
-
-      switch (experiment.getCloudiatorModelType()) {
-        case CLOUD_HARMONY:
-          writer = cloudHarmonyWriter;
-          break;
-        case EXPERIMENT:
-          writer = experimentModelWriter;
-          break;
-        case SMALL:
-          writer = smallModelWriter;
-          break;
-        default:
-          throw new IllegalArgumentException();
-      }
-
-      if (experiment.hasSolution()) {
-
-        writer.println(
-            experiment.isIterative() + " " + experiment.getLimit().toString() + " " + experiment
-                .getCloudiatorModelType().name() + " " + experiment.getNodeSize() + " "
-                + experiment.getCostStatistics().getAverage() + " "
-                + experiment.timeStatistics().getAverage() + " " + experiment.optimal()
-                .isPresent());
-
-
-      } else {
-        writer.println(
-            experiment.isIterative() + " " + experiment.getLimit().toString() + " " + experiment
-                .getCloudiatorModelType().name() + " " + experiment.getNodeSize() + " "
-                + "No Solution");
-      }
-
-      writer.flush();
+      throws IOException, ParserException, InterruptedException {
+
+    final Path checkpoint = Paths.get(args.length > 0 ? args[0] : "campaign.csv");
+    final int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+    final OclCsp csp = OclCsp
+        .ofConstraints(Collections.emptySet(), Collections.emptyList(), QuotaSet.EMPTY, 1);
+
+    final Campaign campaign = Campaign.builder()
+        .oclCsp(csp)
+        .solvers(CampaignSolver.CHOCO, CampaignSolver.BEST_FIT, CampaignSolver.CMPL)
+        .catalogues("SMALL", "EXPERIMENT", "CLOUD_HARMONY")
+        .nodeSizeRange(2, 15)
+        .timeLimits(new TimeLimit(TimeUnit.MINUTES, 1))
+        .seeds(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L,
+            19L, 20L)
+        .build();
+
+    final List<CampaignResult> results = new CampaignRunner(campaign, checkpoint, parallelism)
+        .run();
+
+    final Path summary = checkpoint
+        .resolveSibling(checkpoint.getFileName().toString() + ".summary.csv");
+    try (Writer writer = Files.newBufferedWriter(summary, StandardCharsets.UTF_8)) {
+      CampaignReport.of(results).write(writer);
     }
-
-    experimentModelWriter.close();
-    cloudHarmonyWriter.close();
-
   }
 }
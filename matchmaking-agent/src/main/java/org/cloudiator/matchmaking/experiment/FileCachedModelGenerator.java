@@ -1,32 +1,29 @@
 package org.cloudiator.matchmaking.experiment;
 
-import cloudiator.CloudiatorFactory;
 import cloudiator.CloudiatorModel;
-import cloudiator.CloudiatorPackage;
 import com.google.inject.Inject;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import javax.inject.Named;
-import org.cloudiator.matchmaking.ocl.SolverHandler;
+import org.cloudiator.matchmaking.ocl.ModelCodec;
 import org.cloudiator.matchmaking.ocl.ModelGenerationException;
 import org.cloudiator.matchmaking.ocl.ModelGenerator;
-import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
-import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class FileCachedModelGenerator implements ModelGenerator {
 
-  private static final String FILE_ENDING = "cloudiator";
   private static final String FILE_DESC = "discovery";
-  private static final String FILE_NAME = FILE_DESC + "." + FILE_ENDING;
+  private static final ModelCodec MODEL_CODEC = ModelCodec.BINARY;
+  private static final Path FILE = Paths.get(FILE_DESC + "." + MODEL_CODEC.fileEnding());
+  //files written by earlier versions
+  private static final Path LEGACY_FILE = Paths.get(FILE_DESC + "." + ModelCodec.XMI.fileEnding());
 
-  private static final CloudiatorFactory CLOUDIATOR_FACTORY = CloudiatorFactory.eINSTANCE;
-  private static final Logger LOGGER = LoggerFactory.getLogger(SolverHandler.class);
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileCachedModelGenerator.class);
   private final ModelGenerator delegate;
 
   @Inject
@@ -35,38 +32,23 @@ public class FileCachedModelGenerator implements ModelGenerator {
   }
 
   private static void saveModel(CloudiatorModel model) throws IOException {
-    Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
-    Map<String, Object> m = reg.getExtensionToFactoryMap();
-    m.put(FILE_ENDING, new XMIResourceFactoryImpl());
-
-    ResourceSet resSet = new ResourceSetImpl();
-    Resource resource = resSet.createResource(URI
-        .createURI(FILE_NAME));
-
-    resource.getContents().add(model);
-
-    resource.save(Collections.EMPTY_MAP);
+    try (OutputStream out = Files.newOutputStream(FILE)) {
+      MODEL_CODEC.encode(model, out);
+    }
   }
 
-  public CloudiatorModel load() {
-    // Initialize the model
-    CloudiatorPackage.eINSTANCE.eClass();
-
-    // Register the XMI resource factory for the .website extension
-
-    Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
-    Map<String, Object> m = reg.getExtensionToFactoryMap();
-    m.put(FILE_ENDING, new XMIResourceFactoryImpl());
-
-    // Obtain a new resource set
-    ResourceSet resSet = new ResourceSetImpl();
+  private static CloudiatorModel load(Path file, ModelCodec modelCodec) throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return modelCodec.decode(in);
+    }
+  }
 
-    // Get the resource
-    Resource resource = resSet.getResource(URI
-        .createURI(FILE_NAME), true);
-    // Get the first model element and cast it to the right type, in my
-    // example everything is hierarchical included in this first node
-    return (CloudiatorModel) resource.getContents().get(0);
+  public CloudiatorModel load() throws IOException {
+    if (!Files.exists(FILE) && Files.exists(LEGACY_FILE)) {
+      LOGGER.info(String.format("Converting legacy model file %s to %s.", LEGACY_FILE, FILE));
+      saveModel(load(LEGACY_FILE, ModelCodec.XMI));
+    }
+    return load(FILE, MODEL_CODEC);
   }
 
   @Override
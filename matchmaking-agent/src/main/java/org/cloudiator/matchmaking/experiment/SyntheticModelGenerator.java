@@ -0,0 +1,402 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import cloudiator.Api;
+import cloudiator.Cloud;
+import cloudiator.CloudConfiguration;
+import cloudiator.CloudCredential;
+import cloudiator.CloudType;
+import cloudiator.CloudiatorFactory;
+import cloudiator.CloudiatorModel;
+import cloudiator.DiscoveryItemState;
+import cloudiator.GeoLocation;
+import cloudiator.Hardware;
+import cloudiator.Image;
+import cloudiator.Location;
+import cloudiator.LocationScope;
+import cloudiator.OSArchitecture;
+import cloudiator.OSFamily;
+import cloudiator.OperatingSystem;
+import cloudiator.Price;
+import com.google.common.base.MoreObjects;
+import com.typesafe.config.Config;
+import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.ocl.ByonCloudUtil;
+import org.cloudiator.matchmaking.ocl.ByonGenerator;
+import org.cloudiator.matchmaking.ocl.ModelGenerator;
+import org.cloudiator.matchmaking.ocl.NodeCandidates;
+
+/**
+ * Generates synthetic catalogues of a configurable scale without network access.
+ * <p>
+ * Every cloud has regions with zones, a global list of hardware flavours and images per region.
+ * Prices are drawn for every zone, hardware and image combination, {@link
+ * Builder#priceSparsity(double)} of them are left out, so the combination does not become a node
+ * candidate. All random choices are taken from a single {@link Random} in a fixed order, the same
+ * parameters and seed therefore always result in the same model.
+ * <p>
+ * FaaS clouds use the providers configured under {@code matchmaking.nodeGenerator}, their
+ * runtimes and memory sizes are taken from this configuration. BYON nodes are not part of the
+ * model, see {@link #byonNodeCandidates()}.
+ */
+public class SyntheticModelGenerator implements ModelGenerator {
+
+  private static final CloudiatorFactory CLOUDIATOR_FACTORY = CloudiatorFactory.eINSTANCE;
+  private static final OSFamily[] OS_FAMILIES = new OSFamily[]{OSFamily.UBUNTU, OSFamily.DEBIAN,
+      OSFamily.RHEL, OSFamily.CENTOS, OSFamily.WINDOWS};
+  private static final int[] CORE_OPTIONS = new int[]{1, 2, 4, 8, 16, 32, 64};
+  private static final int[] RAM_PER_CORE_OPTIONS = new int[]{512, 1024, 2048, 4096, 8192};
+  private static final String[] COUNTRIES = new String[]{"DE", "US", "CH", "AU", "IE", "JP",
+      "BE", "SG", "GB", "ZA", "PL", "NO", "KR", "CA", "IN"};
+  private static final double DISK = 1000d;
+
+  private final long seed;
+  private final int clouds;
+  private final int regions;
+  private final int zones;
+  private final int hardware;
+  private final int images;
+  private final double priceSparsity;
+  private final int faasClouds;
+  private final int byonNodes;
+
+  private SyntheticModelGenerator(Builder builder) {
+    this.seed = builder.seed;
+    this.clouds = builder.clouds;
+    this.regions = builder.regions;
+    this.zones = builder.zones;
+    this.hardware = builder.hardware;
+    this.images = builder.images;
+    this.priceSparsity = builder.priceSparsity;
+    this.faasClouds = builder.faasClouds;
+    this.byonNodes = builder.byonNodes;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns a generator whose IaaS catalogue has roughly the given number of node candidates.
+   * The location hierarchy is kept fixed, only the hardware flavours grow with the target.
+   */
+  public static SyntheticModelGenerator forCandidates(int candidates, long seed) {
+    checkArgument(candidates > 0, "candidates needs to be larger than zero");
+    final Builder builder = builder().seed(seed);
+    final int combinationsPerFlavour = builder.clouds * builder.regions * builder.zones
+        * builder.images;
+    return builder
+        .hardware(Math.max(1, (candidates + combinationsPerFlavour - 1) / combinationsPerFlavour))
+        .build();
+  }
+
+  /**
+   * Number of IaaS node candidates of the catalogue if no price was left out.
+   */
+  public long combinations() {
+    return (long) clouds * regions * Math.max(zones, 1) * hardware * images;
+  }
+
+  @Override
+  public CloudiatorModel generateModel(String userId) {
+    final Random random = new Random(seed);
+    final CloudiatorModel cloudiatorModel = CLOUDIATOR_FACTORY.createCloudiatorModel();
+
+    final List<OperatingSystem> operatingSystems = new ArrayList<>(OS_FAMILIES.length);
+    for (OSFamily osFamily : OS_FAMILIES) {
+      OperatingSystem operatingSystem = CLOUDIATOR_FACTORY.createOperatingSystem();
+      operatingSystem.setFamily(osFamily);
+      operatingSystem.setVersion(1);
+      operatingSystem.setArchitecture(OSArchitecture.AMD64);
+      operatingSystems.add(operatingSystem);
+    }
+    cloudiatorModel.getOperatingsystems().addAll(operatingSystems);
+
+    for (int c = 0; c < clouds; c++) {
+      final Cloud cloud = createCloud("synthetic-" + c, "synthetic-" + c, userId);
+      //some providers are more expensive than others
+      final double cloudFactor = 0.8 + random.nextDouble() * 0.4;
+
+      final List<Hardware> hardwareList = new ArrayList<>(hardware);
+      for (int h = 0; h < hardware; h++) {
+        final int cores = CORE_OPTIONS[random.nextInt(CORE_OPTIONS.length)];
+        final int ram = cores * RAM_PER_CORE_OPTIONS[random.nextInt(RAM_PER_CORE_OPTIONS.length)];
+        Hardware flavour = CLOUDIATOR_FACTORY.createHardware();
+        flavour.setProviderId(String.format("flavour-%s", h));
+        flavour.setName(String.format("%s cores - %s ram", cores, ram));
+        flavour.setId(cloud.getId() + ":" + flavour.getProviderId());
+        flavour.setCores(cores);
+        flavour.setRam(ram);
+        flavour.setDisk(DISK);
+        flavour.setState(DiscoveryItemState.OK);
+        hardwareList.add(flavour);
+      }
+      cloud.getHardwareList().addAll(hardwareList);
+
+      for (int r = 0; r < regions; r++) {
+        final String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+        final Location region = createLocation(cloud, null, "region-" + r, country,
+            LocationScope.REGION, zones == 0);
+        final double regionFactor = 0.9 + random.nextDouble() * 0.3;
+        cloud.getLocations().add(region);
+
+        final List<Image> regionImages = new ArrayList<>(images);
+        for (int i = 0; i < images; i++) {
+          Image image = CLOUDIATOR_FACTORY.createImage();
+          image.setProviderId(String.format("image-%s", i));
+          image.setName(image.getProviderId());
+          image.setId(region.getId() + ":" + image.getProviderId());
+          image.setLocation(region);
+          image.setOperatingSystem(operatingSystems.get(random.nextInt(operatingSystems.size())));
+          image.setState(DiscoveryItemState.OK);
+          regionImages.add(image);
+        }
+        cloud.getImages().addAll(regionImages);
+
+        final List<Location> assignable = new ArrayList<>();
+        if (zones == 0) {
+          assignable.add(region);
+        }
+        for (int z = 0; z < zones; z++) {
+          Location zone = createLocation(cloud, region, region.getProviderId() + "-" + z,
+              country, LocationScope.ZONE, true);
+          cloud.getLocations().add(zone);
+          assignable.add(zone);
+        }
+
+        for (Location location : assignable) {
+          for (Image image : regionImages) {
+            final double osFactor =
+                image.getOperatingSystem().getFamily() == OSFamily.WINDOWS ? 1.5 : 1;
+            for (Hardware flavour : hardwareList) {
+              //draw before the sparsity check, so the sparsity does not change other prices
+              final double noise = 0.95 + random.nextDouble() * 0.1;
+              if (random.nextDouble() < priceSparsity) {
+                continue;
+              }
+              Price price = CLOUDIATOR_FACTORY.createPrice();
+              price.setHardware(flavour);
+              price.setImage(image);
+              price.setLocation(location);
+              price.setPrice(basePrice(flavour) * cloudFactor * regionFactor * osFactor * noise);
+              cloud.getPrices().add(price);
+            }
+          }
+        }
+      }
+      cloudiatorModel.getClouds().add(cloud);
+    }
+
+    final List<String> faasProviders = faasProviders();
+    for (int f = 0; f < faasClouds; f++) {
+      final String provider = faasProviders.get(f % faasProviders.size());
+      final Cloud cloud = createCloud("synthetic-faas-" + f, provider, userId);
+      for (int r = 0; r < regions; r++) {
+        cloud.getLocations().add(createLocation(cloud, null, "region-" + r,
+            COUNTRIES[random.nextInt(COUNTRIES.length)], LocationScope.REGION, true));
+      }
+      cloudiatorModel.getClouds().add(cloud);
+    }
+
+    return cloudiatorModel;
+  }
+
+  /**
+   * Generates the candidates of {@link Builder#byonNodes(int)} BYON nodes, in the same way the
+   * {@link ByonGenerator} does for registered nodes. Depends only on the seed.
+   */
+  public NodeCandidates byonNodeCandidates() {
+    final Random random = new Random(seed);
+    final NodeCandidateFactory nodeCandidateFactory = NodeCandidateFactory.create();
+    final Set<NodeCandidate> nodeCandidates = new HashSet<>();
+    for (int b = 0; b < byonNodes; b++) {
+      final String id = "synthetic-byon-" + b;
+
+      OperatingSystem operatingSystem = CLOUDIATOR_FACTORY.createOperatingSystem();
+      operatingSystem.setFamily(OS_FAMILIES[random.nextInt(OS_FAMILIES.length)]);
+      operatingSystem.setVersion(1);
+      operatingSystem.setArchitecture(OSArchitecture.AMD64);
+
+      Image image = CLOUDIATOR_FACTORY.createImage();
+      image.setProviderId(ByonCloudUtil.ByonImage.PROV_ID_PREF + id);
+      image.setName(ByonCloudUtil.ByonImage.NAME_PREF + id);
+      image.setId(ByonCloudUtil.ByonImage.ID_PREF + id);
+      image.setOperatingSystem(operatingSystem);
+      image.setState(DiscoveryItemState.OK);
+
+      final int cores = CORE_OPTIONS[random.nextInt(CORE_OPTIONS.length)];
+      Hardware hardware = CLOUDIATOR_FACTORY.createHardware();
+      hardware.setProviderId(ByonCloudUtil.ByonHardware.PROV_ID_PREF + id);
+      hardware.setName(ByonCloudUtil.ByonHardware.NAME_PREF + id);
+      hardware.setId(ByonCloudUtil.ByonHardware.ID_PREF + id);
+      hardware.setCores(cores);
+      hardware.setRam(cores * RAM_PER_CORE_OPTIONS[random.nextInt(RAM_PER_CORE_OPTIONS.length)]);
+      hardware.setDisk(DISK);
+      hardware.setState(DiscoveryItemState.OK);
+
+      Location location = CLOUDIATOR_FACTORY.createLocation();
+      location.setProviderId(ByonCloudUtil.ByonLocation.PROV_ID_PREF + id);
+      location.setName(ByonCloudUtil.ByonLocation.NAME_PREF);
+      location.setId(ByonCloudUtil.ByonLocation.ID_PREF + id);
+      location.setGeoLocation(createGeoLocation(COUNTRIES[random.nextInt(COUNTRIES.length)]));
+      location.setLocationScope(LocationScope.HOST);
+      location.setAssignable(true);
+      location.setState(DiscoveryItemState.OK);
+
+      nodeCandidates.add(nodeCandidateFactory.byon(id, hardware, image, location));
+    }
+    return NodeCandidates.of(nodeCandidates);
+  }
+
+  private static double basePrice(Hardware hardware) {
+    return hardware.getCores() * 0.02 + hardware.getRam() / 1024d * 0.005;
+  }
+
+  private static List<String> faasProviders() {
+    final Config config = Configuration.conf().getConfig("matchmaking.nodeGenerator");
+    final List<String> providers = new ArrayList<>(config.root().keySet());
+    checkArgument(!providers.isEmpty(), "No FaaS providers configured.");
+    providers.sort(String::compareTo);
+    return providers;
+  }
+
+  private static Cloud createCloud(String id, String providerName, String userId) {
+    Cloud cloud = CLOUDIATOR_FACTORY.createCloud();
+    cloud.setId(id);
+    cloud.setType(CloudType.PUBLIC);
+    cloud.setEndpoint("http://" + id);
+    CloudCredential cloudCredential = CLOUDIATOR_FACTORY.createCloudCredential();
+    cloudCredential.setUser(userId);
+    cloudCredential.setSecret(userId);
+    cloud.setCloudcredential(cloudCredential);
+    Api api = CLOUDIATOR_FACTORY.createApi();
+    api.setProviderName(providerName);
+    cloud.setApi(api);
+    CloudConfiguration cloudConfiguration = CLOUDIATOR_FACTORY.createCloudConfiguration();
+    cloudConfiguration.setNodeGroup("cloudiator");
+    cloud.setConfiguration(cloudConfiguration);
+    return cloud;
+  }
+
+  private static Location createLocation(Cloud cloud, Location parent, String providerId,
+      String country, LocationScope locationScope, boolean assignable) {
+    Location location = CLOUDIATOR_FACTORY.createLocation();
+    location.setProviderId(providerId);
+    location.setName(providerId);
+    location.setId(cloud.getId() + ":" + providerId);
+    location.setParent(parent);
+    location.setLocationScope(locationScope);
+    location.setAssignable(assignable);
+    location.setGeoLocation(createGeoLocation(country));
+    location.setState(DiscoveryItemState.OK);
+    return location;
+  }
+
+  private static GeoLocation createGeoLocation(String country) {
+    GeoLocation geoLocation = CLOUDIATOR_FACTORY.createGeoLocation();
+    geoLocation.setCountry(country);
+    geoLocation.setCity("Ulm");
+    geoLocation.setLatitude(5.1234);
+    geoLocation.setLongitude(5.1234);
+    return geoLocation;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("seed", seed).add("clouds", clouds)
+        .add("regions", regions).add("zones", zones).add("hardware", hardware)
+        .add("images", images).add("priceSparsity", priceSparsity).add("faasClouds", faasClouds)
+        .add("byonNodes", byonNodes).toString();
+  }
+
+  public static class Builder {
+
+    private long seed = 42;
+    private int clouds = 4;
+    private int regions = 4;
+    private int zones = 2;
+    private int hardware = 10;
+    private int images = 4;
+    private double priceSparsity = 0;
+    private int faasClouds = 0;
+    private int byonNodes = 0;
+
+    private Builder() {
+    }
+
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public Builder clouds(int clouds) {
+      checkArgument(clouds >= 0, "clouds needs to be positive");
+      this.clouds = clouds;
+      return this;
+    }
+
+    public Builder regions(int regions) {
+      checkArgument(regions > 0, "regions needs to be larger than zero");
+      this.regions = regions;
+      return this;
+    }
+
+    /**
+     * Zones per region. With zero zones the regions are assignable.
+     */
+    public Builder zones(int zones) {
+      checkArgument(zones >= 0, "zones needs to be positive");
+      this.zones = zones;
+      return this;
+    }
+
+    public Builder hardware(int hardware) {
+      checkArgument(hardware > 0, "hardware needs to be larger than zero");
+      this.hardware = hardware;
+      return this;
+    }
+
+    /**
+     * Images per region.
+     */
+    public Builder images(int images) {
+      checkArgument(images > 0, "images needs to be larger than zero");
+      this.images = images;
+      return this;
+    }
+
+    /**
+     * Fraction of the combinations without a price.
+     */
+    public Builder priceSparsity(double priceSparsity) {
+      checkArgument(priceSparsity >= 0 && priceSparsity < 1,
+          "priceSparsity needs to be in [0,1)");
+      this.priceSparsity = priceSparsity;
+      return this;
+    }
+
+    public Builder faasClouds(int faasClouds) {
+      checkArgument(faasClouds >= 0, "faasClouds needs to be positive");
+      this.faasClouds = faasClouds;
+      return this;
+    }
+
+    public Builder byonNodes(int byonNodes) {
+      checkArgument(byonNodes >= 0, "byonNodes needs to be positive");
+      this.byonNodes = byonNodes;
+      return this;
+    }
+
+    public SyntheticModelGenerator build() {
+      return new SyntheticModelGenerator(this);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package org.cloudiator.matchmaking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing count.
+ */
+public class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter() {
+  }
+
+  public void inc() {
+    count.increment();
+  }
+
+  public void inc(long amount) {
+    count.add(amount);
+  }
+
+  public long value() {
+    return count.sum();
+  }
+}
@@ -0,0 +1,73 @@
+package org.cloudiator.matchmaking.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of observed values over fixed buckets. Timers are histograms in seconds.
+ */
+public class Histogram {
+
+  private final double[] buckets;
+  private final LongAdder[] counts;
+  private final LongAdder count = new LongAdder();
+  private final DoubleAdder sum = new DoubleAdder();
+
+  Histogram(double[] buckets) {
+    for (int i = 1; i < buckets.length; i++) {
+      checkArgument(buckets[i - 1] < buckets[i], "buckets need to be increasing");
+    }
+    this.buckets = buckets.clone();
+    this.counts = new LongAdder[buckets.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  public void observe(double value) {
+    //count only the first matching bucket, the export accumulates them
+    for (int i = 0; i < buckets.length; i++) {
+      if (value <= buckets[i]) {
+        counts[i].increment();
+        break;
+      }
+    }
+    count.increment();
+    sum.add(value);
+  }
+
+  /**
+   * Records a duration, the histogram is in seconds.
+   */
+  public void observeNanos(long nanos) {
+    observe((double) nanos / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  double[] buckets() {
+    return buckets;
+  }
+
+  /**
+   * Cumulative counts per bucket, as exported.
+   */
+  long[] cumulativeCounts() {
+    long[] cumulative = new long[buckets.length];
+    long total = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      total += counts[i].sum();
+      cumulative[i] = total;
+    }
+    return cumulative;
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public double sum() {
+    return sum.sum();
+  }
+}
@@ -0,0 +1,225 @@
+package org.cloudiator.matchmaking.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of the metrics of the agent, exported in the Prometheus text format.
+ * <p>
+ * Metrics are identified by name and labels, given as alternating label names and values.
+ * Requesting a counter or histogram again returns the existing one, registering a gauge again
+ * replaces it. The agent uses the registry bound in the {@link
+ * org.cloudiator.matchmaking.ocl.MatchmakingModule}, parts not created by Guice get it passed.
+ * Experiments and benchmarks use registries of their own, which are not exported.
+ */
+public class MetricsRegistry {
+
+  /**
+   * Buckets of timers in seconds.
+   */
+  public static final double[] TIME_BUCKETS = new double[]{0.001, 0.005, 0.01, 0.05, 0.1, 0.5,
+      1, 5, 10, 30, 60, 120, 300};
+
+  private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+  private final ConcurrentMap<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+  private static Map<String, String> labels(String... labels) {
+    checkArgument(labels.length % 2 == 0, "labels need to be name value pairs");
+    ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+    for (int i = 0; i < labels.length; i += 2) {
+      checkArgument(NAME.matcher(labels[i]).matches(), "Illegal label name %s", labels[i]);
+      builder.put(labels[i], String.valueOf(labels[i + 1]));
+    }
+    return builder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Family<T> family(String name, String help, Type type) {
+    checkNotNull(name, "name is null");
+    checkArgument(NAME.matcher(name).matches(), "Illegal metric name %s", name);
+    final Family<?> family = families.computeIfAbsent(name, n -> new Family<>(name, help, type));
+    checkState(family.type == type, "Metric %s is a %s and not a %s", name, family.type, type);
+    return (Family<T>) family;
+  }
+
+  public Counter counter(String name, String help, String... labels) {
+    return this.<Counter>family(name, help, Type.COUNTER).metrics
+        .computeIfAbsent(labels(labels), l -> new Counter());
+  }
+
+  /**
+   * Histogram with the given buckets. The buckets of an existing histogram are kept.
+   */
+  public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+    return this.<Histogram>family(name, help, Type.HISTOGRAM).metrics
+        .computeIfAbsent(labels(labels), l -> new Histogram(buckets));
+  }
+
+  /**
+   * Histogram in seconds, see {@link Histogram#observeNanos(long)}.
+   */
+  public Histogram timer(String name, String help, String... labels) {
+    return histogram(name, help, TIME_BUCKETS, labels);
+  }
+
+  public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+    checkNotNull(value, "value is null");
+    this.<DoubleSupplier>family(name, help, Type.GAUGE).metrics.put(labels(labels), value);
+  }
+
+  /**
+   * Counter whose value is maintained elsewhere, e.g. by a cache.
+   */
+  public void counter(String name, String help, DoubleSupplier value, String... labels) {
+    checkNotNull(value, "value is null");
+    this.<DoubleSupplier>family(name, help, Type.COUNTER).metrics.put(labels(labels), value);
+  }
+
+  /**
+   * Exports the statistics of a Guava cache built with {@code recordStats()} as {@code
+   * matchmaking_cache_*} counters labeled with the name of the cache.
+   */
+  @SuppressWarnings("UnstableApiUsage")
+  public void cache(String cacheName, Cache<?, ?> cache) {
+    checkNotNull(cache, "cache is null");
+    counter("matchmaking_cache_hits_total", "Cache hits.", () -> cache.stats().hitCount(),
+        "cache", cacheName);
+    counter("matchmaking_cache_misses_total", "Cache misses.", () -> cache.stats().missCount(),
+        "cache", cacheName);
+    counter("matchmaking_cache_evictions_total", "Cache evictions.",
+        () -> cache.stats().evictionCount(), "cache", cacheName);
+  }
+
+  /**
+   * Hit counter of caches without statistics, shares the metric with {@link #cache(String,
+   * Cache)}.
+   */
+  public Counter cacheHits(String cacheName) {
+    return counter("matchmaking_cache_hits_total", "Cache hits.", "cache", cacheName);
+  }
+
+  /**
+   * Miss counter of caches without statistics, shares the metric with {@link #cache(String,
+   * Cache)}.
+   */
+  public Counter cacheMisses(String cacheName) {
+    return counter("matchmaking_cache_misses_total", "Cache misses.", "cache", cacheName);
+  }
+
+  /**
+   * Writes all metrics in the Prometheus text format, version 0.0.4.
+   */
+  public void write(Writer writer) throws IOException {
+    for (Family<?> family : families.values()) {
+      family.write(writer);
+    }
+    writer.flush();
+  }
+
+  private enum Type {
+    COUNTER,
+    GAUGE,
+    HISTOGRAM
+  }
+
+  private static class Family<T> {
+
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final ConcurrentMap<Map<String, String>, T> metrics = new ConcurrentHashMap<>();
+
+    private Family(String name, String help, Type type) {
+      this.name = name;
+      this.help = help;
+      this.type = type;
+    }
+
+    private static String escape(String value) {
+      return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+      if (value == Double.POSITIVE_INFINITY) {
+        return "+Inf";
+      }
+      if (value == Double.NEGATIVE_INFINITY) {
+        return "-Inf";
+      }
+      if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+        return Long.toString((long) value);
+      }
+      return Double.toString(value);
+    }
+
+    private static String labels(Map<String, String> labels, Function<StringBuilder, ?> extra) {
+      StringBuilder builder = new StringBuilder("{");
+      for (Map.Entry<String, String> label : labels.entrySet()) {
+        if (builder.length() > 1) {
+          builder.append(',');
+        }
+        builder.append(label.getKey()).append("=\"").append(escape(label.getValue()))
+            .append('"');
+      }
+      extra.apply(builder);
+      if (builder.length() == 1) {
+        return "";
+      }
+      return builder.append('}').toString();
+    }
+
+    private static void sample(Writer writer, String name, String labels, double value)
+        throws IOException {
+      writer.write(name);
+      writer.write(labels);
+      writer.write(' ');
+      writer.write(format(value));
+      writer.write('\n');
+    }
+
+    private void write(Writer writer) throws IOException {
+      if (metrics.isEmpty()) {
+        return;
+      }
+      writer.write("# HELP " + name + " " + help.replace("\n", " ") + "\n");
+      writer.write("# TYPE " + name + " " + type.name().toLowerCase() + "\n");
+      for (Map.Entry<Map<String, String>, T> metric : metrics.entrySet()) {
+        final Map<String, String> labels = metric.getKey();
+        final Object value = metric.getValue();
+        if (value instanceof Counter) {
+          sample(writer, name, labels(labels, b -> b), ((Counter) value).value());
+        } else if (value instanceof DoubleSupplier) {
+          sample(writer, name, labels(labels, b -> b), ((DoubleSupplier) value).getAsDouble());
+        } else if (value instanceof Histogram) {
+          final Histogram histogram = (Histogram) value;
+          final double[] buckets = histogram.buckets();
+          final long[] counts = histogram.cumulativeCounts();
+          for (int i = 0; i < buckets.length; i++) {
+            final String le = format(buckets[i]);
+            sample(writer, name + "_bucket", labels(labels, b -> b
+                .append(b.length() > 1 ? "," : "").append("le=\"").append(le).append('"')),
+                counts[i]);
+          }
+          sample(writer, name + "_bucket", labels(labels, b -> b
+              .append(b.length() > 1 ? "," : "").append("le=\"+Inf\"")), histogram.count());
+          sample(writer, name + "_sum", labels(labels, b -> b), histogram.sum());
+          sample(writer, name + "_count", labels(labels, b -> b), histogram.count());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.cloudiator.matchmaking.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
+import javax.inject.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the metrics of a {@link MetricsRegistry} in the Prometheus text format on {@code
+ * /metrics}. Disabled if the port is zero. Only listens on the given bind address, by default the
+ * loopback interface.
+ */
+@Singleton
+public class MetricsServer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetricsServer.class);
+  private static final String PATH = "/metrics";
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  @Nullable
+  private final HttpServer httpServer;
+
+  @Inject
+  public MetricsServer(MetricsRegistry metricsRegistry, @Named("metricsPort") int metricsPort,
+      @Named("metricsBindAddress") String metricsBindAddress) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    checkNotNull(metricsBindAddress, "metricsBindAddress is null");
+    checkArgument(metricsPort >= 0, "metricsPort needs to be positive");
+    if (metricsPort == 0) {
+      LOGGER.info("Metrics endpoint is disabled.");
+      this.httpServer = null;
+      return;
+    }
+    try {
+      httpServer = HttpServer
+          .create(new InetSocketAddress(InetAddress.getByName(metricsBindAddress), metricsPort), 0);
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          String.format("Could not start metrics endpoint on %s:%s.", metricsBindAddress,
+              metricsPort), e);
+    }
+    httpServer.createContext(PATH, exchange -> respond(metricsRegistry, exchange));
+    httpServer.setExecutor(Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("metrics-%d").setDaemon(true).build()));
+    httpServer.start();
+    LOGGER.info(String.format("Serving metrics on %s:%s%s.", metricsBindAddress,
+        port().orElse(metricsPort), PATH));
+  }
+
+  private static void respond(MetricsRegistry metricsRegistry, HttpExchange exchange)
+      throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      try (Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+        metricsRegistry.write(writer);
+      }
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.size());
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        body.writeTo(outputStream);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not export metrics.", e);
+      exchange.sendResponseHeaders(500, -1);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * The port the endpoint listens on, if enabled.
+   */
+  public Optional<Integer> port() {
+    if (httpServer == null) {
+      return Optional.empty();
+    }
+    return Optional.of(httpServer.getAddress().getPort());
+  }
+
+  public void stop() {
+    if (httpServer != null) {
+      httpServer.stop(0);
+    }
+  }
+}
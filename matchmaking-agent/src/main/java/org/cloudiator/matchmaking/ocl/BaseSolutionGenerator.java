@@ -1,50 +1,49 @@
 package org.cloudiator.matchmaking.ocl;
 
-import com.google.common.collect.Lists;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-import org.cloudiator.matchmaking.domain.NodeCandidate;
-import org.cloudiator.matchmaking.domain.Solution;
+import java.util.function.IntPredicate;
 
 public class BaseSolutionGenerator implements SolutionGenerator {
 
-  private volatile Set<NodeCandidate> nodeCandidates;
+  private final CandidateIndex candidateIndex;
 
-  public BaseSolutionGenerator(Set<NodeCandidate> nodeCandidates) {
-    this.nodeCandidates = nodeCandidates;
-  }
-
-  public void clean() {
-    nodeCandidates.clear();
+  public BaseSolutionGenerator(CandidateIndex candidateIndex) {
+    this.candidateIndex = candidateIndex;
   }
 
   @Override
   public int nodeCandidatesSize() {
-    return nodeCandidates().size();
+    return candidateIndex.size();
   }
 
-  private Set<NodeCandidate> nodeCandidates() {
-    return this.nodeCandidates;
+  @Override
+  public CandidateIndex candidateIndex() {
+    return candidateIndex;
   }
 
   @Override
-  public List<Solution> generateInitialSolutions() {
-    return nodeCandidates().stream()
-        .map(node -> Solution.of(Collections.singletonList(node)))
-        .collect(Collectors.toList());
+  public List<CompactSolution> generateInitialSolutions() {
+    List<CompactSolution> solutions = new ArrayList<>(candidateIndex.size());
+    for (int candidate = 0; candidate < candidateIndex.size(); candidate++) {
+      solutions.add(CompactSolution.single(candidateIndex, candidate));
+    }
+    return solutions;
   }
 
   @Override
-  public List<Solution> getChilds(Solution solution) {
+  public List<CompactSolution> getChilds(CompactSolution solution) {
+    return getChilds(solution, candidate -> true);
+  }
 
-    Set<NodeCandidate> nodeCandidates = nodeCandidates();
-    List<Solution> solutions = new ArrayList<>(nodeCandidates.size());
-    for (NodeCandidate nodeCandiate : nodeCandidates) {
-      solutions.add(Solution.of(Lists.asList(nodeCandiate,
-          solution.getNodeCandidates().toArray(new NodeCandidate[solution.getNodeCandidates().size()]))));
+  @Override
+  public List<CompactSolution> getChilds(CompactSolution solution,
+      IntPredicate candidateFilter) {
+    List<CompactSolution> solutions = new ArrayList<>(candidateIndex.size());
+    for (int candidate = 0; candidate < candidateIndex.size(); candidate++) {
+      if (candidateFilter.test(candidate)) {
+        solutions.add(solution.with(candidateIndex, candidate));
+      }
     }
     return solutions;
   }
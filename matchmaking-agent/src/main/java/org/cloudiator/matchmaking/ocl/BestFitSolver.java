@@ -1,46 +1,102 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheStats;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.inject.Inject;
 import org.cloudiator.matchmaking.domain.Solution;
 import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.Counter;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class BestFitSolver implements Solver {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BestFitSolver.class);
+  private static final String MEMO_HELP = "Lookups in the solution memo of the best fit solver.";
+  private final Counter memoHits;
+  private final Counter memoMisses;
+
+  @Inject
+  public BestFitSolver(MetricsRegistry metricsRegistry) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    this.memoHits = metricsRegistry
+        .counter("matchmaking_bestfit_memo_lookups_total", MEMO_HELP, "result", "hit");
+    this.memoMisses = metricsRegistry
+        .counter("matchmaking_bestfit_memo_lookups_total", MEMO_HELP, "result", "miss");
+  }
 
   @Override
   public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
       @Nullable Solution existingSolution, @Nullable Integer targetNodeSize) {
+    return solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize,
+        SolverBudget.UNLIMITED);
+  }
+
+  @Override
+  public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Solution existingSolution, @Nullable Integer targetNodeSize,
+      SolverBudget budget) {
+
+    final CandidateIndex candidateIndex = CandidateIndex.of(nodeCandidates);
+    final SolutionMemo solutionMemo = new SolutionMemo(SolutionMemo.DEFAULT_SIZE);
 
     SolutionGenerator solutionGenerator;
     if (existingSolution != null) {
       solutionGenerator = new ExistingSolutionGenerator(existingSolution,
-          new BaseSolutionGenerator(nodeCandidates));
+          new BaseSolutionGenerator(candidateIndex));
     } else {
-      solutionGenerator = new BaseSolutionGenerator(nodeCandidates);
+      solutionGenerator = new BaseSolutionGenerator(candidateIndex);
     }
 
     if (!oclCsp.getQuotaSet().quotaSet().isEmpty()) {
       solutionGenerator = new QuotaAwareSolutionGenerator(oclCsp.getQuotaSet(), solutionGenerator);
     }
 
-    ConstraintChecker constraintChecker = ConstraintChecker.create(oclCsp);
+    IncrementalConstraintChecker constraintChecker = IncrementalConstraintChecker
+        .create(oclCsp, candidateIndex);
 
     if (targetNodeSize == null) {
       targetNodeSize = 1;
     }
-    while (!Thread.currentThread().isInterrupted()) {
+    try {
+      return search(candidateIndex, solutionGenerator, constraintChecker, solutionMemo,
+          targetNodeSize, budget);
+    } finally {
+      final CacheStats stats = solutionMemo.stats();
+      memoHits.inc(stats.hitCount());
+      memoMisses.inc(stats.missCount());
+    }
+  }
+
+  private static Solution search(CandidateIndex candidateIndex,
+      SolutionGenerator solutionGenerator, IncrementalConstraintChecker constraintChecker,
+      SolutionMemo solutionMemo, int targetNodeSize, SolverBudget budget) {
+    while (!budget.exhausted()) {
       final BestFitInternal bestFitInternal = new BestFitInternal(solutionGenerator,
-          constraintChecker, 100, targetNodeSize);
+          constraintChecker, solutionMemo, 100, targetNodeSize, budget);
       LOGGER.debug(String.format("Using %s to solve", bestFitInternal));
-      final Solution solution = bestFitInternal.solve();
-      if (!solution.noSolution()) {
-        return solution;
+      final CompactSolution solution = bestFitInternal.solve();
+      LOGGER.debug(String.format("%s finished with memo %s", bestFitInternal, solutionMemo));
+      if (!solution.isEmpty()) {
+        final Solution ret = solution.toSolution(candidateIndex);
+        ret.setSolver(BestFitSolver.class);
+        return ret;
+      }
+      if (bestFitInternal.pruned() > 0) {
+        //larger solutions only get more expensive than the one of another solver
+        LOGGER.debug(String.format("%s found nothing cheaper than %s.", bestFitInternal,
+            budget.solutionBound().costs()));
+        break;
       }
       targetNodeSize++;
     }
@@ -50,30 +106,89 @@ public class BestFitSolver implements Solver {
   private static class BestFitInternal {
 
     private final SolutionGenerator solutionGenerator;
-    private final ConstraintChecker constraintChecker;
+    private final IncrementalConstraintChecker constraintChecker;
+    private final SolutionMemo solutionMemo;
     private int limit;
     private int targetNodeSize;
+    private final SolverBudget budget;
+    //partial solutions dropped as they cost at least as much as the bound
+    private long pruned = 0;
 
     @Override
     public String toString() {
       return MoreObjects.toStringHelper(this)
           .add("limit", limit)
           .add("targetNodeSize", targetNodeSize)
+          .add("pruned", pruned)
           .toString();
     }
 
     private BestFitInternal(SolutionGenerator solutionGenerator,
-        ConstraintChecker constraintChecker,
-        int limit, int targetNodeSize) {
+        IncrementalConstraintChecker constraintChecker, SolutionMemo solutionMemo,
+        int limit, int targetNodeSize, SolverBudget budget) {
       this.solutionGenerator = solutionGenerator;
       this.constraintChecker = constraintChecker;
+      this.solutionMemo = solutionMemo;
       this.limit = limit;
       this.targetNodeSize = targetNodeSize;
+      this.budget = budget;
+    }
+
+    long pruned() {
+      return pruned;
     }
 
-    public Solution solve() {
+    /**
+     * Prices are never negative, so a partial solution as expensive as the best solution of
+     * another solver can not lead to a better one.
+     */
+    private boolean prune(CompactSolution solution, double bound) {
+      if (solution.getCosts() >= bound) {
+        pruned++;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * The children of the best parents. With a maximum generation size only the cheapest
+     * children are kept while generating, so a generation never grows beyond it.
+     */
+    private List<CompactSolution> nextGeneration(List<CompactSolution> parents, int limitToUse) {
+      final List<CompactSolution> bestParents = parents.stream().sorted().limit(limitToUse)
+          .collect(Collectors.toList());
+      final double bound = budget.solutionBound().costs();
+      final int maxGenerationSize = budget.maxGenerationSize();
+      if (maxGenerationSize == 0) {
+        return bestParents.stream().flatMap(s -> solutionGenerator.getChilds(s).stream())
+            .filter(child -> !prune(child, bound)).sorted().collect(Collectors.toList());
+      }
+      final PriorityQueue<CompactSolution> cheapest = new PriorityQueue<>(
+          Collections.reverseOrder());
+      for (CompactSolution parent : bestParents) {
+        if (budget.exhausted()) {
+          break;
+        }
+        for (CompactSolution child : solutionGenerator.getChilds(parent)) {
+          if (prune(child, bound)) {
+            continue;
+          }
+          if (cheapest.size() < maxGenerationSize) {
+            cheapest.add(child);
+          } else if (child.compareTo(cheapest.peek()) < 0) {
+            cheapest.poll();
+            cheapest.add(child);
+          }
+        }
+      }
+      final List<CompactSolution> generation = new ArrayList<>(cheapest);
+      Collections.sort(generation);
+      return generation;
+    }
+
+    public CompactSolution solve() {
       int limitToUse = limit;
-      List<Solution> generation = new ArrayList<>();
+      List<CompactSolution> generation = new ArrayList<>();
       long startGeneration = System.currentTimeMillis();
       solutionGenerator.generateInitialSolutions().stream().sorted().forEach(generation::add);
       long endGeneration = System.currentTimeMillis();
@@ -83,16 +198,19 @@ public class BestFitSolver implements Solver {
               generation.size()));
       int minViolations = Integer.MAX_VALUE;
 
-      while (!generation.isEmpty() && !Thread.currentThread().isInterrupted()) {
-        List<Solution> nextGeneration = new ArrayList<>();
-        int nodeSize = generation.stream().findFirst().get().getNodeCandidates().size();
+      while (!generation.isEmpty() && !budget.exhausted()) {
+        List<CompactSolution> nextGeneration = new ArrayList<>();
+        int nodeSize = generation.get(0).nodeSize();
         LOGGER
             .debug(String.format("%s is currently using the target node size %s.", this, nodeSize));
-        for (Solution solution : generation) {
-          int violations = constraintChecker.check(solution.getNodeCandidates());
+        final double bound = budget.solutionBound().costs();
+        for (CompactSolution solution : generation) {
+          if (prune(solution, bound)) {
+            continue;
+          }
+          int violations = solutionMemo.violations(solution, constraintChecker::check);
           if (violations == 0) {
             if (targetNodeSize <= nodeSize) {
-              solution.setSolver(BestFitSolver.class);
               return solution;
             } else {
               limitToUse = 1;
@@ -109,9 +227,7 @@ public class BestFitSolver implements Solver {
         generation.clear();
 
         long startChildGeneration = System.currentTimeMillis();
-        nextGeneration.stream().sorted().limit(limitToUse)
-            .flatMap(s -> solutionGenerator.getChilds(s).stream()).sorted()
-            .forEach(generation::add);
+        generation = nextGeneration(nextGeneration, limitToUse);
         long endChildGeneration = System.currentTimeMillis();
         LOGGER
             .debug(String.format("%s took %s ms to generate %s child generations", this,
@@ -119,7 +235,7 @@ public class BestFitSolver implements Solver {
                 generation.size()));
       }
 
-      return Solution.EMPTY_SOLUTION;
+      return CompactSolution.EMPTY;
 
     }
 
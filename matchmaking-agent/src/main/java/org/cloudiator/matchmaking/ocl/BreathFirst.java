@@ -8,12 +8,12 @@ import org.cloudiator.matchmaking.domain.Solution;
 public class BreathFirst {
 
   private final BaseSolutionGenerator solutionGenerator;
-  private final ConstraintChecker constraintChecker;
-  private final Queue<Solution> solutions = new ArrayDeque<>();
+  private final IncrementalConstraintChecker constraintChecker;
+  private final Queue<CompactSolution> solutions = new ArrayDeque<>();
   private final int targetNodeSize;
 
-  public BreathFirst(BaseSolutionGenerator solutionGenerator, ConstraintChecker constraintChecker,
-      int targetNodeSize) {
+  public BreathFirst(BaseSolutionGenerator solutionGenerator,
+      IncrementalConstraintChecker constraintChecker, int targetNodeSize) {
     this.solutionGenerator = solutionGenerator;
     this.constraintChecker = constraintChecker;
     this.targetNodeSize = targetNodeSize;
@@ -24,10 +24,10 @@ public class BreathFirst {
         .collect(Collectors.toList()));
     int minViolations = Integer.MAX_VALUE;
     while (!solutions.isEmpty()) {
-      Solution solution = solutions.poll();
-      int violations = constraintChecker.check(solution.getNodeCandidates());
+      CompactSolution solution = solutions.poll();
+      int violations = constraintChecker.check(solution);
       if (violations == 0 && solution.nodeSize() >= targetNodeSize) {
-        return solution;
+        return solution.toSolution(solutionGenerator.candidateIndex());
       }
       if (violations <= minViolations) {
         minViolations = violations;
@@ -22,6 +22,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
 import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.metrics.Counter;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.messages.Byon.ByonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +34,8 @@ public final class ByonCache {
   private static final Logger LOGGER = LoggerFactory.getLogger(ByonCache.class);
   private final ByonGenerator updater;
   private final Set<Expirable> expirableSet;
+  private final Counter hits;
+  private final Counter misses;
   private static final ByonGenerator BYON_GENERATOR = new ByonGenerator();
   private volatile Map<ByonCacheKey, ByonNode> byonNodeCache = new HashMap<>();
   @SuppressWarnings("UnstableApiUsage")
@@ -49,9 +53,12 @@ public final class ByonCache {
           .build();
 
   @Inject
-  public ByonCache(ByonGenerator updater, Set<Expirable> expirableSet) {
+  public ByonCache(ByonGenerator updater, Set<Expirable> expirableSet,
+      MetricsRegistry metricsRegistry) {
     this.updater = updater;
     this.expirableSet = expirableSet;
+    this.hits = metricsRegistry.cacheHits("byon");
+    this.misses = metricsRegistry.cacheMisses("byon");
   }
 
   public ByonGenerator generator() {
@@ -111,9 +118,13 @@ public final class ByonCache {
 
   public synchronized Optional<ByonNode> hit(String id, String userId) {
     ByonCacheKey key = new ByonCacheKey(id, userId);
-    return (byonNodeCache.get(key) == null)
-        ? Optional.empty()
-        : Optional.of(byonNodeCache.get(key));
+    final ByonNode byonNode = byonNodeCache.get(key);
+    if (byonNode == null) {
+      misses.inc();
+      return Optional.empty();
+    }
+    hits.inc();
+    return Optional.of(byonNode);
   }
 
   public synchronized Optional<ByonNode> read(String id, String userId) {
@@ -1,78 +1,218 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import cloudiator.Cloud;
 import cloudiator.Hardware;
 import cloudiator.Image;
 import cloudiator.Location;
 import cloudiator.LocationScope;
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
-import java.nio.charset.StandardCharsets;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.cloudiator.messages.entities.IaasEntities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+//owns the price plans and their refresh thread, so there is only one per injector
+@Singleton
 public class CSPSourcedPricePlanPriceFunction implements PriceFunction {
 
+  public static final int DEFAULT_CACHE_TIME = 3600;
+  public static final int DEFAULT_CACHE_SIZE = 64;
+  private static final int REFRESH_THREADS = 1;
+
   private final PricingSupplierFactory pricingSupplierFactory;
 
-  private Map<String, Map<Long, IaasEntities.Price>> cloudUser2PriceMap;
+  //price plans do not depend on the user, so they are shared per provider
+  private final LoadingCache<ProviderKey, PricePlan> pricePlans;
+  private final ExecutorService refreshExecutor;
+  //a refresh that loads the same prices again keeps the plan that is already shared
+  private final Interner<PricePlan> pricePlanInterner = Interners.newWeakInterner();
   private static final Logger LOGGER = LoggerFactory
       .getLogger(CSPSourcedPricePlanPriceFunction.class);
 
-  @Inject
   public CSPSourcedPricePlanPriceFunction(PricingSupplierFactory pricingSupplierFactory) {
+    this(pricingSupplierFactory, DEFAULT_CACHE_TIME, DEFAULT_CACHE_SIZE);
+  }
+
+  @Inject
+  public CSPSourcedPricePlanPriceFunction(PricingSupplierFactory pricingSupplierFactory,
+      @Named("pricingCacheTime") int pricingCacheTime,
+      @Named("pricingCacheSize") int pricingCacheSize) {
+    checkArgument(pricingCacheTime > 0, "pricingCacheTime needs to be larger than zero");
+    checkArgument(pricingCacheSize > 0, "pricingCacheSize needs to be larger than zero");
     this.pricingSupplierFactory = pricingSupplierFactory;
-    cloudUser2PriceMap = new ConcurrentHashMap<>();
+    this.refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("pricing-refresh-%d").build());
+    this.pricePlans = CacheBuilder.newBuilder().maximumSize(pricingCacheSize)
+        .refreshAfterWrite(pricingCacheTime, TimeUnit.SECONDS)
+        .build(new CacheLoader<ProviderKey, PricePlan>() {
+          @Override
+          public PricePlan load(ProviderKey key) {
+            return loadPricePlan(key);
+          }
+
+          @Override
+          public ListenableFuture<PricePlan> reload(ProviderKey key, PricePlan oldValue) {
+            //keep serving the old plan while the new one is loaded
+            final ListenableFutureTask<PricePlan> task = ListenableFutureTask
+                .create(() -> loadPricePlan(key));
+            refreshExecutor.execute(task);
+            return task;
+          }
+        });
+  }
+
+  private PricePlan loadPricePlan(ProviderKey key) {
+    LOGGER.debug(String.format("Loading price plan of provider %s.", key.providerName));
+    return pricePlanInterner
+        .intern(pricingSupplierFactory.newInstance(key.userId, key.providerName).get());
+  }
+
+  private static String locationProviderId(Location location) {
+    return location.getLocationScope() == LocationScope.ZONE ? location.getParent().getProviderId()
+        : location.getProviderId();
+  }
+
+  private static String osKey(Image image) {
+    return PricePlan.osKey(image.getOperatingSystem().getArchitecture().getName(),
+        image.getOperatingSystem().getFamily().getName());
   }
 
   @Override
   public Optional<Double> calculatePricing(Cloud cloud, Hardware hardware, Location location,
       Image image, String userId) {
-    String locationProviderId =
-        location.getLocationScope() == LocationScope.ZONE ? location.getParent().getProviderId()
-            : location.getProviderId();
-
-    HashCode sha256PriceKey = Hashing.sha256()
-        .hashString((new StringBuilder())
-            .append(hardware.getProviderId())
-            .append(locationProviderId)
-            .append(image.getOperatingSystem().getArchitecture().getName())
-            .append(image.getOperatingSystem().getFamily().getName())
-            .append(cloud.getApi().getProviderName()), StandardCharsets.UTF_8);
-
-    Double price = Optional.ofNullable(getPriceMap(cloud, userId))
-        .map(priceMap -> priceMap.get(sha256PriceKey.asLong()))
+    final String locationProviderId = locationProviderId(location);
+
+    Double price = Optional
+        .ofNullable(getPriceMap(cloud, userId)
+            .get(hardware.getProviderId(), locationProviderId, osKey(image)))
         .map(IaasEntities.Price::getPrice)
         .orElse(null);
 
     if (price == null) {
       LOGGER.trace(String.format(
-          "No pricing data found for: CSP: %s, Location: %s, Instance: %s, OS: %s, %s. sha256 (asLong) key: %d"
+          "No pricing data found for: CSP: %s, Location: %s, Instance: %s, OS: %s, %s."
           , cloud.getApi().getProviderName()
           , locationProviderId
           , hardware.getProviderId()
           , image.getOperatingSystem().getArchitecture().getName()
-          , image.getOperatingSystem().getFamily().getName()
-          , sha256PriceKey.asLong()));
+          , image.getOperatingSystem().getFamily().getName()));
     }
 
     return Optional.ofNullable(price);
   }
 
-  private Map<Long, IaasEntities.Price> getPriceMap(Cloud cloud, String userId) {
-    String cloudUserKey = cloud.getId() + userId;
+  @Override
+  public void fillPricing(Cloud cloud, List<Hardware> hardware,
+      List<Location> locations, List<Image> images, String userId, PriceTable priceTable) {
+
+    final PricePlan pricePlan = getPriceMap(cloud, userId);
 
-    return cloudUser2PriceMap.computeIfAbsent(cloudUserKey,
-        k -> pricingSupplierFactory.newInstance(userId, cloud.getApi().getProviderName()).get());
+    //keys are computed once per location and image, not per combination
+    final String[] locationKeys = new String[locations.size()];
+    for (int l = 0; l < locations.size(); l++) {
+      locationKeys[l] = locationProviderId(locations.get(l));
+    }
+    //images with the same operating system share a price, so it is looked up once
+    final Map<String, List<Integer>> imagesByOs = new LinkedHashMap<>();
+    for (int i = 0; i < images.size(); i++) {
+      imagesByOs.computeIfAbsent(osKey(images.get(i)), k -> new ArrayList<>()).add(i);
+    }
+
+    for (int h = 0; h < hardware.size(); h++) {
+      final Map<String, Map<String, IaasEntities.Price>> hardwarePrices = pricePlan
+          .forHardware(hardware.get(h).getProviderId());
+      for (int l = 0; l < locations.size(); l++) {
+        final Map<String, IaasEntities.Price> locationPrices = hardwarePrices
+            .getOrDefault(locationKeys[l], Collections.emptyMap());
+        for (Map.Entry<String, List<Integer>> os : imagesByOs.entrySet()) {
+          if (!anyMissing(priceTable, h, l, os.getValue())) {
+            continue;
+          }
+          final IaasEntities.Price price = locationPrices.get(os.getKey());
+          if (price == null) {
+            priceTable.missedLookup();
+            continue;
+          }
+          for (int i : os.getValue()) {
+            priceTable.set(h, l, i, price.getPrice());
+          }
+        }
+      }
+    }
+
+    LOGGER.trace(String.format("No pricing data found for %s of %s combinations of cloud %s.",
+        priceTable.misses(), priceTable.size(), cloud.getId()));
+  }
+
+  private static boolean anyMissing(PriceTable priceTable, int hardware, int location,
+      List<Integer> images) {
+    for (int image : images) {
+      if (priceTable.isMissing(hardware, location, image)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private PricePlan getPriceMap(Cloud cloud, String userId) {
+    //concurrent requests for the same provider wait for a single load
+    return pricePlans.getUnchecked(new ProviderKey(cloud.getApi().getProviderName(), userId));
   }
 
   @Override
   public int getPriority() {
     return Priority.HIGH;
   }
+
+  /**
+   * Identifies a price plan by the provider only. The user is only used to authorize the request
+   * that loads the plan.
+   */
+  private static class ProviderKey {
+
+    private final String providerName;
+    private final String userId;
+
+    private ProviderKey(String providerName, String userId) {
+      this.providerName = checkNotNull(providerName, "providerName is null");
+      this.userId = userId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      return providerName.equals(((ProviderKey) o).providerName);
+    }
+
+    @Override
+    public int hashCode() {
+      return providerName.hashCode();
+    }
+  }
 }
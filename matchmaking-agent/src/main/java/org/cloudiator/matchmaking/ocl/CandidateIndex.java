@@ -0,0 +1,58 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+
+/**
+ * Assigns a dense int index to every node candidate of a search, ordered by ascending price.
+ * Search internal solutions only refer to candidates by this index.
+ */
+public class CandidateIndex {
+
+  private final NodeCandidate[] candidates;
+  private final double[] prices;
+  private final Map<NodeCandidate, Integer> positions;
+
+  private CandidateIndex(Collection<NodeCandidate> nodeCandidates) {
+    checkNotNull(nodeCandidates, "nodeCandidates is null");
+    this.candidates = nodeCandidates.toArray(new NodeCandidate[0]);
+    Arrays.sort(candidates, Comparator.naturalOrder());
+    this.prices = new double[candidates.length];
+    this.positions = new HashMap<>(candidates.length * 2);
+    for (int i = 0; i < candidates.length; i++) {
+      prices[i] = candidates[i].getPrice();
+      positions.put(candidates[i], i);
+    }
+  }
+
+  public static CandidateIndex of(Collection<NodeCandidate> nodeCandidates) {
+    return new CandidateIndex(nodeCandidates);
+  }
+
+  public int size() {
+    return candidates.length;
+  }
+
+  public NodeCandidate get(int index) {
+    return candidates[index];
+  }
+
+  public double price(int index) {
+    return prices[index];
+  }
+
+  public int indexOf(NodeCandidate nodeCandidate) {
+    final Integer position = positions.get(nodeCandidate);
+    if (position == null) {
+      throw new IllegalArgumentException(
+          String.format("NodeCandidate %s is not part of the index.", nodeCandidate));
+    }
+    return position;
+  }
+}
@@ -0,0 +1,46 @@
+package org.cloudiator.matchmaking.ocl;
+
+import cloudiator.CloudCredential;
+import cloudiator.CloudiatorFactory;
+import cloudiator.CloudiatorPackage;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+import org.cloudiator.messages.Cloud.CloudQueryRequest;
+import org.cloudiator.messages.entities.IaasEntities;
+import org.cloudiator.messaging.services.CloudService;
+
+/**
+ * Reads the credentials from the cloud service. Only queries the clouds of the user, not their
+ * locations, hardware or images.
+ */
+public class CloudServiceCredentialSource implements CredentialSource {
+
+  private static final CloudiatorFactory CLOUDIATOR_FACTORY = CloudiatorPackage.eINSTANCE
+      .getCloudiatorFactory();
+  private final CloudService cloudService;
+
+  @Inject
+  public CloudServiceCredentialSource(CloudService cloudService) {
+    this.cloudService = cloudService;
+  }
+
+  @Override
+  public Map<String, CloudCredential> credentials(String userId)
+      throws ModelGenerationException {
+    try {
+      final Map<String, CloudCredential> credentials = new HashMap<>();
+      for (IaasEntities.Cloud cloud : cloudService
+          .getClouds(CloudQueryRequest.newBuilder().setUserId(userId).build()).getCloudsList()) {
+        final CloudCredential cloudCredential = CLOUDIATOR_FACTORY.createCloudCredential();
+        cloudCredential.setUser(cloud.getCredential().getUser());
+        cloudCredential.setSecret(cloud.getCredential().getSecret());
+        credentials.put(cloud.getId(), cloudCredential);
+      }
+      return credentials;
+    } catch (Exception e) {
+      throw new ModelGenerationException(
+          String.format("Could not query the clouds of user %s: %s", userId, e.getMessage()), e);
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.Solution;
+
+/**
+ * Search internal representation of a solution: a sorted multiset of indices into a {@link
+ * CandidateIndex} with cached costs and hash. Only converted to a {@link Solution} when it leaves
+ * the solver.
+ */
+public final class CompactSolution implements Comparable<CompactSolution> {
+
+  private static final int[] NO_CANDIDATES = new int[0];
+  public static final CompactSolution EMPTY = new CompactSolution(NO_CANDIDATES, 0, 0);
+
+  private final int[] candidates;
+  private final double costs;
+  private final int hash;
+  //state of the incremental constraint evaluation, see IncrementalConstraintChecker
+  @Nullable
+  private long[] constraintState;
+  @Nullable
+  private long[] parentConstraintState;
+  private final int added;
+  //running usage per quota, see QuotaAwareSolutionGenerator
+  @Nullable
+  private long[] quotaUsage;
+
+  private CompactSolution(int[] candidates, double costs, int hash) {
+    this(candidates, costs, hash, null, -1);
+  }
+
+  private CompactSolution(int[] candidates, double costs, int hash,
+      @Nullable long[] parentConstraintState, int added) {
+    this.candidates = candidates;
+    this.costs = costs;
+    this.hash = hash;
+    this.parentConstraintState = parentConstraintState;
+    this.added = added;
+  }
+
+  public static CompactSolution single(CandidateIndex candidateIndex, int candidate) {
+    return new CompactSolution(new int[]{candidate}, candidateIndex.price(candidate),
+        mix(candidate));
+  }
+
+  public static CompactSolution of(CandidateIndex candidateIndex, Solution solution) {
+    checkNotNull(solution, "solution is null");
+    //a fresh root, state must never be cached on the shared empty solution
+    CompactSolution compactSolution = new CompactSolution(NO_CANDIDATES, 0, 0);
+    for (NodeCandidate nodeCandidate : solution.getNodeCandidates()) {
+      compactSolution = compactSolution
+          .with(candidateIndex, candidateIndex.indexOf(nodeCandidate));
+    }
+    return compactSolution;
+  }
+
+  /**
+   * Multiset hash of a single candidate. The hash of a solution is the sum over its candidates,
+   * so it does not depend on insertion order and can be updated in constant time.
+   */
+  static int mix(int candidate) {
+    int h = candidate * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h;
+  }
+
+  public CompactSolution with(CandidateIndex candidateIndex, int candidate) {
+    final int[] child = new int[candidates.length + 1];
+    int insertion = Arrays.binarySearch(candidates, candidate);
+    if (insertion < 0) {
+      insertion = -insertion - 1;
+    }
+    System.arraycopy(candidates, 0, child, 0, insertion);
+    child[insertion] = candidate;
+    System.arraycopy(candidates, insertion, child, insertion + 1,
+        candidates.length - insertion);
+    return new CompactSolution(child, costs + candidateIndex.price(candidate),
+        hash + mix(candidate), constraintState, candidate);
+  }
+
+  public int nodeSize() {
+    return candidates.length;
+  }
+
+  public boolean isEmpty() {
+    return candidates.length == 0;
+  }
+
+  public int candidate(int position) {
+    return candidates[position];
+  }
+
+  public double getCosts() {
+    return costs;
+  }
+
+  @Nullable
+  long[] constraintState() {
+    return constraintState;
+  }
+
+  @Nullable
+  long[] parentConstraintState() {
+    return parentConstraintState;
+  }
+
+  int added() {
+    return added;
+  }
+
+  /**
+   * Caches the state, unless this solution is empty: the empty solution is shared by searches
+   * with differently sized states.
+   */
+  void constraintState(long[] constraintState) {
+    if (isEmpty()) {
+      return;
+    }
+    this.constraintState = constraintState;
+    //do not keep the state of the parent alive
+    this.parentConstraintState = null;
+  }
+
+  @Nullable
+  long[] quotaUsage() {
+    return quotaUsage;
+  }
+
+  void quotaUsage(long[] quotaUsage) {
+    if (isEmpty()) {
+      //see constraintState
+      return;
+    }
+    this.quotaUsage = quotaUsage;
+  }
+
+  /**
+   * Returns a read only view of the node candidates. Does not copy the candidates.
+   */
+  public List<NodeCandidate> nodeCandidates(CandidateIndex candidateIndex) {
+    return new AbstractList<NodeCandidate>() {
+      @Override
+      public NodeCandidate get(int i) {
+        return candidateIndex.get(candidates[i]);
+      }
+
+      @Override
+      public int size() {
+        return candidates.length;
+      }
+    };
+  }
+
+  public Solution toSolution(CandidateIndex candidateIndex) {
+    if (isEmpty()) {
+      return Solution.EMPTY_SOLUTION;
+    }
+    return Solution.of(new ArrayList<>(nodeCandidates(candidateIndex)));
+  }
+
+  @Override
+  public int compareTo(CompactSolution o) {
+    return Double.compare(costs, o.costs);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CompactSolution that = (CompactSolution) o;
+    return hash == that.hash && Arrays.equals(candidates, that.candidates);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("costs", costs)
+        .add("candidates", Arrays.toString(candidates)).toString();
+  }
+}
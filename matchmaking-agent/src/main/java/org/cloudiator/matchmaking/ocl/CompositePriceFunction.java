@@ -4,21 +4,37 @@ import cloudiator.Cloud;
 import cloudiator.Hardware;
 import cloudiator.Image;
 import cloudiator.Location;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.inject.Inject;
 import de.uniulm.omi.cloudiator.util.execution.Prioritized;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CompositePriceFunction implements PriceFunction {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(CompositePriceFunction.class);
   private final Set<PriceFunction> priceFunctions;
+  //per price function: lookups that found no price, and calls that failed
+  private final Map<PriceFunction, LongAdder> misses = new ConcurrentHashMap<>();
+  private final Map<PriceFunction, LongAdder> failures = new ConcurrentHashMap<>();
 
   @Inject
   public CompositePriceFunction(
       Set<PriceFunction> priceFunctions) {
     this.priceFunctions = new TreeSet<>(Prioritized::compareTo);
     this.priceFunctions.addAll(priceFunctions);
+    for (PriceFunction priceFunction : this.priceFunctions) {
+      misses.put(priceFunction, new LongAdder());
+      failures.put(priceFunction, new LongAdder());
+    }
   }
 
   @Override
@@ -33,16 +49,59 @@ public class CompositePriceFunction implements PriceFunction {
         if (price.isPresent()) {
           return price;
         }
+        misses.get(priceFunction).increment();
       } catch (Exception e) {
-        //ignore
+        failures.get(priceFunction).increment();
+        LOGGER.debug(String.format("Price function %s failed: %s", priceFunction,
+            e.getMessage()), e);
       }
     }
 
     return Optional.empty();
   }
 
+  @Override
+  public void fillPricing(Cloud cloud, List<Hardware> hardware,
+      List<Location> locations, List<Image> images, String userId, PriceTable priceTable) {
+
+    //the table keeps the first price, so lower priorities only fill what is still missing
+    for (PriceFunction priceFunction : priceFunctions) {
+      if (priceTable.misses() == 0) {
+        break;
+      }
+      final int missedLookups = priceTable.missedLookups();
+      try {
+        priceFunction.fillPricing(cloud, hardware, locations, images, userId, priceTable);
+      } catch (Exception e) {
+        failures.get(priceFunction).increment();
+        LOGGER.warn(String
+            .format("Price function %s failed for cloud %s: %s", priceFunction, cloud.getId(),
+                e.getMessage()), e);
+      }
+      misses.get(priceFunction).add(priceTable.missedLookups() - missedLookups);
+    }
+  }
+
+  public long misses(PriceFunction priceFunction) {
+    return misses.getOrDefault(priceFunction, new LongAdder()).sum();
+  }
+
+  public long failures(PriceFunction priceFunction) {
+    return failures.getOrDefault(priceFunction, new LongAdder()).sum();
+  }
+
   @Override
   public int getPriority() {
     return Priority.HIGH;
   }
+
+  @Override
+  public String toString() {
+    final ToStringHelper toStringHelper = MoreObjects.toStringHelper(this);
+    for (PriceFunction priceFunction : priceFunctions) {
+      toStringHelper.add(priceFunction.getClass().getSimpleName(),
+          String.format("misses=%s failures=%s", misses(priceFunction), failures(priceFunction)));
+    }
+    return toStringHelper.toString();
+  }
 }
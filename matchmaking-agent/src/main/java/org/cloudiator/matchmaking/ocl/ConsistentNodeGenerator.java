@@ -1,27 +1,59 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ConsistentNodeGenerator implements NodeGenerator {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConsistentNodeGenerator.class);
+
   private final NodeGenerator nodeGenerator;
   private final ConstraintChecker constraintChecker;
+  private final MetricsRegistry metricsRegistry;
+  private final Histogram filterTime;
+  private final Tracer tracer;
 
-  public ConsistentNodeGenerator(NodeGenerator nodeGenerator, ConstraintChecker checker) {
+  public ConsistentNodeGenerator(NodeGenerator nodeGenerator, ConstraintChecker checker,
+      MetricsRegistry metricsRegistry, Tracer tracer) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    checkNotNull(tracer, "tracer is null");
     this.nodeGenerator = nodeGenerator;
     this.constraintChecker = checker;
+    this.metricsRegistry = metricsRegistry;
+    this.tracer = tracer;
+    this.filterTime = metricsRegistry
+        .timer("matchmaking_candidate_generation_seconds", "Time to generate node candidates.",
+            "stage", "consistent");
   }
 
   @Override
   public NodeCandidates get() {
-    Set<NodeCandidate> consistentNodes =
-        nodeGenerator.get().stream().filter(this.constraintChecker::consistent)
-            .collect(Collectors.toSet());
-    System.out.println(
-        String.format("%s generated %s consistent nodes", this, consistentNodes.size()));
-    return NodeCandidates.of(consistentNodes);
+    try (Span span = tracer.startChild("candidates.consistent")) {
+      final NodeCandidates nodeCandidates = nodeGenerator.get();
+      //only the filtering, the delegate is measured itself
+      final long start = System.nanoTime();
+      Set<NodeCandidate> consistentNodes =
+          nodeCandidates.stream().filter(this.constraintChecker::consistent)
+              .collect(Collectors.toSet());
+      filterTime.observeNanos(System.nanoTime() - start);
+      final int consistent = consistentNodes.size();
+      metricsRegistry.gauge("matchmaking_candidates", "Node candidates of the last run.",
+          () -> consistent, "stage", "consistent");
+      span.attribute("candidates.in", nodeCandidates.size())
+          .attribute("candidates.out", consistentNodes.size());
+      LOGGER.debug(
+          String.format("%s generated %s consistent nodes", this, consistentNodes.size()));
+      return NodeCandidates.of(consistentNodes);
+    }
   }
 
 }
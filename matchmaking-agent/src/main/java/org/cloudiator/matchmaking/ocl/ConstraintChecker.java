@@ -18,11 +18,11 @@ public class ConstraintChecker {
   private final Set<Query> otherQueries;
   private final Component component;
 
-  private ConstraintChecker(OclCsp csp) throws ParserException {
+  private ConstraintChecker(Iterable<String> constraints) throws ParserException {
     forAllQueries = new HashSet<>();
     otherQueries = new HashSet<>();
 
-    for (String constraint : csp.getUnparsedConstraints()) {
+    for (String constraint : constraints) {
       ExpressionInOCL expression = OCLUtil
           .createInvariant(CloudiatorPackage.eINSTANCE.getComponent(), constraint);
       Query query = OCLUtil.createQuery(expression);
@@ -38,8 +38,12 @@ public class ConstraintChecker {
   }
 
   public static ConstraintChecker create(OclCsp oclCsp) {
+    return create(oclCsp.getUnparsedConstraints());
+  }
+
+  public static ConstraintChecker create(Iterable<String> constraints) {
     try {
-      return new ConstraintChecker(oclCsp);
+      return new ConstraintChecker(constraints);
     } catch (ParserException e) {
       throw new IllegalStateException(e);
     }
@@ -55,6 +59,9 @@ public class ConstraintChecker {
   }
 
   public int check(List<NodeCandidate> nodes) {
+    if (otherQueries.isEmpty()) {
+      return 0;
+    }
     synchronized (ConstraintChecker.class) {
       component.getNodes().clear();
 
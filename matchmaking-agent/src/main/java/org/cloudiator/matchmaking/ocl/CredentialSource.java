@@ -0,0 +1,17 @@
+package org.cloudiator.matchmaking.ocl;
+
+import cloudiator.CloudCredential;
+import java.util.Map;
+
+/**
+ * Source of the current credentials of the clouds of a user. Model snapshots are stored without
+ * credentials, they are re-attached from this source when a snapshot is loaded.
+ */
+public interface CredentialSource {
+
+  /**
+   * The credentials of the clouds of the user by cloud id.
+   */
+  Map<String, CloudCredential> credentials(String userId) throws ModelGenerationException;
+
+}
@@ -0,0 +1,94 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.math.IntMath;
+import java.math.RoundingMode;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Coarse shape of a solving problem, used to learn which solvers perform well on it.
+ * <p>
+ * Candidate count and node size are bucketed by powers of two, the constraint types are the
+ * collection operations used by the constraints (e.g. forAll, exists, sum).
+ */
+public class CspFeatures {
+
+  private static final Pattern OPERATION = Pattern.compile("->\\s*(\\w+)\\s*\\(");
+
+  private final int candidateBucket;
+  private final int nodeSizeBucket;
+  private final Set<String> constraintTypes;
+  private final boolean quotas;
+
+  CspFeatures(int candidateBucket, int nodeSizeBucket, Set<String> constraintTypes,
+      boolean quotas) {
+    checkNotNull(constraintTypes, "constraintTypes is null");
+    this.candidateBucket = candidateBucket;
+    this.nodeSizeBucket = nodeSizeBucket;
+    this.constraintTypes = ImmutableSortedSet.copyOf(constraintTypes);
+    this.quotas = quotas;
+  }
+
+  public static CspFeatures of(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Integer targetNodeSize) {
+    checkNotNull(oclCsp, "oclCsp is null");
+    checkNotNull(nodeCandidates, "nodeCandidates is null");
+    final ImmutableSortedSet.Builder<String> constraintTypes = ImmutableSortedSet.naturalOrder();
+    for (String constraint : oclCsp.getUnparsedConstraints()) {
+      final Matcher matcher = OPERATION.matcher(constraint);
+      while (matcher.find()) {
+        constraintTypes.add(matcher.group(1));
+      }
+    }
+    return new CspFeatures(bucket(nodeCandidates.size()),
+        bucket(targetNodeSize == null ? 1 : targetNodeSize), constraintTypes.build(),
+        !oclCsp.getQuotaSet().quotaSet().isEmpty());
+  }
+
+  /**
+   * Exponent of the next power of two, zero for values up to one.
+   */
+  static int bucket(int value) {
+    checkArgument(value >= 0, "value needs to be positive");
+    return value <= 1 ? 0 : IntMath.log2(value, RoundingMode.CEILING);
+  }
+
+  /**
+   * Stable textual form of the features, used as key of the solver history.
+   */
+  public String key() {
+    return String.format("candidates=2^%s;nodes=2^%s;constraints=%s;quotas=%s", candidateBucket,
+        nodeSizeBucket, Joiner.on(',').join(constraintTypes), quotas);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CspFeatures that = (CspFeatures) o;
+    return candidateBucket == that.candidateBucket && nodeSizeBucket == that.nodeSizeBucket
+        && quotas == that.quotas && constraintTypes.equals(that.constraintTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(candidateBucket, nodeSizeBucket, constraintTypes, quotas);
+  }
+
+  @Override
+  public String toString() {
+    return key();
+  }
+}
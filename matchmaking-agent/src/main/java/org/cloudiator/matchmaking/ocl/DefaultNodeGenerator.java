@@ -1,5 +1,6 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import cloudiator.Cloud;
@@ -12,18 +13,28 @@ import cloudiator.Image;
 import cloudiator.Location;
 import cloudiator.Price;
 import cloudiator.Runtime;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.typesafe.config.Config;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.Counter;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator.PriceCache.PriceKey;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,18 +47,52 @@ public class DefaultNodeGenerator implements NodeGenerator {
   private final CloudiatorModel cloudiatorModel;
   @Nullable
   private final ByonCache byonCache;
+  private final MetricsRegistry metricsRegistry;
+  private final Histogram generationTime;
+  private final Counter unpriced;
+  private final Tracer tracer;
+  @Nullable
+  private final PriceModelGenerator priceModelGenerator;
+  @Nullable
+  private final String userId;
 
+  /**
+   * Generator that only uses the prices of the model.
+   */
   public DefaultNodeGenerator(NodeCandidateFactory nodeCandidateFactory,
-      CloudiatorModel cloudiatorModel, @Nullable ByonCache byonCache) {
+      CloudiatorModel cloudiatorModel, @Nullable ByonCache byonCache,
+      MetricsRegistry metricsRegistry, Tracer tracer) {
+    this(nodeCandidateFactory, cloudiatorModel, byonCache, metricsRegistry, tracer, null, null);
+  }
+
+  /**
+   * Generator that prices the combinations of clouds without prices in the model while
+   * generating, so only valid combinations are priced. Combinations that can not be priced are
+   * kept with the price {@link Double#MAX_VALUE}.
+   */
+  public DefaultNodeGenerator(NodeCandidateFactory nodeCandidateFactory,
+      CloudiatorModel cloudiatorModel, @Nullable ByonCache byonCache,
+      MetricsRegistry metricsRegistry, Tracer tracer,
+      @Nullable PriceModelGenerator priceModelGenerator, @Nullable String userId) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    checkNotNull(tracer, "tracer is null");
+    checkArgument(priceModelGenerator == null || userId != null,
+        "userId is required for pricing");
     this.nodeCandidateFactory = nodeCandidateFactory;
     this.cloudiatorModel = cloudiatorModel;
-    if (!PRICE_CACHE.exists(cloudiatorModel)) {
-      PRICE_CACHE.load(cloudiatorModel);
-    }
     this.byonCache = byonCache;
+    this.metricsRegistry = metricsRegistry;
+    this.tracer = tracer;
+    this.generationTime = metricsRegistry
+        .timer("matchmaking_candidate_generation_seconds", "Time to generate node candidates.",
+            "stage", "all");
+    this.unpriced = metricsRegistry.counter("matchmaking_candidates_unpriced_total",
+        "Node candidates kept without price, as no price function could price them.");
+    this.priceModelGenerator = priceModelGenerator;
+    this.userId = userId;
   }
 
-  private static boolean isValidCombination(Image image, Hardware hardware, Location location) {
+  static boolean isValidCombination(Image image, Hardware hardware, Location location) {
     checkNotNull(hardware, "hardware is null");
     checkNotNull(image, "image is null");
     checkNotNull(location, "location is null");
@@ -60,31 +105,23 @@ public class DefaultNodeGenerator implements NodeGenerator {
       return false;
     }
 
-    final Set<String> locationScope = locationIds(location);
-
-    if (image.getLocation() != null) {
-      //we have to check the image scope
-      if (!locationScope.contains(image.getLocation().getId())) {
-        return false;
-      }
-    }
-
-    if (hardware.getLocation() != null) {
-      //we have to check the hardware scope
-      if (!locationScope.contains(hardware.getLocation().getId())) {
-        return false;
-      }
-    }
-
-    return true;
+    return inScope(location, image.getLocation()) && inScope(location, hardware.getLocation());
   }
 
-  private static Set<String> locationIds(Location location) {
-    Set<String> ids = new HashSet<>();
+  /**
+   * Checks if the location is the scope or one of its sublocations. Everything is in the scope
+   * if there is no scope.
+   */
+  private static boolean inScope(Location location, @Nullable Location scope) {
+    if (scope == null) {
+      return true;
+    }
     for (Location i = location; i != null; i = i.getParent()) {
-      ids.add(i.getId());
+      if (i.getId().equals(scope.getId())) {
+        return true;
+      }
     }
-    return ids;
+    return false;
   }
 
   /*
@@ -94,26 +131,70 @@ public class DefaultNodeGenerator implements NodeGenerator {
    */
   @Override
   public NodeCandidates get() {
+    try (Span span = tracer.startChild("candidates.all")) {
+      final NodeCandidates nodeCandidates = generate();
+      span.attribute("candidates", nodeCandidates.size());
+      return nodeCandidates;
+    }
+  }
+
+  private NodeCandidates generate() {
+    final long start = System.nanoTime();
     Set<NodeCandidate> nodeCandidates = new HashSet<>();
     for (Cloud cloud : cloudiatorModel.getClouds()) {
-      for (Image image : cloud.getImages()) {
+      int unpricedCandidates = 0;
+      for (Location location : cloud.getLocations()) {
+        if (!location.isAssignable()) {
+          continue;
+        }
+        //filter images and hardware by scope once per location instead of per combination
+        List<Image> images = new ArrayList<>();
+        for (Image image : cloud.getImages()) {
+          if (inScope(location, image.getLocation())) {
+            images.add(image);
+          }
+        }
+        List<Hardware> hardwareList = new ArrayList<>();
         for (Hardware hardware : cloud.getHardwareList()) {
-          for (Location location : cloud.getLocations()) {
-            //check if valid combination
-            if (isValidCombination(image, hardware, location)) {
-              Double price = PRICE_CACHE
-                  .retrieve(cloudiatorModel, PriceKey.of(cloud, image, hardware, location));
-              if (price == null) {
-                price = Double.MAX_VALUE;
-              }
-              if (!price.equals(Double.MAX_VALUE)) {
-                nodeCandidates
-                    .add(nodeCandidateFactory.of(cloud, hardware, image, location, price));
+          if (inScope(location, hardware.getLocation())) {
+            hardwareList.add(hardware);
+          }
+        }
+        //discovered models carry no prices, the surviving combinations are priced here
+        final PriceTable priceTable = priceModelGenerator != null && cloud.getPrices().isEmpty()
+            ? priceModelGenerator.price(cloud, hardwareList, location, images, userId) : null;
+        for (int i = 0; i < images.size(); i++) {
+          final Image image = images.get(i);
+          for (int h = 0; h < hardwareList.size(); h++) {
+            final Hardware hardware = hardwareList.get(h);
+            if (priceTable != null) {
+              //unpriced combinations stay candidates with the marker price, so they are only
+              //chosen if nothing priced fits
+              final OptionalDouble priced = priceTable.get(h, 0, i);
+              if (!priced.isPresent()) {
+                unpricedCandidates++;
               }
+              nodeCandidates.add(nodeCandidateFactory.of(cloud, hardware, image, location,
+                  priced.orElse(Double.MAX_VALUE)));
+              continue;
+            }
+            Double price = PRICE_CACHE
+                .retrieve(cloudiatorModel, PriceKey.of(cloud, image, hardware, location));
+            if (price == null) {
+              price = Double.MAX_VALUE;
+            }
+            if (!price.equals(Double.MAX_VALUE)) {
+              nodeCandidates
+                  .add(nodeCandidateFactory.of(cloud, hardware, image, location, price));
             }
           }
         }
       }
+      if (unpricedCandidates > 0) {
+        LOGGER.warn(String.format("Kept %s node candidates of cloud %s without price.",
+            unpricedCandidates, cloud.getId()));
+        unpriced.inc(unpricedCandidates);
+      }
       try {
         if (config.hasPath(cloud.getApi().getProviderName())) {
           nodeCandidates.addAll(generateFaasNodeCandidates(cloud));
@@ -123,8 +204,11 @@ public class DefaultNodeGenerator implements NodeGenerator {
       }
     }
     nodeCandidates.addAll(generateByonNodeCandidates());
-    System.out
-        .println(String.format("%s generated all possible nodes: %s", this, nodeCandidates.size()));
+    generationTime.observeNanos(System.nanoTime() - start);
+    final int generated = nodeCandidates.size();
+    metricsRegistry.gauge("matchmaking_candidates", "Node candidates of the last run.",
+        () -> generated, "stage", "all");
+    LOGGER.debug(String.format("%s generated all possible nodes: %s", this, nodeCandidates.size()));
     return NodeCandidates.of(nodeCandidates);
   }
 
@@ -168,26 +252,31 @@ public class DefaultNodeGenerator implements NodeGenerator {
     return nodeCandidates;
   }
 
+  /**
+   * Prices of a model by combination. Weakly keyed, so the prices of a model are dropped
+   * together with the model.
+   */
   static class PriceCache {
 
-    private Map<CloudiatorModel, Map<PriceKey, Double>> cache = new HashMap<>();
+    private final Cache<CloudiatorModel, Map<PriceKey, Double>> cache = CacheBuilder
+        .newBuilder().weakKeys().build();
 
-    private boolean exists(CloudiatorModel cloudiatorModel) {
-      return cache.containsKey(cloudiatorModel);
-    }
-
-    private void load(CloudiatorModel cloudiatorModel) {
+    private static Map<PriceKey, Double> load(CloudiatorModel cloudiatorModel) {
       Map<PriceKey, Double> prices = new HashMap<>();
       for (Cloud cloud : cloudiatorModel.getClouds()) {
         for (Price price : cloud.getPrices()) {
           prices.put(PriceKey.of(cloud, price), price.getPrice());
         }
       }
-      cache.put(cloudiatorModel, prices);
+      return prices;
     }
 
     private Double retrieve(CloudiatorModel cloudiatorModel, PriceKey priceKey) {
-      return cache.get(cloudiatorModel).get(priceKey);
+      try {
+        return cache.get(cloudiatorModel, () -> load(cloudiatorModel)).get(priceKey);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Could not load prices of model.", e.getCause());
+      }
     }
 
     static class PriceKey {
@@ -1,35 +1,53 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import cloudiator.CloudiatorModel;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.messaging.services.CloudService;
 
+@Singleton
 public class DiscoveryServiceBasedCloudModelGeneratorFactory {
 
   private final CloudService cloudService;
   private final ImageSupplierFactory imageSupplierFactory;
   private final HardwareSupplierFactory hardwareSupplierFactory;
   private final LocationSupplierFactory locationSupplierFactory;
-  private final PriceModelGenerator priceModelGenerator;
+  private final ExecutorService discoveryExecutor;
+  private final DiscoveryStatistics discoveryStatistics;
 
   @Inject
   public DiscoveryServiceBasedCloudModelGeneratorFactory(CloudService cloudService,
       ImageSupplierFactory imageSupplierFactory,
       HardwareSupplierFactory hardwareSupplierFactory,
       LocationSupplierFactory locationSupplierFactory,
-      PriceModelGenerator priceModelGenerator) {
+      @Named("discoveryConcurrency") int discoveryConcurrency, MetricsRegistry metricsRegistry) {
+    checkArgument(discoveryConcurrency > 0, "discoveryConcurrency needs to be larger than zero");
     this.cloudService = cloudService;
     this.imageSupplierFactory = imageSupplierFactory;
     this.hardwareSupplierFactory = hardwareSupplierFactory;
     this.locationSupplierFactory = locationSupplierFactory;
-    this.priceModelGenerator = priceModelGenerator;
+    this.discoveryExecutor = Executors.newFixedThreadPool(discoveryConcurrency,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("discovery-%d").build());
+    this.discoveryStatistics = new DiscoveryStatistics(metricsRegistry);
   }
 
   public DiscoveryServiceBasedModelGenerator newInstance(String userId,
       CloudiatorModel cloudiatorModel) {
     return new DiscoveryServiceBasedModelGenerator(cloudiatorModel, userId, cloudService,
         hardwareSupplierFactory,
-        imageSupplierFactory, locationSupplierFactory, priceModelGenerator);
+        imageSupplierFactory, locationSupplierFactory, discoveryExecutor,
+        discoveryStatistics);
+  }
+
+  public DiscoveryStatistics discoveryStatistics() {
+    return discoveryStatistics;
   }
 
 }
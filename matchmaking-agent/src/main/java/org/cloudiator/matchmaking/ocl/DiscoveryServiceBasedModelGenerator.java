@@ -1,59 +1,113 @@
 package org.cloudiator.matchmaking.ocl;
 
 import cloudiator.Cloud;
-import cloudiator.CloudiatorFactory;
 import cloudiator.CloudiatorModel;
-import cloudiator.CloudiatorPackage;
+import cloudiator.Hardware;
+import cloudiator.Image;
+import cloudiator.Location;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import org.cloudiator.matchmaking.converters.CloudConverter;
+import org.cloudiator.matchmaking.ocl.DiscoveryStatistics.Stage;
 import org.cloudiator.messages.Cloud.CloudQueryRequest;
+import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.services.CloudService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Discovers the clouds of a user. The clouds are discovered in parallel, and for each cloud the
+ * location, hardware and image requests are issued concurrently. Prices are not discovered, the
+ * {@link DefaultNodeGenerator} prices the combinations that can become node candidates.
+ */
 public class DiscoveryServiceBasedModelGenerator {
 
-  private final CloudiatorFactory cloudiatorFactory = CloudiatorPackage.eINSTANCE
-      .getCloudiatorFactory();
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(DiscoveryServiceBasedModelGenerator.class);
   private final CloudiatorModel cloudiatorModel;
   private final String userId;
   private final CloudService cloudService;
   private final HardwareSupplierFactory hardwareSupplierFactory;
   private final ImageSupplierFactory imageSupplierFactory;
   private final LocationSupplierFactory locationSupplierFactory;
-  private final PriceModelGenerator priceModelGenerator;
+  private final Executor executor;
+  private final DiscoveryStatistics discoveryStatistics;
   private final static CloudConverter CLOUD_CONVERTER = new CloudConverter();
 
   public DiscoveryServiceBasedModelGenerator(CloudiatorModel cloudiatorModel, String userId,
       CloudService cloudService, HardwareSupplierFactory hardwareSupplierFactory,
       ImageSupplierFactory imageSupplierFactory,
-      LocationSupplierFactory locationSupplierFactory,
-      PriceModelGenerator priceModelGenerator) {
+      LocationSupplierFactory locationSupplierFactory, Executor executor,
+      DiscoveryStatistics discoveryStatistics) {
     this.cloudiatorModel = cloudiatorModel;
     this.userId = userId;
     this.cloudService = cloudService;
     this.hardwareSupplierFactory = hardwareSupplierFactory;
     this.imageSupplierFactory = imageSupplierFactory;
     this.locationSupplierFactory = locationSupplierFactory;
-    this.priceModelGenerator = priceModelGenerator;
+    this.executor = executor;
+    this.discoveryStatistics = discoveryStatistics;
   }
 
   private CloudQueryRequest buildQuery() {
     return CloudQueryRequest.newBuilder().setUserId(userId).build();
   }
 
+  private CompletableFuture<Cloud> discover(Cloud cloud) {
+
+    final CompletableFuture<Set<Location>> locations = CompletableFuture.supplyAsync(
+        () -> discoveryStatistics
+            .time(Stage.LOCATIONS, locationSupplierFactory.newInstance(cloud, userId)), executor);
+    final CompletableFuture<Set<Hardware>> hardware = CompletableFuture.supplyAsync(
+        () -> discoveryStatistics
+            .time(Stage.HARDWARE, hardwareSupplierFactory.newInstance(cloud, userId)), executor);
+    final CompletableFuture<Set<Image>> images = CompletableFuture.supplyAsync(
+        () -> discoveryStatistics
+            .time(Stage.IMAGES, imageSupplierFactory.newInstance(cloud, userId)), executor);
+
+    //the cloud is only modified by this stage, the model is not thread safe
+    return CompletableFuture.allOf(locations, hardware, images).thenApplyAsync(v -> {
+      //add locations first as hardware and images need to related to locations
+      cloud.getLocations().addAll(locations.join());
+      cloud.getHardwareList().addAll(hardware.join());
+      cloud.getImages().addAll(images.join());
+      return cloud;
+    }, executor);
+  }
+
   public void generate() throws ModelGenerationException {
     try {
-      cloudService.getClouds(buildQuery()).getCloudsList().stream().map(c -> {
+      final long start = System.nanoTime();
+      final List<IaasEntities.Cloud> clouds = cloudService
+          .getClouds(buildQuery()).getCloudsList();
+      discoveryStatistics.record(Stage.CLOUDS, System.nanoTime() - start);
+
+      List<CompletableFuture<Cloud>> discoveries = new ArrayList<>(clouds.size());
+      for (IaasEntities.Cloud cloud : clouds) {
+        discoveries.add(discover(CLOUD_CONVERTER.applyBack(cloud)));
+      }
 
-        Cloud cloud = CLOUD_CONVERTER.applyBack(c);
+      CompletableFuture.allOf(discoveries.toArray(new CompletableFuture[0])).get();
 
-        //add locations first as hardware and images need to related to locations
-        cloud.getLocations().addAll(locationSupplierFactory.newInstance(cloud, userId).get());
-        cloud.getHardwareList().addAll(hardwareSupplierFactory.newInstance(cloud, userId).get());
-        cloud.getImages().addAll(imageSupplierFactory.newInstance(cloud, userId).get());
+      //keep the order of the cloud service
+      for (CompletableFuture<Cloud> discovery : discoveries) {
+        cloudiatorModel.getClouds().add(discovery.join());
+      }
 
-        priceModelGenerator.generatePriceModel(cloud, userId);
+      LOGGER.debug(String.format("Discovered %s clouds for user %s. Statistics: %s", clouds.size(),
+          userId, discoveryStatistics));
 
-        return cloud;
-      }).forEach(cloud -> cloudiatorModel.getClouds().add(cloud));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ModelGenerationException("Interrupted while generating model.", e);
+    } catch (ExecutionException e) {
+      throw new ModelGenerationException(
+          String.format("Could not generate model due to error %s", e.getCause().getMessage()),
+          e.getCause());
     } catch (Exception e) {
       throw new ModelGenerationException(
           String.format("Could not generate model due to error %s", e.getMessage()), e);
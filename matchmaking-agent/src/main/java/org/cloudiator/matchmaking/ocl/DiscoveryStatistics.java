@@ -0,0 +1,98 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.MoreObjects.ToStringHelper;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+
+/**
+ * Latencies of the individual discovery requests, aggregated over all users and clouds. They are
+ * exported as {@code matchmaking_discovery_request_seconds} by stage, the maximum only appears in
+ * {@link #toString()}.
+ */
+public class DiscoveryStatistics {
+
+  public enum Stage {
+    CLOUDS,
+    LOCATIONS,
+    HARDWARE,
+    IMAGES
+  }
+
+  private final Map<Stage, Latency> latencies = new EnumMap<>(Stage.class);
+
+  public DiscoveryStatistics(MetricsRegistry metricsRegistry) {
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    for (Stage stage : Stage.values()) {
+      latencies.put(stage, new Latency(metricsRegistry
+          .timer("matchmaking_discovery_request_seconds", "Latencies of discovery requests.",
+              "stage", stage.name().toLowerCase(Locale.ROOT))));
+    }
+  }
+
+  public <T> T time(Stage stage, Supplier<T> supplier) {
+    final long start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      record(stage, System.nanoTime() - start);
+    }
+  }
+
+  public void record(Stage stage, long nanos) {
+    final Latency latency = latencies.get(stage);
+    latency.count.increment();
+    latency.total.add(nanos);
+    latency.max.accumulate(nanos);
+    latency.histogram.observeNanos(nanos);
+  }
+
+  public long count(Stage stage) {
+    return latencies.get(stage).count.sum();
+  }
+
+  public double meanMillis(Stage stage) {
+    final Latency latency = latencies.get(stage);
+    final long count = latency.count.sum();
+    if (count == 0) {
+      return 0;
+    }
+    return latency.total.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  public double maxMillis(Stage stage) {
+    return latencies.get(stage).max.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public String toString() {
+    final ToStringHelper toStringHelper = MoreObjects.toStringHelper(this);
+    for (Stage stage : Stage.values()) {
+      toStringHelper.add(stage.name(),
+          String.format("count=%s mean=%.1fms max=%.1fms", count(stage), meanMillis(stage),
+              maxMillis(stage)));
+    }
+    return toStringHelper.toString();
+  }
+
+  private static class Latency {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final Histogram histogram;
+
+    private Latency(Histogram histogram) {
+      this.histogram = histogram;
+    }
+  }
+}
@@ -2,16 +2,17 @@ package org.cloudiator.matchmaking.ocl;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.IntPredicate;
 import org.cloudiator.matchmaking.domain.Solution;
 
 public class ExistingSolutionGenerator implements SolutionGenerator {
 
-  private final Solution existingSolution;
+  private final CompactSolution existingSolution;
   private final SolutionGenerator delegate;
 
   public ExistingSolutionGenerator(Solution existingSolution,
       SolutionGenerator delegate) {
-    this.existingSolution = existingSolution;
+    this.existingSolution = CompactSolution.of(delegate.candidateIndex(), existingSolution);
     this.delegate = delegate;
   }
 
@@ -21,12 +22,23 @@ public class ExistingSolutionGenerator implements SolutionGenerator {
   }
 
   @Override
-  public List<Solution> generateInitialSolutions() {
+  public CandidateIndex candidateIndex() {
+    return delegate.candidateIndex();
+  }
+
+  @Override
+  public List<CompactSolution> generateInitialSolutions() {
     return Collections.singletonList(existingSolution);
   }
 
   @Override
-  public List<Solution> getChilds(Solution solution) {
+  public List<CompactSolution> getChilds(CompactSolution solution) {
     return delegate.getChilds(solution);
   }
+
+  @Override
+  public List<CompactSolution> getChilds(CompactSolution solution,
+      IntPredicate candidateFilter) {
+    return delegate.getChilds(solution, candidateFilter);
+  }
 }
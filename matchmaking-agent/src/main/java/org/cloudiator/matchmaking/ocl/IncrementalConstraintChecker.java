@@ -0,0 +1,532 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloudiator.Node;
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the violated (non forAll) constraints of a {@link CompactSolution}.
+ *
+ * <p>Aggregate constraints (size, select-size, exists, sum and isUnique) are evaluated
+ * incrementally: every solution carries a small counter array which is derived from the counters
+ * of its parent by adding the contribution of the single added candidate. The contribution of a
+ * candidate is computed once per search. All other constraints are delegated to the OCL based
+ * {@link ConstraintChecker}.
+ */
+public class IncrementalConstraintChecker {
+
+  private static final Logger LOGGER = LoggerFactory
+      .getLogger(IncrementalConstraintChecker.class);
+
+  private static final String OPERATOR = "\\s*(<=|>=|<>|=|<|>)\\s*";
+  private static final String NUMBER = "(-?\\d+(?:\\.\\d+)?)(?:\\s*/\\s*(\\d+(?:\\.\\d+)?))?";
+  private static final String PATH = "(?:(\\w+)\\s*\\|\\s*)?(\\w+(?:\\.\\w+)*)";
+
+  private static final Pattern SIZE = Pattern
+      .compile("^nodes\\s*->\\s*size\\(\\)" + OPERATOR + NUMBER + "$");
+  private static final Pattern SELECT = Pattern.compile("^nodes\\s*->\\s*select\\(");
+  private static final Pattern SELECT_SIZE = Pattern
+      .compile("^\\s*->\\s*size\\(\\)" + OPERATOR + NUMBER + "$");
+  private static final Pattern EXISTS = Pattern.compile("^nodes\\s*->\\s*exists\\(");
+  private static final Pattern SUM = Pattern
+      .compile("^nodes((?:\\.\\w+)+)\\s*->\\s*sum\\(\\)" + OPERATOR + NUMBER + "$");
+  private static final Pattern IS_UNIQUE = Pattern
+      .compile("^nodes\\s*->\\s*isUnique\\(\\s*" + PATH + "\\s*\\)$");
+
+  private final CandidateIndex candidateIndex;
+  private final List<AggregateEvaluator> evaluators;
+  private final int stateSize;
+  @Nullable
+  private final ConstraintChecker fallback;
+
+  private IncrementalConstraintChecker(OclCsp oclCsp, CandidateIndex candidateIndex) {
+    this.candidateIndex = candidateIndex;
+    this.evaluators = new ArrayList<>();
+    final List<String> fallbackConstraints = new ArrayList<>();
+
+    int slot = 0;
+    for (String constraint : oclCsp.getUnparsedConstraints()) {
+      if (constraint.contains("forAll")) {
+        //forAll constraints are already enforced by the consistent node generation
+        continue;
+      }
+      final Optional<AggregateEvaluator> evaluator = parse(constraint.trim());
+      if (evaluator.isPresent() && evaluator.get().prepare(candidateIndex)) {
+        evaluator.get().slot = slot;
+        slot += evaluator.get().slots();
+        evaluators.add(evaluator.get());
+      } else {
+        fallbackConstraints.add(constraint);
+      }
+    }
+    this.stateSize = slot;
+
+    if (fallbackConstraints.isEmpty()) {
+      fallback = null;
+    } else {
+      fallback = ConstraintChecker.create(fallbackConstraints);
+    }
+
+    LOGGER.debug(String
+        .format("%s evaluates %s constraints incrementally and %s using OCL.", this,
+            evaluators.size(), fallbackConstraints.size()));
+  }
+
+  public static IncrementalConstraintChecker create(OclCsp oclCsp,
+      CandidateIndex candidateIndex) {
+    checkNotNull(oclCsp, "oclCsp is null");
+    checkNotNull(candidateIndex, "candidateIndex is null");
+    return new IncrementalConstraintChecker(oclCsp, candidateIndex);
+  }
+
+  public int check(CompactSolution solution) {
+
+    long[] state = solution.constraintState();
+    if (state == null) {
+      final long[] parentState = solution.parentConstraintState();
+      if (parentState != null && solution.added() >= 0) {
+        state = parentState.clone();
+        for (AggregateEvaluator evaluator : evaluators) {
+          evaluator.add(state, solution, solution.added());
+        }
+      } else {
+        state = new long[stateSize];
+        for (int i = 0; i < solution.nodeSize(); i++) {
+          for (AggregateEvaluator evaluator : evaluators) {
+            evaluator.add(state, solution, solution.candidate(i));
+          }
+        }
+      }
+      solution.constraintState(state);
+    }
+
+    int violations = 0;
+    for (AggregateEvaluator evaluator : evaluators) {
+      if (evaluator.violated(state, solution.nodeSize())) {
+        violations++;
+      }
+    }
+
+    if (fallback != null) {
+      violations += fallback.check(solution.nodeCandidates(candidateIndex));
+    }
+
+    return violations;
+  }
+
+  private static Optional<AggregateEvaluator> parse(String constraint) {
+
+    Matcher matcher = SIZE.matcher(constraint);
+    if (matcher.matches()) {
+      return Optional.of(new SizeEvaluator(Operator.of(matcher.group(1)),
+          number(matcher.group(2), matcher.group(3))));
+    }
+
+    matcher = SELECT.matcher(constraint);
+    if (matcher.lookingAt()) {
+      final int close = closing(constraint, matcher.end() - 1);
+      if (close < 0) {
+        return Optional.empty();
+      }
+      final Matcher size = SELECT_SIZE.matcher(constraint.substring(close + 1));
+      if (!size.matches()) {
+        return Optional.empty();
+      }
+      return Optional.of(new SelectSizeEvaluator(constraint.substring(matcher.end(), close),
+          Operator.of(size.group(1)), number(size.group(2), size.group(3))));
+    }
+
+    matcher = EXISTS.matcher(constraint);
+    if (matcher.lookingAt()) {
+      final int close = closing(constraint, matcher.end() - 1);
+      if (close != constraint.length() - 1) {
+        //e.g. two exists joined by and
+        return Optional.empty();
+      }
+      return Optional.of(new SelectSizeEvaluator(constraint.substring(matcher.end(), close),
+          Operator.GREATER_OR_EQUAL, 1));
+    }
+
+    matcher = SUM.matcher(constraint);
+    if (matcher.matches()) {
+      return Optional.of(new SumEvaluator(matcher.group(1).substring(1).split("\\."),
+          Operator.of(matcher.group(2)), number(matcher.group(3), matcher.group(4))));
+    }
+
+    matcher = IS_UNIQUE.matcher(constraint);
+    if (matcher.matches()) {
+      final String iterator = matcher.group(1);
+      String path = matcher.group(2);
+      if (iterator != null) {
+        if (!path.startsWith(iterator + ".")) {
+          return Optional.empty();
+        }
+        path = path.substring(iterator.length() + 1);
+      }
+      return Optional.of(new UniqueEvaluator(path.split("\\.")));
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * Index of the parenthesis closing the one at the given index, -1 if it is never closed.
+   * Parentheses within string literals are ignored.
+   */
+  static int closing(String constraint, int open) {
+    int depth = 0;
+    boolean quoted = false;
+    for (int i = open; i < constraint.length(); i++) {
+      final char c = constraint.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (!quoted && c == '(') {
+        depth++;
+      } else if (!quoted && c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static double number(String value, @Nullable String divisor) {
+    if (divisor == null) {
+      return Double.parseDouble(value);
+    }
+    return Double.parseDouble(value) / Double.parseDouble(divisor);
+  }
+
+  @Nullable
+  private static Object resolve(EObject eObject, String[] path) {
+    Object current = eObject;
+    for (String segment : path) {
+      if (current == null) {
+        return null;
+      }
+      if (!(current instanceof EObject)) {
+        throw new IllegalArgumentException(
+            String.format("Can not resolve %s on %s.", segment, current));
+      }
+      final EStructuralFeature feature = ((EObject) current).eClass()
+          .getEStructuralFeature(segment);
+      if (feature == null || feature.isMany()) {
+        throw new IllegalArgumentException(
+            String.format("Can not resolve %s on %s.", segment, current));
+      }
+      current = ((EObject) current).eGet(feature);
+    }
+    return current;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("evaluators", evaluators)
+        .add("fallback", fallback != null).toString();
+  }
+
+  private enum Operator {
+    EQUAL("="),
+    NOT_EQUAL("<>"),
+    LESS("<"),
+    LESS_OR_EQUAL("<="),
+    GREATER(">"),
+    GREATER_OR_EQUAL(">=");
+
+    private final String operator;
+
+    Operator(String operator) {
+      this.operator = operator;
+    }
+
+    static Operator of(String operator) {
+      for (Operator value : values()) {
+        if (value.operator.equals(operator)) {
+          return value;
+        }
+      }
+      throw new AssertionError("Unknown operator " + operator);
+    }
+
+    boolean test(double lhs, double rhs) {
+      switch (this) {
+        case EQUAL:
+          return lhs == rhs;
+        case NOT_EQUAL:
+          return lhs != rhs;
+        case LESS:
+          return lhs < rhs;
+        case LESS_OR_EQUAL:
+          return lhs <= rhs;
+        case GREATER:
+          return lhs > rhs;
+        case GREATER_OR_EQUAL:
+          return lhs >= rhs;
+        default:
+          throw new AssertionError("Unknown operator " + this);
+      }
+    }
+  }
+
+  private abstract static class AggregateEvaluator {
+
+    int slot;
+
+    /**
+     * Precomputes the contribution of the candidates.
+     *
+     * @return false if the constraint can not be evaluated incrementally
+     */
+    abstract boolean prepare(CandidateIndex candidateIndex);
+
+    abstract int slots();
+
+    /**
+     * Adds the contribution of the candidate to the state. The solution already contains the
+     * candidate.
+     */
+    abstract void add(long[] state, CompactSolution solution, int candidate);
+
+    abstract boolean violated(long[] state, int nodeSize);
+  }
+
+  private static class SizeEvaluator extends AggregateEvaluator {
+
+    private final Operator operator;
+    private final double value;
+
+    private SizeEvaluator(Operator operator, double value) {
+      this.operator = operator;
+      this.value = value;
+    }
+
+    @Override
+    boolean prepare(CandidateIndex candidateIndex) {
+      return true;
+    }
+
+    @Override
+    int slots() {
+      return 0;
+    }
+
+    @Override
+    void add(long[] state, CompactSolution solution, int candidate) {
+      //the size is the node size of the solution
+    }
+
+    @Override
+    boolean violated(long[] state, int nodeSize) {
+      return !operator.test(nodeSize, value);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("operator", operator).add("value", value)
+          .toString();
+    }
+  }
+
+  private static class SelectSizeEvaluator extends AggregateEvaluator {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte MATCHES = 1;
+    private static final byte NO_MATCH = 2;
+
+    private final String body;
+    private final Operator operator;
+    private final double value;
+    private CandidateIndex candidateIndex;
+    private ConstraintChecker predicate;
+    private byte[] matches;
+
+    private SelectSizeEvaluator(String body, Operator operator, double value) {
+      this.body = body;
+      this.operator = operator;
+      this.value = value;
+    }
+
+    @Override
+    boolean prepare(CandidateIndex candidateIndex) {
+      try {
+        //a node is selected if the body holds for a solution only consisting of this node
+        predicate = ConstraintChecker
+            .create(Collections.singleton(String.format("nodes->forAll(%s)", body)));
+      } catch (RuntimeException e) {
+        LOGGER.debug(String.format("Could not parse select body %s.", body), e);
+        return false;
+      }
+      this.candidateIndex = candidateIndex;
+      this.matches = new byte[candidateIndex.size()];
+      return true;
+    }
+
+    private boolean matches(int candidate) {
+      if (matches[candidate] == UNKNOWN) {
+        matches[candidate] =
+            predicate.consistent(candidateIndex.get(candidate)) ? MATCHES : NO_MATCH;
+      }
+      return matches[candidate] == MATCHES;
+    }
+
+    @Override
+    int slots() {
+      return 1;
+    }
+
+    @Override
+    void add(long[] state, CompactSolution solution, int candidate) {
+      if (matches(candidate)) {
+        state[slot]++;
+      }
+    }
+
+    @Override
+    boolean violated(long[] state, int nodeSize) {
+      return !operator.test(state[slot], value);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("body", body).add("operator", operator)
+          .add("value", value).toString();
+    }
+  }
+
+  private static class SumEvaluator extends AggregateEvaluator {
+
+    private final String[] path;
+    private final Operator operator;
+    private final double value;
+    private double[] contributions;
+
+    private SumEvaluator(String[] path, Operator operator, double value) {
+      this.path = path;
+      this.operator = operator;
+      this.value = value;
+    }
+
+    @Override
+    boolean prepare(CandidateIndex candidateIndex) {
+      contributions = new double[candidateIndex.size()];
+      for (int i = 0; i < candidateIndex.size(); i++) {
+        final Node node = candidateIndex.get(i).nodeView();
+        final Object resolved;
+        try {
+          resolved = resolve(node, path);
+        } catch (IllegalArgumentException e) {
+          LOGGER.debug(String.format("Could not resolve sum %s.", this), e);
+          return false;
+        }
+        if (!(resolved instanceof Number)) {
+          return false;
+        }
+        contributions[i] = ((Number) resolved).doubleValue();
+      }
+      return true;
+    }
+
+    @Override
+    int slots() {
+      return 1;
+    }
+
+    @Override
+    void add(long[] state, CompactSolution solution, int candidate) {
+      state[slot] = Double.doubleToRawLongBits(
+          Double.longBitsToDouble(state[slot]) + contributions[candidate]);
+    }
+
+    @Override
+    boolean violated(long[] state, int nodeSize) {
+      return !operator.test(Double.longBitsToDouble(state[slot]), value);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("path", String.join(".", path))
+          .add("operator", operator).add("value", value).toString();
+    }
+  }
+
+  private static class UniqueEvaluator extends AggregateEvaluator {
+
+    private final String[] path;
+    private int[] keys;
+
+    private UniqueEvaluator(String[] path) {
+      this.path = path;
+    }
+
+    @Override
+    boolean prepare(CandidateIndex candidateIndex) {
+      final Map<Object, Integer> keyIds = new HashMap<>();
+      keys = new int[candidateIndex.size()];
+      for (int i = 0; i < candidateIndex.size(); i++) {
+        final Object key;
+        try {
+          key = resolve(candidateIndex.get(i).nodeView(), path);
+        } catch (IllegalArgumentException e) {
+          LOGGER.debug(String.format("Could not resolve unique key %s.", this), e);
+          return false;
+        }
+        keys[i] = keyIds.computeIfAbsent(key, k -> keyIds.size());
+      }
+      return true;
+    }
+
+    /**
+     * First slot is a bit mask of the keys seen so far, second slot is set to one as soon as a
+     * duplicate was found. Only a hit in the mask requires a scan of the solution.
+     */
+    @Override
+    int slots() {
+      return 2;
+    }
+
+    @Override
+    void add(long[] state, CompactSolution solution, int candidate) {
+      if (state[slot + 1] != 0) {
+        return;
+      }
+      final int key = keys[candidate];
+      final long bit = 1L << (key & 63);
+      if ((state[slot] & bit) != 0) {
+        int occurrences = 0;
+        for (int i = 0; i < solution.nodeSize(); i++) {
+          if (keys[solution.candidate(i)] == key) {
+            occurrences++;
+          }
+        }
+        if (occurrences > 1) {
+          state[slot + 1] = 1;
+        }
+      }
+      state[slot] |= bit;
+    }
+
+    @Override
+    boolean violated(long[] state, int nodeSize) {
+      return state[slot + 1] != 0;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("path", String.join(".", path)).toString();
+    }
+  }
+
+}
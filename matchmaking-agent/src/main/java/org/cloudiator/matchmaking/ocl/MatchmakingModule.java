@@ -7,6 +7,9 @@ import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.metrics.MetricsServer;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,8 +67,36 @@ public class MatchmakingModule extends AbstractModule {
 
     bindConstant().annotatedWith(Names.named("solvingTime")).to(oclContext.solvingTime());
 
+    final SolvingDeadlines solvingDeadlines = oclContext.solvingDeadlines();
+    LOGGER.info(String.format("Using solving deadlines %s.", solvingDeadlines));
+    bind(SolvingDeadlines.class).toInstance(solvingDeadlines);
+
+    final SolverBudgets solverBudgets = oclContext.solverBudgets();
+    LOGGER.info(String.format("Using solver budgets %s.", solverBudgets));
+    bind(SolverBudgets.class).toInstance(solverBudgets);
+
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    bind(MetricsRegistry.class).toInstance(metricsRegistry);
+
+    final SolverPortfolio solverPortfolio = oclContext.solverPortfolio(metricsRegistry);
+    LOGGER.info(String.format("Using solver portfolio %s.", solverPortfolio));
+    bind(SolverPortfolio.class).toInstance(solverPortfolio);
+
+    bindConstant().annotatedWith(Names.named("discoveryConcurrency"))
+        .to(oclContext.discoveryConcurrency());
+
     bindConstant().annotatedWith(Names.named("considerQuota")).to(oclContext.considerQuotas());
 
+    bindConstant().annotatedWith(Names.named("pricingCacheTime"))
+        .to(oclContext.pricingCacheTime());
+
+    bindConstant().annotatedWith(Names.named("pricingCacheSize"))
+        .to(oclContext.pricingCacheSize());
+
+    bindConstant().annotatedWith(Names.named("snapshotDirectory"))
+        .to(oclContext.snapshotDirectory());
+    bind(CredentialSource.class).to(CloudServiceCredentialSource.class);
+
     if (oclContext.modelGenerator().cacheClass().isPresent()) {
       LOGGER.info(String.format("Using cache %s for model generator.",
           oclContext.modelGenerator().cacheClass().get().getName()));
@@ -80,5 +111,15 @@ public class MatchmakingModule extends AbstractModule {
     }
 
     bind(ByonGenerator.class).asEagerSingleton();
+
+    bindConstant().annotatedWith(Names.named("metricsPort")).to(oclContext.metricsPort());
+    bindConstant().annotatedWith(Names.named("metricsBindAddress"))
+        .to(oclContext.metricsBindAddress());
+    bind(MetricsServer.class).asEagerSingleton();
+
+    LOGGER.info(String.format("Exporting traces using %s.", oclContext.traceExporter()));
+    final Tracer tracer = new Tracer();
+    tracer.exportTo(oclContext.traceExporter().create(oclContext.traceTarget()));
+    bind(Tracer.class).toInstance(tracer);
   }
 }
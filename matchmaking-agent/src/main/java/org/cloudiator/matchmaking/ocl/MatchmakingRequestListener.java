@@ -13,6 +13,7 @@ import javax.inject.Named;
 import org.cloudiator.matchmaking.converters.RequirementConverter;
 import org.cloudiator.matchmaking.converters.SolutionConverter;
 import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolverBudget;
 import org.cloudiator.messages.Cloud.QuotaQueryRequest;
 import org.cloudiator.messages.Cloud.QuotaQueryResponse;
 import org.cloudiator.messages.General.Error;
@@ -22,6 +23,8 @@ import org.cloudiator.messages.entities.Matchmaking.MatchmakingResponse.Builder;
 import org.cloudiator.messaging.MessageInterface;
 import org.cloudiator.messaging.Subscription;
 import org.cloudiator.messaging.services.CloudService;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,17 +41,22 @@ public class MatchmakingRequestListener implements Runnable {
   private final CloudService cloudService;
   private final ByonCache byonCache;
   private final boolean considerQuota;
+  private final SolvingDeadlines solvingDeadlines;
+  private final Tracer tracer;
 
   @Inject
   public MatchmakingRequestListener(MessageInterface messageInterface, SolverHandler solverHandler,
       SolutionCache solutionCache, CloudService cloudService,
-      @Named("considerQuota") boolean considerQuota, ByonCache byonCache) {
+      @Named("considerQuota") boolean considerQuota, ByonCache byonCache,
+      SolvingDeadlines solvingDeadlines, Tracer tracer) {
     this.messageInterface = messageInterface;
     this.solverHandler = solverHandler;
     this.solutionCache = solutionCache;
     this.cloudService = cloudService;
     this.byonCache = byonCache;
     this.considerQuota = considerQuota;
+    this.solvingDeadlines = solvingDeadlines;
+    this.tracer = tracer;
   }
 
   @Override
@@ -65,101 +73,132 @@ public class MatchmakingRequestListener implements Runnable {
               LOGGER.info(String
                   .format("%s received new matchmaking request %s.", this, matchmakingRequest));
 
-              String userId = matchmakingRequest.getUserId();
-              Integer targetNodeSize;
-              if (matchmakingRequest.getMinimumNodeSize() == 0) {
-                targetNodeSize = null;
-              } else {
-                targetNodeSize = matchmakingRequest.getMinimumNodeSize();
-              }
-
-              List<Node> existingNodes = matchmakingRequest.getExistingNodesList().stream()
-                  .map(NODE_CONVERTER::applyBack).collect(Collectors.toList());
-
-              try {
-
-                QuotaSet quotaSet;
-
-                if (considerQuota) {
-                  final QuotaQueryResponse quotaQueryResponse = cloudService.queryQuota(
-                      QuotaQueryRequest.newBuilder().setUserId(matchmakingRequest.getUserId())
-                          .build());
-
-                quotaSet = new QuotaSet(
-                    quotaQueryResponse.getQuotasList().stream().map(QUOTA_CONVERTER)
-                        .collect(Collectors.toSet()));
-                quotaSet.addAll(byonCache.readAllCorrespondingQuotas());
-                } else {
-                  quotaSet = QuotaSet.EMPTY;
-                }
+              //the deadline includes the time spent before solving
+              final SolverBudget deadline = solvingDeadlines.start();
 
-                OclCsp oclCsp = OclCsp
-                    .ofRequirements(
-                        matchmakingRequest.getNodeRequirements().getRequirementsList().stream()
-                            .map(REQUIREMENT_CONVERTER).collect(Collectors.toList()), existingNodes,
-                        quotaSet,
-                        targetNodeSize);
-
-                LOGGER.info(
-                    String
-                        .format("%s has generated the constraint problem %s.", this,
-                            oclCsp));
-
-                final Optional<Solution> cachedSolution = solutionCache.retrieve(userId, oclCsp);
-
-                if (cachedSolution.isPresent() && cachedSolution.get().isValid()) {
-
-                  LOGGER.info(
-                      String
-                          .format("%s found existing solution %s for the constraint problem %s.",
-                              this, cachedSolution.get(),
-                              oclCsp));
-
-                  replyWithSolution(id, cachedSolution.get());
-
-                  return;
-                }
-
-                Solution solution = solverHandler
-                    .solve(oclCsp, userId);
-
-                if (solution == null || solution.noSolution()) {
-                  LOGGER
-                      .warn(
-                          String.format("%s could not find a solution for csp %s.", this, oclCsp));
-                  messageInterface.reply(MatchmakingResponse.class, id,
-                      Error.newBuilder().setCode(400)
-                          .setMessage(
-                              String
-                                  .format("Could not find a solution for the problem %s.", oclCsp))
-                          .build());
-                  return;
-                }
-
-                solutionCache.storeSolution(userId, oclCsp, solution);
-
-                LOGGER.info(String
-                    .format("%s found a solution %s for the csp %s.", this, solution,
-                        oclCsp));
-
-                replyWithSolution(id, solution);
-
-
-              } catch (Exception e) {
-                LOGGER.error(String.format("Error while solving the problem: %s.", e.getMessage()),
-                    e);
-                messageInterface.reply(MatchmakingResponse.class, id,
-                    Error.newBuilder().setCode(500)
-                        .setMessage(
-                            String
-                                .format("An error occurred while solving the problem: %s",
-                                    e.getMessage()))
-                        .build());
+              try (Span span = tracer.start("matchmaking.request")) {
+                span.attribute("request.id", id)
+                    .attribute("user.id", matchmakingRequest.getUserId())
+                    .attribute("deadlineMillis", deadline.timeMillis());
+                handle(id, matchmakingRequest, span, deadline);
               }
-
             });
   }
 
+  private void handle(String id, MatchmakingRequest matchmakingRequest, Span span,
+      SolverBudget deadline) {
+
+    String userId = matchmakingRequest.getUserId();
+    Integer targetNodeSize;
+    if (matchmakingRequest.getMinimumNodeSize() == 0) {
+      targetNodeSize = null;
+    } else {
+      targetNodeSize = matchmakingRequest.getMinimumNodeSize();
+    }
+
+    List<Node> existingNodes = matchmakingRequest.getExistingNodesList().stream()
+        .map(NODE_CONVERTER::applyBack).collect(Collectors.toList());
+
+    try {
+
+      QuotaSet quotaSet;
+
+      if (considerQuota) {
+        try (Span quotaSpan = tracer.startChild("quota.query")) {
+          final QuotaQueryResponse quotaQueryResponse = cloudService.queryQuota(
+              QuotaQueryRequest.newBuilder().setUserId(matchmakingRequest.getUserId())
+                  .build());
+
+          quotaSet = new QuotaSet(
+              quotaQueryResponse.getQuotasList().stream().map(QUOTA_CONVERTER)
+                  .collect(Collectors.toSet()));
+          quotaSet.addAll(byonCache.readAllCorrespondingQuotas());
+          quotaSpan.attribute("quotas", quotaSet.quotaSet().size());
+        }
+      } else {
+        quotaSet = QuotaSet.EMPTY;
+      }
+
+      final OclCsp oclCsp;
+      try (Span parseSpan = tracer.startChild("ocl.parse")) {
+        oclCsp = OclCsp
+            .ofRequirements(
+                matchmakingRequest.getNodeRequirements().getRequirementsList().stream()
+                    .map(REQUIREMENT_CONVERTER).collect(Collectors.toList()),
+                existingNodes,
+                quotaSet,
+                targetNodeSize);
+        parseSpan.attribute("requirements",
+            matchmakingRequest.getNodeRequirements().getRequirementsCount());
+      }
+
+      LOGGER.info(
+          String
+              .format("%s has generated the constraint problem %s.", this,
+                  oclCsp));
+
+      final Optional<Solution> cachedSolution;
+      try (Span cacheSpan = tracer.startChild("solution.cache")) {
+        cachedSolution = solutionCache.retrieve(userId, oclCsp);
+        cacheSpan.attribute("hit",
+            cachedSolution.isPresent() && cachedSolution.get().isValid());
+      }
+
+      if (cachedSolution.isPresent() && cachedSolution.get().isValid()) {
+
+        LOGGER.info(
+            String
+                .format("%s found existing solution %s for the constraint problem %s.",
+                    this, cachedSolution.get(),
+                    oclCsp));
+
+        replyWithSolution(id, cachedSolution.get());
+        span.attribute("result", "cached").ok();
+
+        return;
+      }
+
+      Solution solution = solverHandler
+          .solve(oclCsp, userId, deadline);
+
+      if (solution == null || solution.noSolution()) {
+        LOGGER
+            .warn(
+                String.format("%s could not find a solution for csp %s.", this, oclCsp));
+        span.attribute("result", "none").ok();
+        messageInterface.reply(MatchmakingResponse.class, id,
+            Error.newBuilder().setCode(400)
+                .setMessage(
+                    String
+                        .format("Could not find a solution for the problem %s.", oclCsp))
+                .build());
+        return;
+      }
+
+      solutionCache.storeSolution(userId, oclCsp, solution);
+
+      LOGGER.info(String
+          .format("%s found a solution %s for the csp %s.", this, solution,
+              oclCsp));
+
+      replyWithSolution(id, solution);
+      span.attribute("result", "solved").attribute("costs", solution.getCosts()).ok();
+
+
+    } catch (Exception e) {
+      span.error(e);
+      LOGGER.error(String.format("Error while solving the problem: %s.", e.getMessage()),
+          e);
+      messageInterface.reply(MatchmakingResponse.class, id,
+          Error.newBuilder().setCode(500)
+              .setMessage(
+                  String
+                      .format("An error occurred while solving the problem: %s",
+                          e.getMessage()))
+              .build());
+    }
+  }
+
   private void replyWithSolution(String requestId, Solution solution) {
     Builder matchmakingResponseBuilder = MatchmakingResponse.newBuilder();
     matchmakingResponseBuilder.setSolution(SOLUTION_CONVERTER.apply(solution));
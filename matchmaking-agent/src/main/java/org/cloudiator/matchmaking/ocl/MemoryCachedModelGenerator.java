@@ -10,6 +10,7 @@ import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 
 @Singleton
 public class MemoryCachedModelGenerator implements ModelGenerator, Expirable {
@@ -20,7 +21,7 @@ public class MemoryCachedModelGenerator implements ModelGenerator, Expirable {
 
   @Inject
   public MemoryCachedModelGenerator(@Named("Base") ModelGenerator delegate,
-      @Named("cacheTime") int cacheTime) {
+      @Named("cacheTime") int cacheTime, MetricsRegistry metricsRegistry) {
 
     checkArgument(cacheTime >= 0 || cacheTime == CACHE_INFINITE,
         "cacheTime needs to be larger than zero or CACHE_INFINITE");
@@ -31,7 +32,8 @@ public class MemoryCachedModelGenerator implements ModelGenerator, Expirable {
       cacheBuilder.expireAfterWrite(cacheTime, TimeUnit.SECONDS);
     }
 
-    this.modelCache = cacheBuilder.build();
+    this.modelCache = cacheBuilder.recordStats().build();
+    metricsRegistry.cache("model_memory", modelCache);
     this.delegate = delegate;
   }
 
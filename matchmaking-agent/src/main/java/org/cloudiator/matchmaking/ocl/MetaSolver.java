@@ -7,104 +7,108 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
-import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.domain.Solution;
 import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.SolverPortfolio.Plan;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class MetaSolver implements Solver {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MetaSolver.class);
+  private static final double[] COST_BUCKETS = new double[]{0.01, 0.1, 0.5, 1, 5, 10, 50, 100,
+      500, 1000, 10000};
   private final Set<Solver> solvers;
   private final ListeningExecutorService executorService;
   private final int solvingTime;
-
-  public MetaSolver(Set<Solver> solvers, int solvingTime) {
+  private final SolverBudgets solverBudgets;
+  private final SolverPortfolio solverPortfolio;
+  private final MetricsRegistry metricsRegistry;
+  private final Tracer tracer;
+
+  public MetaSolver(Set<Solver> solvers, int solvingTime, SolverBudgets solverBudgets,
+      SolverPortfolio solverPortfolio, MetricsRegistry metricsRegistry, Tracer tracer) {
+    checkNotNull(solverBudgets, "solverBudgets is null");
+    checkNotNull(solverPortfolio, "solverPortfolio is null");
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    checkNotNull(tracer, "tracer is null");
     this.solvers = solvers;
     this.solvingTime = solvingTime;
+    this.solverBudgets = solverBudgets;
+    this.solverPortfolio = solverPortfolio;
+    this.metricsRegistry = metricsRegistry;
+    this.tracer = tracer;
     executorService = MoreExecutors
         .listeningDecorator(Executors.newCachedThreadPool());
     MoreExecutors.addDelayedShutdownHook(executorService, 1, TimeUnit.MINUTES);
   }
 
-  private class SolutionCollector implements Consumer<Solution> {
-
-    private final CountDownLatch countDownLatch;
-    private List<Solution> collectedSolutions = new LinkedList<>();
-
-    private SolutionCollector(int numberOfSolvers) {
-      countDownLatch = new CountDownLatch(numberOfSolvers);
-    }
-
-    @Override
-    public void accept(Solution solution) {
-      LOGGER.debug(
-          String.format("MetaSolver received new solution by solver %s", solution.getSolver()));
-      LOGGER.debug(String.format("Missing %s solvers", countDownLatch.getCount() - 1));
-      if (solution.isOptimal()) {
-        LOGGER.debug(String.format("Received solution by solver %s is optimal. Exiting early",
-            solution.getSolver()));
-        collectedSolutions.add(solution);
-        //directly count down
-        while (countDownLatch.getCount() > 0) {
-          countDownLatch.countDown();
-        }
-      } else if (solution.isEmpty()) {
-        fail();
-      } else {
-        collectedSolutions.add(solution);
-        countDownLatch.countDown();
-      }
-    }
-
-    public List<Solution> waitFor(long l, TimeUnit timeUnit) throws InterruptedException {
-      countDownLatch.await(l, timeUnit);
-      return collectedSolutions;
-    }
-
-
-    public void fail() {
-      countDownLatch.countDown();
-    }
-  }
-
   private class SolutionCallback implements FutureCallback<Solution> {
 
     private final Solver solver;
     private final long startTime;
-    private final SolutionCollector solutionCollector;
+    private final RaceCoordinator raceCoordinator;
 
-    private SolutionCallback(Solver solver, long startTime,
-        SolutionCollector solutionCollector) {
+    private SolutionCallback(Solver solver, long startTime, RaceCoordinator raceCoordinator) {
       this.solver = solver;
       this.startTime = startTime;
-      this.solutionCollector = solutionCollector;
+      this.raceCoordinator = raceCoordinator;
+    }
+
+    private String solverName() {
+      return solver.getClass().getSimpleName();
+    }
+
+    private void record(String result) {
+      metricsRegistry.timer("matchmaking_solver_seconds", "Time until a solver returned.",
+          "solver", solverName()).observeNanos(
+          TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - startTime));
+      metricsRegistry.counter("matchmaking_solver_results_total", "Results of the solvers.",
+          "solver", solverName(), "result", result).inc();
     }
 
     @Override
     public void onSuccess(@Nullable Solution solution) {
       checkNotNull(solution, "solution is null");
       long solvingTime = System.currentTimeMillis() - startTime;
-      solution.setTime(solvingTime);
-      solutionCollector.accept(solution);
+      LOGGER.debug(String.format("MetaSolver received new solution by solver %s", solver));
+      if (solution.isEmpty()) {
+        //nothing cheaper than the bound is not a failure of the solver
+        record(raceCoordinator.isBounded() ? "bounded" : "empty");
+      } else {
+        solution.setTime(solvingTime);
+        record(solution.isOptimal() ? "optimal" : "feasible");
+        metricsRegistry
+            .histogram("matchmaking_solution_costs", "Costs of the solutions found by the solvers.",
+                COST_BUCKETS, "solver", solverName()).observe(solution.getCosts());
+      }
+      raceCoordinator.returned(solver, solution);
     }
 
     @Override
     public void onFailure(Throwable throwable) {
+      if (!raceCoordinator.hasStarted(solver)) {
+        LOGGER.debug(String.format("Staggered solver %s was not started.", solver));
+        raceCoordinator.failed(solver);
+        return;
+      }
       LOGGER.warn(String.format("Solver %s failed to find a solution due to an error.", solver),
           throwable);
-      solutionCollector.fail();
+      record("failed");
+      raceCoordinator.failed(solver);
     }
   }
 
@@ -113,42 +117,111 @@ public class MetaSolver implements Solver {
   public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
       @Nullable Solution existingSolution, @Nullable Integer targetNodeSize)
       throws InterruptedException {
+    return solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize,
+        SolverBudget.deadline(TimeUnit.MINUTES.toMillis(solvingTime)));
+  }
 
-    LOGGER.debug(String.format("MetaSolver is using %s solvers: %s", solvers.size(), solvers));
+  /**
+   * Solves until the deadline of the given budget, which is passed on to every solver.
+   */
+  @Override
+  public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+      @Nullable Solution existingSolution, @Nullable Integer targetNodeSize, SolverBudget budget)
+      throws InterruptedException {
 
-    long startSolving = System.currentTimeMillis();
+    final CspFeatures features = CspFeatures.of(oclCsp, nodeCandidates, targetNodeSize);
+    final Plan plan = solverPortfolio.plan(features, solvers);
 
-    SolutionCollector solutionCollector = new SolutionCollector(solvers.size());
+    LOGGER.debug(String.format("MetaSolver is using %s solvers for %s: %s", solvers.size(),
+        features, plan));
 
-    for (Solver solver : solvers) {
-      final ListenableFuture<Solution> solutionFuture = executorService
-          .submit(wrapSolverCall(solver, oclCsp, nodeCandidates, existingSolution, targetNodeSize));
-      Futures.addCallback(solutionFuture,
-          new SolutionCallback(solver, startSolving, solutionCollector));
-    }
+    long startSolving = System.currentTimeMillis();
 
-    try {
-      final List<Solution> solutions = solutionCollector.waitFor(solvingTime, TimeUnit.MINUTES);
-      //find best solution
-      final Optional<Solution> minOptional = solutions.stream().min(Comparator.naturalOrder());
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(plan.launches().size(),
+        plan.launches().entrySet().stream().filter(launch -> launch.getValue() > 0)
+            .map(Entry::getKey).collect(Collectors.toSet()));
+
+    try (Span span = tracer.startChild("metasolver")) {
+      span.attribute("solvers", solvers.size()).attribute("candidates", nodeCandidates.size())
+          .attribute("remainingMillis", budget.hasDeadline() ? budget.remainingMillis() : null)
+          .attribute("features", features.key()).attribute("skipped", plan.skipped().size());
+
+      for (Entry<Solver, Long> launch : plan.launches().entrySet()) {
+        final Solver solver = launch.getKey();
+        final ListenableFuture<Solution> solutionFuture = executorService
+            .submit(wrapSolverCall(solver, oclCsp, nodeCandidates, existingSolution,
+                targetNodeSize, span, budget, launch.getValue(), raceCoordinator));
+        Futures.addCallback(solutionFuture,
+            new SolutionCallback(solver, startSolving, raceCoordinator));
+      }
 
-      return minOptional.orElse(Solution.EMPTY_SOLUTION);
+      try {
+        //the best solution, possibly offered by a solver that is still searching
+        final Optional<Solution> best = budget.hasDeadline()
+            ? raceCoordinator.await(budget.remainingMillis(), TimeUnit.MILLISECONDS)
+            : raceCoordinator.await(solvingTime, TimeUnit.MINUTES);
+        recordRace(features, plan, raceCoordinator, startSolving);
+
+        span.attribute("solutions", raceCoordinator.solutions());
+        best.ifPresent(solution -> span.attribute("costs", solution.getCosts())
+            .attribute("optimal", solution.isOptimal()));
+        span.ok();
+        return best.orElse(Solution.EMPTY_SOLUTION);
+
+      } catch (InterruptedException e) {
+        LOGGER.warn("MetaSolver got interrupted while searching for solution");
+        span.error(e);
+        throw e;
+      } finally {
+        executorService.shutdownNow();
+      }
+    }
+  }
 
-    } catch (InterruptedException e) {
-      LOGGER.warn("MetaSolver got interrupted while searching for solution");
-      throw e;
-    } finally {
-      executorService.shutdownNow();
+  private void recordRace(CspFeatures features, Plan plan, RaceCoordinator raceCoordinator,
+      long startSolving) {
+    for (Solver solver : plan.launches().keySet()) {
+      if (!raceCoordinator.hasStarted(solver)) {
+        continue;
+      }
+      final long millis = raceCoordinator.result(solver).flatMap(Solution::getTime)
+          .map(Float::longValue).orElse(System.currentTimeMillis() - startSolving);
+      solverPortfolio.record(features, solver, raceCoordinator.outcome(solver), millis);
     }
+    solverPortfolio.save();
   }
 
   private Callable<Solution> wrapSolverCall(Solver solver, OclCsp oclCsp,
       NodeCandidates nodeCandidates, @Nullable Solution existingSolution,
-      @Nullable Integer targetNodeSize) {
+      @Nullable Integer targetNodeSize, Span parent, SolverBudget requestBudget, long delayMillis,
+      RaceCoordinator raceCoordinator) {
     return new Callable<Solution>() {
       @Override
       public Solution call() throws Exception {
-        return solver.solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize);
+        if (!raceCoordinator.launch(solver, delayMillis)) {
+          throw new CancellationException(
+              String.format("Staggered solver %s is not needed anymore.", solver));
+        }
+        try (Span span = tracer.start("solver", parent)) {
+          final SolverBudget budget = solverBudgets.budget(solver).start().within(requestBudget)
+              .withBound(raceCoordinator);
+          span.attribute("solver", solver.getClass().getSimpleName())
+              .attribute("budget", budget).attribute("delayMillis", delayMillis);
+          try {
+            final Solution solution = solver
+                .solve(oclCsp, nodeCandidates, existingSolution, targetNodeSize, budget);
+            span.attribute("empty", solution.isEmpty()).attribute("optimal", solution.isOptimal());
+            if (!solution.isEmpty()) {
+              span.attribute("costs", solution.getCosts())
+                  .attribute("nodes", solution.nodeSize());
+            }
+            span.ok();
+            return solution;
+          } catch (Exception e) {
+            span.error(e);
+            throw e;
+          }
+        }
       }
     };
   }
@@ -0,0 +1,153 @@
+package org.cloudiator.matchmaking.ocl;
+
+import cloudiator.CloudiatorModel;
+import cloudiator.CloudiatorPackage;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+
+/**
+ * Serialization formats for a {@link CloudiatorModel}.
+ * <p>
+ * {@link #BINARY} writes the model as EMF binary resource, which references features and objects
+ * by index instead of by name and path, and compresses it. It is considerably smaller and faster
+ * to load than {@link #XMI}, which is kept for models that need to be read by humans or other
+ * EMF tools.
+ */
+public enum ModelCodec {
+
+  XMI("cloudiator") {
+    @Override
+    protected Resource createResource(URI uri) {
+      return new XMIResourceImpl(uri);
+    }
+
+    @Override
+    protected void save(Resource resource, OutputStream out) throws IOException {
+      resource.save(out, Collections.emptyMap());
+    }
+
+    @Override
+    protected void load(Resource resource, InputStream in) throws IOException {
+      resource.load(in, Collections.emptyMap());
+    }
+  },
+  BINARY("cloudiatorbin") {
+    @Override
+    protected Resource createResource(URI uri) {
+      return new BinaryResourceImpl(uri);
+    }
+
+    @Override
+    protected void save(Resource resource, OutputStream out) throws IOException {
+      //closing the gzip stream releases its native deflater, the caller closes the stream
+      try (GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(out),
+          BUFFER_SIZE)) {
+        resource.save(gzip, Collections.emptyMap());
+      }
+    }
+
+    @Override
+    protected void load(Resource resource, InputStream in) throws IOException {
+      //closing the gzip stream releases its native inflater, the caller closes the stream
+      try (GZIPInputStream gzip = new GZIPInputStream(new NonClosingInputStream(in),
+          BUFFER_SIZE)) {
+        resource.load(gzip, Collections.emptyMap());
+      }
+    }
+  };
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final String fileEnding;
+
+  ModelCodec(String fileEnding) {
+    this.fileEnding = fileEnding;
+  }
+
+  public String fileEnding() {
+    return fileEnding;
+  }
+
+  protected abstract Resource createResource(URI uri);
+
+  protected abstract void save(Resource resource, OutputStream out) throws IOException;
+
+  protected abstract void load(Resource resource, InputStream in) throws IOException;
+
+  private URI uri() {
+    return URI.createURI("model." + fileEnding);
+  }
+
+  /**
+   * Writes the model to the stream. The model is copied before, as adding it to a resource would
+   * modify the shared model. Does not close the stream.
+   */
+  public void encode(CloudiatorModel cloudiatorModel, OutputStream out) throws IOException {
+    Resource resource = createResource(uri());
+    resource.getContents().add(EcoreUtil.copy(cloudiatorModel));
+    save(resource, out);
+    out.flush();
+  }
+
+  /**
+   * Reads a model from the stream. Does not close the stream.
+   */
+  public CloudiatorModel decode(InputStream in) throws IOException {
+    ResourceSet resourceSet = new ResourceSetImpl();
+    resourceSet.getPackageRegistry().put(CloudiatorPackage.eNS_URI, CloudiatorPackage.eINSTANCE);
+    Resource resource = createResource(uri());
+    resourceSet.getResources().add(resource);
+    load(resource, in);
+    if (resource.getContents().isEmpty()) {
+      throw new IOException("Resource does not contain a model.");
+    }
+    return (CloudiatorModel) resource.getContents().get(0);
+  }
+
+  /**
+   * Keeps the stream of the caller open when the wrapping stream is closed.
+   */
+  private static class NonClosingOutputStream extends FilterOutputStream {
+
+    private NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+
+  /**
+   * Keeps the stream of the caller open when the wrapping stream is closed.
+   */
+  private static class NonClosingInputStream extends FilterInputStream {
+
+    private NonClosingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -12,7 +12,7 @@ public enum ModelGenerators {
   CLOUDHARMONY(CloudHarmony.class, FileCachedModelGenerator.class),
   SMALL(SmallExperimentModelGenerator.class, MemoryCachedModelGenerator.class),
   LARGE(LargeModelGenerator.class, MemoryCachedModelGenerator.class),
-  DISCOVERY(DiscoveryBasedModelGenerator.class, MemoryCachedModelGenerator.class);
+  DISCOVERY(DiscoveryBasedModelGenerator.class, RefreshingModelGenerator.class);
 
   private final Class<? extends ModelGenerator> modelGeneratorClass;
   @Nullable
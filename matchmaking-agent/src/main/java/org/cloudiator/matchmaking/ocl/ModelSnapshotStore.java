@@ -0,0 +1,220 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import cloudiator.Cloud;
+import cloudiator.CloudCredential;
+import cloudiator.CloudiatorModel;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the last generated model of every user on disk, so a restarted agent can serve requests
+ * before the models are rediscovered.
+ * <p>
+ * One file per user, named by the hash of the user id. A snapshot consists of a header (magic,
+ * format version, creation time, payload length, CRC32 of the payload) and the model encoded
+ * by {@link ModelCodec#BINARY}. Snapshots with an unknown version or a wrong checksum are
+ * deleted and treated as missing. An empty directory disables the store.
+ * <p>
+ * The credentials of the clouds are not written to disk. On load, they are re-attached from the
+ * {@link CredentialSource}. A snapshot whose clouds no longer match the clouds of the user is
+ * outdated and discarded.
+ */
+@Singleton
+public class ModelSnapshotStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ModelSnapshotStore.class);
+  private static final int MAGIC = 0x434D534E;
+  //2: payload written by ModelCodec.BINARY (compressed)
+  //3: payload without cloud credentials
+  static final int FORMAT_VERSION = 3;
+  private static final String FILE_ENDING = ".snapshot";
+  private static final ModelCodec MODEL_CODEC = ModelCodec.BINARY;
+
+  @Nullable
+  private final Path directory;
+  private final CredentialSource credentialSource;
+
+  @Inject
+  public ModelSnapshotStore(@Named("snapshotDirectory") String snapshotDirectory,
+      CredentialSource credentialSource) {
+    checkNotNull(snapshotDirectory, "snapshotDirectory is null");
+    checkNotNull(credentialSource, "credentialSource is null");
+    this.credentialSource = credentialSource;
+    if (Strings.isNullOrEmpty(snapshotDirectory)) {
+      this.directory = null;
+    } else {
+      this.directory = Paths.get(snapshotDirectory);
+    }
+  }
+
+  public static ModelSnapshotStore disabled() {
+    return new ModelSnapshotStore("", userId -> {
+      throw new IllegalStateException("Store is disabled.");
+    });
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  private Path file(String userId) {
+    return directory.resolve(
+        Hashing.sha256().hashString(userId, StandardCharsets.UTF_8).toString() + FILE_ENDING);
+  }
+
+  public Optional<Snapshot> load(String userId) {
+    if (!isEnabled()) {
+      return Optional.empty();
+    }
+    final Path file = file(userId);
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a model snapshot.");
+      }
+      final int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException(String.format("Unsupported snapshot version %s.", version));
+      }
+      final long createdAt = in.readLong();
+      final int length = in.readInt();
+      if (length < 0 || length > Files.size(file)) {
+        throw new IOException(String.format("Invalid payload length %s.", length));
+      }
+      final byte[] payload = new byte[length];
+      final long checksum = in.readLong();
+      in.readFully(payload);
+      if (checksum(payload) != checksum) {
+        throw new IOException("Checksum mismatch.");
+      }
+      final CloudiatorModel cloudiatorModel = MODEL_CODEC
+          .decode(new ByteArrayInputStream(payload));
+      attachCredentials(userId, cloudiatorModel);
+      LOGGER.debug(String.format("Loaded model snapshot of user %s created at %s.", userId,
+          createdAt));
+      return Optional.of(new Snapshot(cloudiatorModel, createdAt));
+    } catch (ModelGenerationException e) {
+      //the snapshot may still be valid, try again on the next load
+      LOGGER.warn(String
+          .format("Not serving model snapshot of user %s: %s", userId, e.getMessage()));
+      return Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(String
+          .format("Discarding unreadable model snapshot %s of user %s: %s", file, userId,
+              e.getMessage()));
+      delete(userId);
+      return Optional.empty();
+    }
+  }
+
+  public void save(String userId, CloudiatorModel cloudiatorModel, long createdAt) {
+    if (!isEnabled()) {
+      return;
+    }
+    final Path file = file(userId);
+    try {
+      Files.createDirectories(directory);
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      MODEL_CODEC.encode(withoutCredentials(cloudiatorModel), payload);
+      final byte[] bytes = payload.toByteArray();
+
+      //write to a temporary file first, readers never see a partial snapshot
+      final Path tmp = Files.createTempFile(directory, "snapshot", ".tmp");
+      try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(createdAt);
+        out.writeInt(bytes.length);
+        out.writeLong(checksum(bytes));
+        out.write(bytes);
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(String.format("Could not write model snapshot of user %s.", userId), e);
+    }
+  }
+
+  private static CloudiatorModel withoutCredentials(CloudiatorModel cloudiatorModel) {
+    //the served model stays untouched
+    final CloudiatorModel copy = EcoreUtil.copy(cloudiatorModel);
+    for (Cloud cloud : copy.getClouds()) {
+      cloud.setCloudcredential(null);
+    }
+    return copy;
+  }
+
+  private void attachCredentials(String userId, CloudiatorModel cloudiatorModel)
+      throws ModelGenerationException, IOException {
+    final Map<String, CloudCredential> credentials = credentialSource.credentials(userId);
+    final Set<String> cloudIds = cloudiatorModel.getClouds().stream().map(Cloud::getId)
+        .collect(Collectors.toSet());
+    if (!cloudIds.equals(credentials.keySet())) {
+      throw new IOException("Snapshot does not contain the current clouds of the user.");
+    }
+    for (Cloud cloud : cloudiatorModel.getClouds()) {
+      cloud.setCloudcredential(EcoreUtil.copy(credentials.get(cloud.getId())));
+    }
+  }
+
+  public void delete(String userId) {
+    if (!isEnabled()) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file(userId));
+    } catch (IOException e) {
+      LOGGER.warn(String.format("Could not delete model snapshot of user %s.", userId), e);
+    }
+  }
+
+  private static long checksum(byte[] bytes) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(bytes);
+    return crc32.getValue();
+  }
+
+  public static class Snapshot {
+
+    private final CloudiatorModel cloudiatorModel;
+    private final long createdAt;
+
+    private Snapshot(CloudiatorModel cloudiatorModel, long createdAt) {
+      this.cloudiatorModel = cloudiatorModel;
+      this.createdAt = createdAt;
+    }
+
+    public CloudiatorModel cloudiatorModel() {
+      return cloudiatorModel;
+    }
+
+    public long createdAt() {
+      return createdAt;
+    }
+  }
+}
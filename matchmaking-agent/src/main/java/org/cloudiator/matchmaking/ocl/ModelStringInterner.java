@@ -0,0 +1,84 @@
+package org.cloudiator.matchmaking.ocl;
+
+import cloudiator.Cloud;
+import cloudiator.CloudiatorModel;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Interns the string values of the clouds across the models of all users.
+ * <p>
+ * All string attributes of a cloud and its contents are replaced by an equal instance already
+ * held by another model, so the models of users on the same provider hold one copy of every
+ * name, id and description. The objects themselves are not shared, EMF containment does not
+ * allow it, so every model still holds its own hardware, images, locations and prices.
+ * <p>
+ * Values are interned weakly, they are dropped once no model uses them anymore. Every interning
+ * walks all contents of the model, its time is exported as metric.
+ */
+@Singleton
+public class ModelStringInterner {
+
+  private final Interner<String> interner = Interners.newWeakInterner();
+  private final Histogram internTime;
+  private final LongAdder replaced = new LongAdder();
+
+  @Inject
+  public ModelStringInterner(MetricsRegistry metricsRegistry) {
+    this.internTime = metricsRegistry.timer("matchmaking_model_interning_seconds",
+        "Time to intern the strings of a model.");
+    metricsRegistry.counter("matchmaking_model_interned_strings_total",
+        "String values replaced by an equal interned instance.", replaced::sum);
+  }
+
+  /**
+   * Replaces the string values of the clouds of the model by the interned ones. Returns the
+   * model itself.
+   */
+  public CloudiatorModel intern(CloudiatorModel cloudiatorModel) {
+    final long start = System.nanoTime();
+    for (Cloud cloud : cloudiatorModel.getClouds()) {
+      intern(cloud);
+    }
+    internTime.observeNanos(System.nanoTime() - start);
+    return cloudiatorModel;
+  }
+
+  private void intern(Cloud cloud) {
+    internAttributes(cloud);
+    for (TreeIterator<EObject> i = cloud.eAllContents(); i.hasNext(); ) {
+      internAttributes(i.next());
+    }
+  }
+
+  private void internAttributes(EObject eObject) {
+    for (EAttribute eAttribute : eObject.eClass().getEAllAttributes()) {
+      if (eAttribute.isMany() || !eAttribute.isChangeable() || eAttribute.isDerived()
+          || eAttribute.getEAttributeType().getInstanceClass() != String.class) {
+        continue;
+      }
+      final Object value = eObject.eGet(eAttribute);
+      if (value != null) {
+        final String interned = interner.intern((String) value);
+        if (interned != value) {
+          eObject.eSet(eAttribute, interned);
+          replaced.increment();
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("replaced", replaced.sum()).toString();
+  }
+}
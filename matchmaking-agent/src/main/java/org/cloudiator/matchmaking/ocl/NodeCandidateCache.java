@@ -1,34 +1,45 @@
 package org.cloudiator.matchmaking.ocl;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.metrics.Counter;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 
 @Singleton
 public class NodeCandidateCache implements Expirable {
 
-  private static final Map<String, CachedNodeGenerator> CACHE = new ConcurrentHashMap<>();
+  private final Map<String, CachedNodeGenerator> cache = new ConcurrentHashMap<>();
 
-  public synchronized static CachedNodeGenerator cache(String userId, NodeGenerator nodeGenerator) {
-    return CACHE.computeIfAbsent(userId, s -> new CachedNodeGenerator(nodeGenerator.get()));
+  private final Counter hits;
+  private final Counter misses;
+
+  @Inject
+  public NodeCandidateCache(MetricsRegistry metricsRegistry) {
+    this.hits = metricsRegistry.cacheHits("node_candidates");
+    this.misses = metricsRegistry.cacheMisses("node_candidates");
+  }
+
+  public synchronized CachedNodeGenerator cache(String userId, NodeGenerator nodeGenerator) {
+    final CachedNodeGenerator cached = cache.get(userId);
+    if (cached != null) {
+      hits.inc();
+      return cached;
+    }
+    misses.inc();
+    final CachedNodeGenerator generated = new CachedNodeGenerator(nodeGenerator.get());
+    cache.put(userId, generated);
+    return generated;
   }
 
   public static class CachedNodeGenerator implements NodeGenerator {
 
     private final NodeCandidates nodeCandidates;
-    private final Map<String, NodeCandidate> nodeCandidateMap = new HashMap<>();
 
     private CachedNodeGenerator(NodeCandidates nodeCandidates) {
       this.nodeCandidates = nodeCandidates;
-      nodeCandidates.stream().forEach(new Consumer<NodeCandidate>() {
-        @Override
-        public void accept(NodeCandidate nodeCandidate) {
-          nodeCandidateMap.put(nodeCandidate.id(), nodeCandidate);
-        }
-      });
     }
 
     @Override
@@ -37,12 +48,12 @@ public class NodeCandidateCache implements Expirable {
     }
 
     public NodeCandidate get(String id) {
-      return nodeCandidateMap.get(id);
+      return nodeCandidates.getById(id);
     }
   }
 
   @Override
   public synchronized void expire(String userId) {
-    CACHE.remove(userId);
+    cache.remove(userId);
   }
 }
@@ -9,7 +9,10 @@ import java.util.stream.Collectors;
 import org.cloudiator.matchmaking.converters.NodeCandidateConverter;
 import org.cloudiator.matchmaking.converters.RequirementConverter;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.NodeCandidateCache.CachedNodeGenerator;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.cloudiator.messages.General.Error;
 import org.cloudiator.messages.entities.Matchmaking.NodeCandidateRequestMessage;
 import org.cloudiator.messages.entities.Matchmaking.NodeCandidateRequestResponse;
@@ -27,13 +30,22 @@ public class NodeCandidateListener implements Runnable {
   private final MessageInterface messageInterface;
   private final ModelGenerator modelGenerator;
   private final ByonCache byonCache;
+  private final NodeCandidateCache nodeCandidateCache;
+  private final MetricsRegistry metricsRegistry;
+  private final PriceModelGenerator priceModelGenerator;
+  private final Tracer tracer;
 
   @Inject
   public NodeCandidateListener(MessageInterface messageInterface,
-      ModelGenerator modelGenerator, ByonCache byonCache) {
+      ModelGenerator modelGenerator, ByonCache byonCache, NodeCandidateCache nodeCandidateCache,
+      MetricsRegistry metricsRegistry, PriceModelGenerator priceModelGenerator, Tracer tracer) {
     this.messageInterface = messageInterface;
     this.modelGenerator = modelGenerator;
     this.byonCache = byonCache;
+    this.nodeCandidateCache = nodeCandidateCache;
+    this.metricsRegistry = metricsRegistry;
+    this.priceModelGenerator = priceModelGenerator;
+    this.tracer = tracer;
   }
 
   @Override
@@ -43,13 +55,15 @@ public class NodeCandidateListener implements Runnable {
 
           LOGGER.info(String.format("%s received new node candidate request %s.", this, content));
 
-          try {
+          try (Span span = tracer.start("nodecandidates.request")) {
+            span.attribute("request.id", id).attribute("user.id", content.getUserId());
             final CloudiatorModel cloudiatorModel = modelGenerator
                 .generateModel(content.getUserId());
 
-            final CachedNodeGenerator cachedNodeGenerator = NodeCandidateCache
+            final CachedNodeGenerator cachedNodeGenerator = nodeCandidateCache
                 .cache(content.getUserId(), new DefaultNodeGenerator(
-                    NodeCandidateFactory.create(), cloudiatorModel, byonCache));
+                    NodeCandidateFactory.create(), cloudiatorModel, byonCache,
+                    metricsRegistry, tracer, priceModelGenerator, content.getUserId()));
 
             final NodeCandidates nodeCandidates;
             if (Strings.isNullOrEmpty(content.getId())) {
@@ -63,7 +77,7 @@ public class NodeCandidateListener implements Runnable {
               LOGGER.info(String.format("%s generated the csp %s.", this, oclCsp));
 
               final ConsistentNodeGenerator consistentNodeGenerator = new ConsistentNodeGenerator(
-                  cachedNodeGenerator, ConstraintChecker.create(oclCsp));
+                  cachedNodeGenerator, ConstraintChecker.create(oclCsp), metricsRegistry, tracer);
 
               nodeCandidates = consistentNodeGenerator.get();
             } else {
@@ -72,6 +86,7 @@ public class NodeCandidateListener implements Runnable {
 
             LOGGER.info(String.format("%s found %s nodes for request. Replying.", this,
                 nodeCandidates.size()));
+            span.attribute("candidates", nodeCandidates.size()).ok();
 
             messageInterface
                 .reply(id, NodeCandidateRequestResponse.newBuilder().addAllCandidates(
@@ -10,18 +10,49 @@ import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class NodeCandidates implements Set<NodeCandidate>, NodeGenerator {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeCandidates.class);
+
   private final Map<String, NodeCandidate> nodeCandidates = new HashMap<>();
+  //candidates by their id in the original format, built on the first lookup of an unknown id
+  @Nullable
+  private volatile Map<String, NodeCandidate> legacyIds;
+  private int collisions = 0;
 
   private NodeCandidates(Set<NodeCandidate> nodeCandidates) {
     for (NodeCandidate nodeCandidate : nodeCandidates) {
-      this.nodeCandidates.put(nodeCandidate.id(), nodeCandidate);
+      put(nodeCandidate);
     }
   }
 
+  private boolean put(NodeCandidate nodeCandidate) {
+    final NodeCandidate previous = nodeCandidates.put(nodeCandidate.id(), nodeCandidate);
+    legacyIds = null;
+    if (previous != null && !previous.equals(nodeCandidate)) {
+      //two different candidates hashed to the same id, keep the first one
+      nodeCandidates.put(previous.id(), previous);
+      collisions++;
+      LOGGER.error(String.format("Node candidate id collision on %s between %s and %s.",
+          nodeCandidate.id(), previous, nodeCandidate));
+      return false;
+    }
+    return previous == null;
+  }
+
+  /**
+   * Number of candidates that were dropped because their id was already used by a different
+   * candidate.
+   */
+  public int collisions() {
+    return collisions;
+  }
+
   public static NodeCandidates of(Set<NodeCandidate> nodeCandidates) {
     return new NodeCandidates(nodeCandidates);
   }
@@ -66,11 +97,12 @@ public class NodeCandidates implements Set<NodeCandidate>, NodeGenerator {
 
   @Override
   public boolean add(NodeCandidate nodeCandidate) {
-    return nodeCandidates.put(nodeCandidate.id(), nodeCandidate) == null;
+    return put(nodeCandidate);
   }
 
   @Override
   public boolean remove(Object o) {
+    legacyIds = null;
     return nodeCandidates.values().remove(o);
   }
 
@@ -82,23 +114,26 @@ public class NodeCandidates implements Set<NodeCandidate>, NodeGenerator {
   @Override
   public boolean addAll(Collection<? extends NodeCandidate> collection) {
     for (NodeCandidate nodeCandidate : collection) {
-      nodeCandidates.put(nodeCandidate.id(), nodeCandidate);
+      put(nodeCandidate);
     }
     return true;
   }
 
   @Override
   public boolean retainAll(Collection<?> collection) {
+    legacyIds = null;
     return nodeCandidates.values().retainAll(collection);
   }
 
   @Override
   public boolean removeAll(Collection<?> collection) {
+    legacyIds = null;
     return nodeCandidates.values().removeAll(collection);
   }
 
   @Override
   public void clear() {
+    legacyIds = null;
     nodeCandidates.clear();
   }
 
@@ -119,7 +154,7 @@ public class NodeCandidates implements Set<NodeCandidate>, NodeGenerator {
 
   @Override
   public boolean removeIf(Predicate<? super NodeCandidate> predicate) {
-
+    legacyIds = null;
     return nodeCandidates.values().remove(predicate);
   }
 
@@ -143,7 +178,24 @@ public class NodeCandidates implements Set<NodeCandidate>, NodeGenerator {
     return this;
   }
 
+  /**
+   * Returns the candidate with the given id. Also resolves ids in the original MD5 format, so
+   * existing nodes still find their candidate if a different id hashing is configured.
+   */
+  @Nullable
   public NodeCandidate getById(String string) {
-    return nodeCandidates.get(string);
+    final NodeCandidate nodeCandidate = nodeCandidates.get(string);
+    if (nodeCandidate != null) {
+      return nodeCandidate;
+    }
+    Map<String, NodeCandidate> legacy = legacyIds;
+    if (legacy == null) {
+      legacy = new HashMap<>(nodeCandidates.size());
+      for (NodeCandidate candidate : nodeCandidates.values()) {
+        legacy.put(candidate.legacyId(), candidate);
+      }
+      legacyIds = legacy;
+    }
+    return legacy.get(string);
   }
 }
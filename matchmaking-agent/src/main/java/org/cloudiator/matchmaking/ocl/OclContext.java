@@ -4,6 +4,8 @@ import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import de.uniulm.omi.cloudiator.util.configuration.Configuration;
 import java.util.List;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.SpanExporters;
 
 public class OclContext {
 
@@ -34,6 +36,50 @@ public class OclContext {
     return config.getInt("solvingTime");
   }
 
+  public int discoveryConcurrency() {
+    return config.getInt("discoveryConcurrency");
+  }
+
+  public int pricingCacheTime() {
+    return config.getInt("pricingCacheTime");
+  }
+
+  public int pricingCacheSize() {
+    return config.getInt("pricingCacheSize");
+  }
+
+  public String snapshotDirectory() {
+    return config.getString("snapshotDirectory");
+  }
+
+  public int metricsPort() {
+    return config.getInt("metricsPort");
+  }
+
+  public String metricsBindAddress() {
+    return config.getString("metricsBindAddress");
+  }
+
+  public SpanExporters traceExporter() {
+    return SpanExporters.valueOf(config.getString("traceExporter"));
+  }
+
+  public String traceTarget() {
+    return config.getString("traceTarget");
+  }
+
+  public SolvingDeadlines solvingDeadlines() {
+    return SolvingDeadlines.of(config.getLong("defaultDeadlineMillis"), solvingTime());
+  }
+
+  public SolverBudgets solverBudgets() {
+    return SolverBudgets.of(config.getConfig("budget"));
+  }
+
+  public SolverPortfolio solverPortfolio(MetricsRegistry metricsRegistry) {
+    return SolverPortfolio.of(config.getConfig("portfolio"), metricsRegistry);
+  }
+
   public boolean considerQuotas() {
     return config.getBoolean("considerQuota");
   }
@@ -5,10 +5,37 @@ import cloudiator.Hardware;
 import cloudiator.Image;
 import cloudiator.Location;
 import de.uniulm.omi.cloudiator.util.execution.Prioritized;
+import java.util.List;
 import java.util.Optional;
 
 public interface PriceFunction extends Prioritized {
 
   Optional<Double> calculatePricing(Cloud cloud, Hardware hardware, Location location, Image image, String userId);
 
+  /**
+   * Calculates the prices of all missing combinations of the given hardware, locations and images
+   * of the cloud at once. Implementations should override this if they can share work between
+   * combinations, and record every lookup that found no price with {@link
+   * PriceTable#missedLookup()}.
+   */
+  default void fillPricing(Cloud cloud, List<Hardware> hardware,
+      List<Location> locations, List<Image> images, String userId, PriceTable priceTable) {
+    for (int h = 0; h < hardware.size(); h++) {
+      for (int l = 0; l < locations.size(); l++) {
+        for (int i = 0; i < images.size(); i++) {
+          if (!priceTable.isMissing(h, l, i)) {
+            continue;
+          }
+          final Optional<Double> price = calculatePricing(cloud, hardware.get(h), locations.get(l),
+              images.get(i), userId);
+          if (price.isPresent()) {
+            priceTable.set(h, l, i, price.get());
+          } else {
+            priceTable.missedLookup();
+          }
+        }
+      }
+    }
+  }
+
 }
@@ -1,18 +1,24 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import cloudiator.Cloud;
-import cloudiator.CloudiatorFactory;
-import cloudiator.CloudiatorPackage;
 import cloudiator.Hardware;
 import cloudiator.Image;
 import cloudiator.Location;
-import cloudiator.Price;
+import java.util.Collections;
+import java.util.List;
 import javax.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Prices the combinations of a cloud while the node candidates are generated. Prices are not part
+ * of the discovered model, only the combinations that can become node candidates are priced.
+ */
 public class PriceModelGenerator {
 
-  private static final CloudiatorFactory CLOUDIATOR_FACTORY = CloudiatorPackage.eINSTANCE
-      .getCloudiatorFactory();
+  private static final Logger LOGGER = LoggerFactory.getLogger(PriceModelGenerator.class);
   private final PriceFunction priceFunction;
 
   @Inject
@@ -20,26 +26,27 @@ public class PriceModelGenerator {
     this.priceFunction = priceFunction;
   }
 
-  public void generatePriceModel(Cloud cloud, String userId) {
-
-    for (Hardware hardware : cloud.getHardwareList()) {
-      for (Image image : cloud.getImages()) {
-        for (Location location : cloud.getLocations()) {
-          Price price = newPrice();
-          price.setHardware(hardware);
-          price.setLocation(location);
-          price.setImage(image);
-          price.setPrice(priceFunction.calculatePricing(cloud, hardware, location, image, userId)
-              .orElseThrow(() -> new IllegalStateException("Could not calculate pricing.")));
-          cloud.getPrices().add(price);
-        }
-      }
+  /**
+   * Prices every combination of the hardware and images at the location, all of them need to be
+   * valid combinations. Combinations without price are missing in the returned table.
+   */
+  public PriceTable price(Cloud cloud, List<Hardware> hardwareList, Location location,
+      List<Image> images, String userId) {
+    checkNotNull(cloud, "cloud is null");
+    checkNotNull(location, "location is null");
+
+    final PriceTable priceTable = new PriceTable(hardwareList.size(), 1, images.size());
+    if (priceTable.size() == 0) {
+      return priceTable;
     }
-  }
+    priceFunction.fillPricing(cloud, hardwareList, Collections.singletonList(location), images,
+        userId, priceTable);
 
-  private Price newPrice() {
-    return CLOUDIATOR_FACTORY.createPrice();
+    if (priceTable.misses() > 0) {
+      LOGGER.debug(String.format("Could not calculate pricing for %s of %s combinations of "
+          + "cloud %s at location %s.", priceTable.misses(), priceTable.size(), cloud.getId(),
+          location.getId()));
+    }
+    return priceTable;
   }
-
-
 }
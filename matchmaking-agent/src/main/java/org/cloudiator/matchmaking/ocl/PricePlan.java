@@ -0,0 +1,91 @@
+package org.cloudiator.matchmaking.ocl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.cloudiator.messages.entities.IaasEntities;
+
+/**
+ * Price plan of a cloud provider, indexed by hardware provider id, location provider id and
+ * operating system. Lookups for a fixed hardware or location can reuse the nested maps, so
+ * pricing a whole cloud does not need to build or hash a key per combination. Plans with the same
+ * prices are equal, so a reloaded plan that did not change can be interned.
+ */
+public class PricePlan {
+
+  private final Map<String, Map<String, Map<String, IaasEntities.Price>>> prices;
+  private final int duplicates;
+  //plans are immutable and hashed by the interner, so the hash of all prices is computed once
+  private final int hashCode;
+
+  private PricePlan(Map<String, Map<String, Map<String, IaasEntities.Price>>> prices,
+      int duplicates) {
+    this.prices = prices;
+    this.duplicates = duplicates;
+    this.hashCode = Objects.hash(prices, duplicates);
+  }
+
+  public static PricePlan of(String cloudAPIProviderName, Iterable<IaasEntities.Price> prices) {
+    Map<String, Map<String, Map<String, IaasEntities.Price>>> index = new HashMap<>();
+    int duplicates = 0;
+    for (IaasEntities.Price price : prices) {
+      if (!cloudAPIProviderName.equals(price.getCloudAPIProviderName())) {
+        continue;
+      }
+      final IaasEntities.Price existing = index
+          .computeIfAbsent(price.getHardwareProviderId(), k -> new HashMap<>())
+          .computeIfAbsent(price.getLocationProviderId(), k -> new HashMap<>())
+          .putIfAbsent(osKey(String.valueOf(price.getOsArchitecture()),
+              String.valueOf(price.getOsFamily())), price);
+      if (existing != null) {
+        duplicates++;
+      }
+    }
+    return new PricePlan(index, duplicates);
+  }
+
+  public static String osKey(String osArchitecture, String osFamily) {
+    return osArchitecture + '/' + osFamily;
+  }
+
+  /**
+   * Prices of the hardware, by location provider id and os key. Empty if unknown.
+   */
+  public Map<String, Map<String, IaasEntities.Price>> forHardware(String hardwareProviderId) {
+    return prices.getOrDefault(hardwareProviderId, Collections.emptyMap());
+  }
+
+  @Nullable
+  public IaasEntities.Price get(String hardwareProviderId, String locationProviderId,
+      String osKey) {
+    return forHardware(hardwareProviderId).getOrDefault(locationProviderId, Collections.emptyMap())
+        .get(osKey);
+  }
+
+  /**
+   * Number of prices that were ignored as another price with the same key exists.
+   */
+  public int duplicates() {
+    return duplicates;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PricePlan pricePlan = (PricePlan) o;
+    return hashCode == pricePlan.hashCode && duplicates == pricePlan.duplicates && prices
+        .equals(pricePlan.prices);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
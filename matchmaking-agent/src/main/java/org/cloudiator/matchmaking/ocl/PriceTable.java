@@ -0,0 +1,110 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.OptionalDouble;
+
+/**
+ * Dense table of the prices of the hardware, location and image combinations of a cloud,
+ * addressed by the positions in the lists passed to {@link PriceFunction#fillPricing(
+ *cloudiator.Cloud, java.util.List, java.util.List, java.util.List, String, PriceTable)}. Missing
+ * prices are stored as NaN. Combinations that are not needed can be skipped, price functions do
+ * not calculate them and they do not count as misses.
+ */
+public class PriceTable {
+
+  private final int locations;
+  private final int images;
+  private final double[] prices;
+  private final BitSet skipped = new BitSet();
+  private int misses;
+  private int missedLookups;
+
+  public PriceTable(int hardware, int locations, int images) {
+    checkArgument(hardware >= 0 && locations >= 0 && images >= 0, "negative dimension");
+    this.locations = locations;
+    this.images = images;
+    this.prices = new double[hardware * locations * images];
+    Arrays.fill(prices, Double.NaN);
+    this.misses = prices.length;
+  }
+
+  private int position(int hardware, int location, int image) {
+    return (hardware * locations + location) * images + image;
+  }
+
+  public void skip(int hardware, int location, int image) {
+    final int position = position(hardware, location, image);
+    if (!skipped.get(position) && Double.isNaN(prices[position])) {
+      misses--;
+    }
+    skipped.set(position);
+  }
+
+  public boolean isSkipped(int hardware, int location, int image) {
+    return skipped.get(position(hardware, location, image));
+  }
+
+  /**
+   * Checks if the price of the combination still needs to be calculated.
+   */
+  public boolean isMissing(int hardware, int location, int image) {
+    final int position = position(hardware, location, image);
+    return !skipped.get(position) && Double.isNaN(prices[position]);
+  }
+
+  /**
+   * Sets the price of the combination. Ignored if it is skipped or already priced, so a table
+   * keeps the prices of the first price function that calculated them.
+   */
+  public void set(int hardware, int location, int image, double price) {
+    checkArgument(!Double.isNaN(price), "price is NaN");
+    final int position = position(hardware, location, image);
+    if (skipped.get(position) || !Double.isNaN(prices[position])) {
+      return;
+    }
+    prices[position] = price;
+    misses--;
+  }
+
+  public boolean contains(int hardware, int location, int image) {
+    return !Double.isNaN(prices[position(hardware, location, image)]);
+  }
+
+  public OptionalDouble get(int hardware, int location, int image) {
+    final double price = prices[position(hardware, location, image)];
+    return Double.isNaN(price) ? OptionalDouble.empty() : OptionalDouble.of(price);
+  }
+
+  public int size() {
+    return prices.length;
+  }
+
+  /**
+   * Number of combinations that are neither priced nor skipped.
+   */
+  public int misses() {
+    return misses;
+  }
+
+  /**
+   * Records a lookup of a price function that found no price. A single lookup can cover several
+   * combinations, e.g. all images with the same operating system.
+   */
+  public void missedLookup() {
+    missedLookups++;
+  }
+
+  public int missedLookups() {
+    return missedLookups;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("size", size()).add("misses", misses)
+        .add("missedLookups", missedLookups).toString();
+  }
+}
@@ -1,13 +1,7 @@
 package org.cloudiator.matchmaking.ocl;
 
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import org.cloudiator.messages.Pricing.PricingQueryRequest;
 import org.cloudiator.messages.entities.IaasEntities;
 import org.cloudiator.messaging.ResponseException;
@@ -15,7 +9,7 @@ import org.cloudiator.messaging.services.PricingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class PricingSupplier implements Supplier<Map<Long, IaasEntities.Price>> {
+public class PricingSupplier implements Supplier<PricePlan> {
 
   private final String userId;
   private final String cloudAPIProviderName;
@@ -31,7 +25,7 @@ public class PricingSupplier implements Supplier<Map<Long, IaasEntities.Price>>
   }
 
   @Override
-  public Map<Long, IaasEntities.Price> get() {
+  public PricePlan get() {
     PricingQueryRequest pricingQueryRequest = PricingQueryRequest.newBuilder()
         .setCloudAPIProviderName(cloudAPIProviderName)
         .setUserId(userId)
@@ -41,22 +35,17 @@ public class PricingSupplier implements Supplier<Map<Long, IaasEntities.Price>>
       List<IaasEntities.Price> prices = pricingService.getPrice(pricingQueryRequest)
           .getPricesList();
 
-      return prices.stream().collect(Collectors.toMap(price -> {
-        HashCode sha256PriceKey = Hashing.sha256()
-            .hashString((new StringBuilder())
-                .append(price.getHardwareProviderId())
-                .append(price.getLocationProviderId())
-                .append(price.getOsArchitecture())
-                .append(price.getOsFamily())
-                .append(price.getCloudAPIProviderName()), StandardCharsets.UTF_8);
-        return sha256PriceKey.asLong();
-      }, price -> price));
+      final PricePlan pricePlan = PricePlan.of(cloudAPIProviderName, prices);
+      if (pricePlan.duplicates() > 0) {
+        LOGGER.debug(String.format("Ignored %s duplicate prices of provider %s.",
+            pricePlan.duplicates(), cloudAPIProviderName));
+      }
+      return pricePlan;
     } catch (ResponseException e) {
-
-      LOGGER.warn(
+      //do not return an empty plan, it would be cached like a valid one
+      throw new IllegalStateException(
           String.format("Could not retrieve price due to communication error: %s", e.getMessage()),
           e);
-      return Collections.emptyMap();
     }
   }
 }
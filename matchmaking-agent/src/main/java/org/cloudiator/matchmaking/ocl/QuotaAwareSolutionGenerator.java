@@ -1,109 +1,192 @@
 package org.cloudiator.matchmaking.ocl;
 
+import cloudiator.Location;
 import de.uniulm.omi.cloudiator.sword.domain.AttributeQuota;
 import de.uniulm.omi.cloudiator.sword.domain.OfferQuota;
 import de.uniulm.omi.cloudiator.sword.domain.Quota;
 import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
-import org.cloudiator.matchmaking.LocationUtil;
-import org.cloudiator.matchmaking.domain.Solution;
-
+import org.cloudiator.matchmaking.LocationIndex;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+
+/**
+ * Filters the solutions of the delegate by the quotas. Every solution carries its running usage
+ * per quota, so a child is checked in the number of quotas affecting the added candidate and
+ * children exceeding a quota are never generated.
+ */
 public class QuotaAwareSolutionGenerator implements SolutionGenerator {
 
+  private static final BigDecimal MAX_LIMIT = BigDecimal.valueOf(Long.MAX_VALUE);
+  private static final int[] NO_QUOTAS = new int[0];
+
   private final SolutionGenerator delegate;
-  private final QuotaSet quotaSet;
+  private final long[] limits;
+  //per candidate: the quotas it affects and its usage for each of them
+  private final int[][] affectedQuotas;
+  private final int[][] affectedUsages;
 
   public QuotaAwareSolutionGenerator(QuotaSet quotaSet, SolutionGenerator delegate) {
     this.delegate = delegate;
-    this.quotaSet = quotaSet;
-  }
-
-  @Override
-  public int nodeCandidatesSize() {
-    return 0;
-  }
 
-  private boolean checkSolution(Solution solution) {
-    for (Quota quota : quotaSet.quotaSet()) {
-      if (!checkSolutionForQuota(solution, quota)) {
-        return false;
+    final CandidateIndex candidateIndex = delegate.candidateIndex();
+    List<Location> locations = new ArrayList<>(candidateIndex.size());
+    for (int candidate = 0; candidate < candidateIndex.size(); candidate++) {
+      locations.add(candidateIndex.get(candidate).getLocation());
+    }
+    final LocationIndex locationIndex = LocationIndex.of(locations);
+
+    final List<Quota> quotas = quotaSet.quotaSet().stream()
+        .filter(quota -> quota.locationId().isPresent()).collect(Collectors.toList());
+
+    this.limits = quotas.stream().mapToLong(QuotaAwareSolutionGenerator::limit).toArray();
+    this.affectedQuotas = new int[candidateIndex.size()][];
+    this.affectedUsages = new int[candidateIndex.size()][];
+
+    for (int candidate = 0; candidate < candidateIndex.size(); candidate++) {
+      final NodeCandidate nodeCandidate = candidateIndex.get(candidate);
+      List<Integer> affected = new ArrayList<>();
+      List<Integer> usages = new ArrayList<>();
+      for (int quota = 0; quota < quotas.size(); quota++) {
+        if (!locationIndex
+            .inHierarchy(quotas.get(quota).locationId().get(), nodeCandidate.getLocation())) {
+          continue;
+        }
+        final int usage = usage(quotas.get(quota), nodeCandidate);
+        if (usage != 0) {
+          affected.add(quota);
+          usages.add(usage);
+        }
       }
+      affectedQuotas[candidate] = affected.isEmpty() ? NO_QUOTAS
+          : affected.stream().mapToInt(Integer::intValue).toArray();
+      affectedUsages[candidate] = affected.isEmpty() ? NO_QUOTAS
+          : usages.stream().mapToInt(Integer::intValue).toArray();
     }
-    return true;
   }
 
-  private static boolean checkSolutionForQuota(Solution solution, Quota quota) {
-
-    if (!quota.locationId().isPresent()) {
-      return true;
-    }
-
+  private static int usage(Quota quota, NodeCandidate nodeCandidate) {
     if (quota instanceof AttributeQuota) {
-      return checkSolutionForAttributeQuota(solution, (AttributeQuota) quota);
+      return attributeUsage((AttributeQuota) quota, nodeCandidate);
     } else if (quota instanceof OfferQuota) {
-      return checkSolutionForOfferQuota(solution, (OfferQuota) quota);
+      return offerUsage((OfferQuota) quota, nodeCandidate);
     } else {
       throw new AssertionError("Unknown quota type " + quota.getClass().getName());
     }
   }
 
-  private static boolean checkSolutionForOfferQuota(Solution solution, OfferQuota offerQuota) {
+  /**
+   * The remaining amount of the quota, rounded down and clamped to the range of a long. A quota
+   * that is already exceeded is exhausted, like in the {@link QuotaFilter}: it rejects the
+   * candidates using it, but not the solutions without them.
+   */
+  private static long limit(Quota quota) {
+    return quota.remaining().max(BigDecimal.ZERO).min(MAX_LIMIT).setScale(0, RoundingMode.FLOOR)
+        .longValue();
+  }
 
-    long count;
+  private static int offerUsage(OfferQuota offerQuota, NodeCandidate nodeCandidate) {
     switch (offerQuota.type()) {
       case HARDWARE:
-        count = solution.getNodeCandidates().stream()
-            .filter(nc -> LocationUtil.inHierarchy(offerQuota.locationId().get(), nc.getLocation()))
-            .filter(nc -> nc.getHardware().getId().equals(offerQuota.id())).count();
-        break;
+        return nodeCandidate.getHardware().getId().equals(offerQuota.id()) ? 1 : 0;
       default:
         throw new AssertionError("Unsupported offer quota type " + offerQuota.type());
     }
-
-    return offerQuota.remaining().compareTo(BigDecimal.valueOf(count)) >= 0;
   }
 
-  private static boolean checkSolutionForAttributeQuota(Solution solution,
-      AttributeQuota attributeQuota) {
-
-    int used;
+  private static int attributeUsage(AttributeQuota attributeQuota, NodeCandidate nodeCandidate) {
     switch (attributeQuota.attribute()) {
       case HARDWARE_CORES:
-        used = solution.getNodeCandidates().stream().filter(
-            nc -> LocationUtil.inHierarchy(attributeQuota.locationId().get(), nc.getLocation()))
-            .mapToInt(nc -> nc.getHardware().getCores())
-            .sum();
-        break;
+        return nodeCandidate.getHardware().getCores();
       case HARDWARE_RAM:
-        used = solution.getNodeCandidates().stream().filter(
-            nc -> LocationUtil.inHierarchy(attributeQuota.locationId().get(), nc.getLocation()))
-            .mapToInt(nc -> nc.getHardware().getRam())
-            .sum();
-        break;
+        return nodeCandidate.getHardware().getRam();
       case NODES_SIZE:
-        used = (int) solution.getNodeCandidates().stream().filter(
-            nc -> LocationUtil.inHierarchy(attributeQuota.locationId().get(), nc.getLocation()))
-            .count();
-        break;
+        return 1;
       default:
         throw new AssertionError("Unknown attribute " + attributeQuota.attribute());
     }
+  }
 
-    return attributeQuota.remaining().intValue() >= used;
+  @Override
+  public int nodeCandidatesSize() {
+    return 0;
+  }
 
+  @Override
+  public CandidateIndex candidateIndex() {
+    return delegate.candidateIndex();
+  }
+
+  private long[] usage(CompactSolution solution) {
+    long[] usage = solution.quotaUsage();
+    if (usage == null) {
+      usage = new long[limits.length];
+      for (int i = 0; i < solution.nodeSize(); i++) {
+        final int candidate = solution.candidate(i);
+        for (int q = 0; q < affectedQuotas[candidate].length; q++) {
+          usage[affectedQuotas[candidate][q]] += affectedUsages[candidate][q];
+        }
+      }
+      solution.quotaUsage(usage);
+    }
+    return usage;
+  }
+
+  private boolean isFeasible(long[] usage) {
+    for (int quota = 0; quota < limits.length; quota++) {
+      if (usage[quota] > limits[quota]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean fits(long[] usage, int candidate) {
+    for (int q = 0; q < affectedQuotas[candidate].length; q++) {
+      final int quota = affectedQuotas[candidate][q];
+      if (usage[quota] + affectedUsages[candidate][q] > limits[quota]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long[] add(long[] usage, int candidate) {
+    if (affectedQuotas[candidate].length == 0) {
+      //the usage arrays are never modified, so the child can share it
+      return usage;
+    }
+    final long[] child = usage.clone();
+    for (int q = 0; q < affectedQuotas[candidate].length; q++) {
+      child[affectedQuotas[candidate][q]] += affectedUsages[candidate][q];
+    }
+    return child;
   }
 
   @Override
-  public List<Solution> generateInitialSolutions() {
-    return delegate.generateInitialSolutions().stream().filter(this::checkSolution).collect(
-        Collectors.toList());
+  public List<CompactSolution> generateInitialSolutions() {
+    return delegate.generateInitialSolutions().stream().filter(s -> isFeasible(usage(s)))
+        .collect(Collectors.toList());
   }
 
   @Override
-  public List<Solution> getChilds(Solution solution) {
-    return delegate.getChilds(solution).stream().filter(this::checkSolution).collect(
-        Collectors.toList());
+  public List<CompactSolution> getChilds(CompactSolution solution) {
+    return getChilds(solution, candidate -> true);
+  }
+
+  @Override
+  public List<CompactSolution> getChilds(CompactSolution solution,
+      IntPredicate candidateFilter) {
+    final long[] usage = usage(solution);
+    final List<CompactSolution> childs = delegate
+        .getChilds(solution, candidate -> fits(usage, candidate) && candidateFilter.test(candidate));
+    for (CompactSolution child : childs) {
+      child.quotaUsage(add(usage, child.added()));
+    }
+    return childs;
   }
 }
@@ -1,16 +1,17 @@
 package org.cloudiator.matchmaking.ocl;
 
 import cloudiator.CloudiatorModel;
-import cloudiator.Location;
 import de.uniulm.omi.cloudiator.sword.domain.OfferQuota;
 import de.uniulm.omi.cloudiator.sword.domain.Quota;
 import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
-import org.cloudiator.matchmaking.LocationUtil;
+import org.cloudiator.matchmaking.LocationIndex;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,38 +20,44 @@ public class QuotaFilter implements NodeGenerator {
   private final CloudiatorModel cloudiatorModel;
   private final NodeGenerator delegate;
   private final QuotaSet quotaSet;
+  private final Tracer tracer;
   private static final Logger LOGGER = LoggerFactory.getLogger(QuotaFilter.class);
 
   public QuotaFilter(CloudiatorModel cloudiatorModel, NodeGenerator delegate,
-      QuotaSet quotaSet) {
+      QuotaSet quotaSet, Tracer tracer) {
     this.cloudiatorModel = cloudiatorModel;
     this.delegate = delegate;
     this.quotaSet = quotaSet;
+    this.tracer = tracer;
   }
 
-  private boolean checkQuota(NodeCandidate nodeCandidate) {
+  /**
+   * Offer quotas without any remaining capacity, or already exceeded, for a location that is part
+   * of the model.
+   */
+  private List<OfferQuota> exhaustedQuotas(LocationIndex locationIndex) {
+    List<OfferQuota> exhausted = new ArrayList<>();
     for (Quota quota : quotaSet.quotaSet()) {
-      if (quota.remaining().equals(BigDecimal.ZERO) && quota instanceof OfferQuota) {
-        if (quota.locationId().isPresent()) {
-          final Optional<Location> location = LocationUtil
-              .findLocation(quota.locationId().get(), cloudiatorModel);
-          if (location.isPresent()) {
-            final Set<Location> locations = LocationUtil
-                .subLocations(location.get(), cloudiatorModel);
-            locations.add(location.get());
-            for (Location affected : locations) {
-              if (nodeCandidate.getLocation().getId().equals(affected.getId())) {
-                switch (((OfferQuota) quota).type()) {
-                  case HARDWARE:
-                    if (nodeCandidate.getHardware().getId().equals(((OfferQuota) quota).id())) {
-                      return false;
-                    }
-                  default:
-                    return true;
-                }
-              }
+      if (quota.remaining().signum() <= 0 && quota instanceof OfferQuota && quota
+          .locationId().isPresent() && locationIndex.indexOf(quota.locationId().get()) >= 0) {
+        exhausted.add((OfferQuota) quota);
+      }
+    }
+    return exhausted;
+  }
+
+  private static boolean checkQuota(NodeCandidate nodeCandidate, List<OfferQuota> exhausted,
+      LocationIndex locationIndex) {
+    for (OfferQuota quota : exhausted) {
+      if (locationIndex.inHierarchy(quota.locationId().get(), nodeCandidate.getLocation())) {
+        switch (quota.type()) {
+          case HARDWARE:
+            if (nodeCandidate.getHardware().getId().equals(quota.id())) {
+              return false;
             }
-          }
+            break;
+          default:
+            break;
         }
       }
     }
@@ -59,11 +66,28 @@ public class QuotaFilter implements NodeGenerator {
 
   @Override
   public NodeCandidates get() {
+    try (Span span = tracer.startChild("candidates.quota")) {
+      final NodeCandidates nodeCandidates = filter(span);
+      span.attribute("candidates.out", nodeCandidates.size());
+      return nodeCandidates;
+    }
+  }
+
+  private NodeCandidates filter(Span span) {
 
     final NodeCandidates nodeCandidates = delegate.get();
+    span.attribute("candidates.in", nodeCandidates.size());
+
+    final LocationIndex locationIndex = LocationIndex.of(cloudiatorModel);
+    final List<OfferQuota> exhausted = exhaustedQuotas(locationIndex);
+    span.attribute("exhaustedQuotas", exhausted.size());
+    if (exhausted.isEmpty()) {
+      return nodeCandidates;
+    }
+
     Set<NodeCandidate> passed = new HashSet<>(nodeCandidates.size());
     for (NodeCandidate nodeCandidate : nodeCandidates) {
-      if (checkQuota(nodeCandidate)) {
+      if (checkQuota(nodeCandidate, exhausted, locationIndex)) {
         passed.add(nodeCandidate);
       } else {
         LOGGER
@@ -0,0 +1,182 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolutionBound;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.ocl.SolverPortfolio.Outcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinates the solvers the {@link MetaSolver} races on one problem.
+ * <p>
+ * Solvers report back from their callback threads. The best solution, returned or offered while
+ * searching, is shared with all solvers as {@link SolutionBound}, so they prune what can not beat
+ * it. The race ends once every launched solver returned or one returned an optimal solution.
+ * <p>
+ * Staggered solvers wait for their delay, but no longer than for the immediately launched ones:
+ * once those returned, the staggered solvers start right away if nothing was found, otherwise
+ * they are not started at all.
+ */
+class RaceCoordinator implements SolutionBound {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RaceCoordinator.class);
+
+  private final CountDownLatch running;
+  private final CountDownLatch immediate;
+  private final Set<Solver> staggered;
+  private final Set<Solver> started = ConcurrentHashMap.newKeySet();
+  private final Map<Solver, Solution> results = new ConcurrentHashMap<>();
+  private final Set<Solver> failed = ConcurrentHashMap.newKeySet();
+  private final Object lock = new Object();
+  @Nullable
+  private Solution best;
+  private volatile double bestCosts = Double.POSITIVE_INFINITY;
+
+  RaceCoordinator(int solvers) {
+    this(solvers, ImmutableSet.of());
+  }
+
+  RaceCoordinator(int solvers, Set<Solver> staggered) {
+    checkNotNull(staggered, "staggered is null");
+    checkArgument(staggered.size() <= solvers, "more staggered solvers than solvers");
+    this.running = new CountDownLatch(solvers);
+    this.immediate = new CountDownLatch(solvers - staggered.size());
+    this.staggered = ImmutableSet.copyOf(staggered);
+  }
+
+  @Override
+  public double costs() {
+    return bestCosts;
+  }
+
+  @Override
+  public void offer(Solution solution) {
+    checkNotNull(solution, "solution is null");
+    if (solution.isEmpty()) {
+      return;
+    }
+    synchronized (lock) {
+      //prefer the returned optimal solution over the equal one offered while searching
+      if (solution.getCosts() < bestCosts || (best != null && solution.isOptimal()
+          && !best.isOptimal() && solution.getCosts() <= bestCosts)) {
+        LOGGER.debug(String.format("Solver %s improved the bound from %s to %s.",
+            solution.getSolver(), bestCosts, solution.getCosts()));
+        best = solution;
+        bestCosts = solution.getCosts();
+      }
+    }
+  }
+
+  /**
+   * Waits until the solver may start.
+   *
+   * @return false if the solver is not needed anymore and must not start
+   */
+  boolean launch(Solver solver, long delayMillis) throws InterruptedException {
+    if (delayMillis > 0 && immediate.await(delayMillis, TimeUnit.MILLISECONDS)
+        && best().isPresent()) {
+      return false;
+    }
+    started.add(solver);
+    return true;
+  }
+
+  boolean hasStarted(Solver solver) {
+    return started.contains(solver);
+  }
+
+  /**
+   * The solver returned, an empty solution if it found nothing cheaper than the bound.
+   */
+  void returned(Solver solver, Solution solution) {
+    checkNotNull(solution, "solution is null");
+    results.put(solver, solution);
+    offer(solution);
+    LOGGER.debug(String.format("Missing %s solvers", running.getCount() - 1));
+    if (solution.isOptimal()) {
+      LOGGER.debug(String.format("Received solution by solver %s is optimal. Exiting early",
+          solution.getSolver()));
+      while (running.getCount() > 0) {
+        running.countDown();
+      }
+      while (immediate.getCount() > 0) {
+        immediate.countDown();
+      }
+    } else {
+      countDown(solver);
+    }
+  }
+
+  /**
+   * The solver failed, or was interrupted before it started.
+   */
+  void failed(Solver solver) {
+    if (hasStarted(solver)) {
+      failed.add(solver);
+    }
+    countDown(solver);
+  }
+
+  private void countDown(Solver solver) {
+    if (!staggered.contains(solver)) {
+      immediate.countDown();
+    }
+    running.countDown();
+  }
+
+  /**
+   * Waits until the race ended or the timeout passed, returning the best solution found.
+   */
+  Optional<Solution> await(long timeout, TimeUnit timeUnit) throws InterruptedException {
+    running.await(timeout, timeUnit);
+    return best();
+  }
+
+  Optional<Solution> best() {
+    synchronized (lock) {
+      return Optional.ofNullable(best);
+    }
+  }
+
+  long solutions() {
+    return results.values().stream().filter(solution -> !solution.isEmpty()).count();
+  }
+
+  Optional<Solution> result(Solver solver) {
+    return Optional.ofNullable(results.get(solver));
+  }
+
+  /**
+   * How the solver did in the race, for the history of the {@link SolverPortfolio}.
+   */
+  Outcome outcome(Solver solver) {
+    final Optional<Solution> best = best();
+    if (best.isPresent() && solver.getClass().equals(best.get().getSolver())) {
+      return Outcome.WON;
+    }
+    final Solution result = results.get(solver);
+    if (result != null && !result.isEmpty()) {
+      return Outcome.LOST;
+    }
+    if (failed.contains(solver)) {
+      return Outcome.FAILED;
+    }
+    //nothing cheaper than the bound, or the race ended early with an optimal solution
+    if (best.isPresent() && (result != null || best.get().isOptimal())) {
+      return Outcome.LOST;
+    }
+    return result != null ? Outcome.FAILED : Outcome.TIMEOUT;
+  }
+}
@@ -0,0 +1,259 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import cloudiator.CloudiatorModel;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.ModelSnapshotStore.Snapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Model cache that keeps serving the existing model of a user once it is older than the cache
+ * time, while a new model is generated in the background. The new model replaces the old one
+ * once it is complete. Concurrent refreshes for the same user are merged into one. When the new
+ * model is served for the first time, the other {@link Expirable}s of the user (e.g. the node
+ * candidates and solutions derived from the old model) are expired.
+ * <p>
+ * An explicit {@link #expire(String)} (e.g. after a discovery event) still drops the model, as
+ * the existing model is known to be outdated.
+ * <p>
+ * Generated models are written to the {@link ModelSnapshotStore} in the background. If no model
+ * is in memory, e.g. after a restart, the snapshot is served and revalidated in the background.
+ * The revalidations are spread randomly over the cache time so a restart does not rediscover all
+ * users at once.
+ * <p>
+ * The strings of served models are interned by the {@link ModelStringInterner}.
+ *
+ * @see MemoryCachedModelGenerator
+ */
+@Singleton
+public class RefreshingModelGenerator implements ModelGenerator, Expirable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefreshingModelGenerator.class);
+  private static final int REFRESH_THREADS = 2;
+  private static final long DEFAULT_REVALIDATION_SPREAD = TimeUnit.MINUTES.toMillis(1);
+
+  private final LoadingCache<String, GeneratedModel> modelCache;
+  private final ModelGenerator delegate;
+  private final ScheduledExecutorService refreshExecutor;
+  private final ModelSnapshotStore modelSnapshotStore;
+  private final ModelStringInterner modelStringInterner;
+  private final Provider<Set<Expirable>> expirables;
+  private final long revalidationSpread;
+
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder failedRefreshes = new LongAdder();
+  private final AtomicLong lastRefreshDuration = new AtomicLong();
+  private final LongAccumulator maxRefreshDuration = new LongAccumulator(Math::max, 0);
+  private final Histogram generationTime;
+
+  @Inject
+  public RefreshingModelGenerator(@Named("Base") ModelGenerator delegate,
+      @Named("cacheTime") int cacheTime, ModelSnapshotStore modelSnapshotStore,
+      ModelStringInterner modelStringInterner, Provider<Set<Expirable>> expirables,
+      MetricsRegistry metricsRegistry) {
+
+    checkArgument(cacheTime >= 0 || cacheTime == MemoryCachedModelGenerator.CACHE_INFINITE,
+        "cacheTime needs to be larger than zero or CACHE_INFINITE");
+
+    this.delegate = delegate;
+    this.modelSnapshotStore = modelSnapshotStore;
+    this.modelStringInterner = modelStringInterner;
+    this.expirables = expirables;
+    this.generationTime = metricsRegistry
+        .timer("matchmaking_model_generation_seconds", "Time to generate the model of a user.");
+    this.revalidationSpread =
+        cacheTime > 0 ? TimeUnit.SECONDS.toMillis(cacheTime) : DEFAULT_REVALIDATION_SPREAD;
+    this.refreshExecutor = Executors.newScheduledThreadPool(REFRESH_THREADS,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("model-refresh-%d").build());
+
+    final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+    if (cacheTime != MemoryCachedModelGenerator.CACHE_INFINITE) {
+      //refreshAfterWrite does not accept zero, refresh on every access instead
+      cacheBuilder.refreshAfterWrite(Math.max(TimeUnit.SECONDS.toNanos(cacheTime), 1),
+          TimeUnit.NANOSECONDS);
+    }
+
+    this.modelCache = cacheBuilder.build(new CacheLoader<String, GeneratedModel>() {
+      @Override
+      public GeneratedModel load(String userId) throws ModelGenerationException {
+        final Optional<Snapshot> snapshot = modelSnapshotStore.load(userId);
+        if (snapshot.isPresent()) {
+          scheduleRevalidation(userId);
+          return new GeneratedModel(modelStringInterner.intern(snapshot.get().cloudiatorModel()),
+              snapshot.get().createdAt(), false);
+        }
+        return generate(userId, false);
+      }
+
+      @Override
+      public ListenableFuture<GeneratedModel> reload(String userId, GeneratedModel oldValue) {
+        LOGGER.debug(String
+            .format("Refreshing model of user %s in background, serving model of age %s ms.",
+                userId, oldValue.age()));
+        final ListenableFutureTask<GeneratedModel> task = ListenableFutureTask.create(() -> {
+          try {
+            return generate(userId, true);
+          } catch (Exception e) {
+            failedRefreshes.increment();
+            LOGGER.warn(String
+                .format("Refresh of model for user %s failed. Keeping existing model.", userId),
+                e);
+            throw e;
+          }
+        });
+        refreshExecutor.execute(task);
+        return task;
+      }
+    });
+
+    metricsRegistry.cache("model_refreshing", modelCache);
+    metricsRegistry.counter("matchmaking_model_refreshes_total", "Model refreshes.",
+        refreshes::sum, "result", "success");
+    metricsRegistry.counter("matchmaking_model_refreshes_total", "Model refreshes.",
+        failedRefreshes::sum, "result", "failed");
+  }
+
+  private GeneratedModel generate(String userId, boolean replacing)
+      throws ModelGenerationException {
+    final long start = System.nanoTime();
+    final CloudiatorModel cloudiatorModel = delegate.generateModel(userId);
+    final long durationNanos = System.nanoTime() - start;
+    generationTime.observeNanos(durationNanos);
+    final long duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+
+    refreshes.increment();
+    lastRefreshDuration.set(duration);
+    maxRefreshDuration.accumulate(duration);
+    LOGGER.debug(String.format("Generated model for user %s in %s ms.", userId, duration));
+
+    final long generatedAt = System.currentTimeMillis();
+    final CloudiatorModel internedModel = modelStringInterner.intern(cloudiatorModel);
+    //the model is no longer modified once interned, write it without blocking the request
+    refreshExecutor.execute(() -> modelSnapshotStore.save(userId, internedModel, generatedAt));
+    return new GeneratedModel(internedModel, generatedAt, replacing);
+  }
+
+  private void scheduleRevalidation(String userId) {
+    final long delay = ThreadLocalRandom.current().nextLong(revalidationSpread + 1);
+    LOGGER.debug(String
+        .format("Serving model snapshot of user %s, revalidating in %s ms.", userId, delay));
+    refreshExecutor.schedule(() -> modelCache.refresh(userId), delay, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public CloudiatorModel generateModel(String userId) throws ModelGenerationException {
+    try {
+      final GeneratedModel generatedModel = modelCache.get(userId);
+      if (generatedModel.replaced()) {
+        expireDerived(userId);
+      }
+      return generatedModel.cloudiatorModel;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof ModelGenerationException) {
+        throw (ModelGenerationException) e.getCause();
+      }
+      throw new IllegalStateException("Unexpected exception during generation of model.",
+          e.getCause());
+    }
+  }
+
+  private void expireDerived(String userId) {
+    LOGGER.debug(String.format("Serving refreshed model of user %s, expiring derived caches.",
+        userId));
+    for (Expirable expirable : expirables.get()) {
+      //the refreshed model itself stays
+      if (expirable != this) {
+        expirable.expire(userId);
+      }
+    }
+  }
+
+  /**
+   * Age of the model currently served for the user in milliseconds.
+   */
+  public Optional<Long> modelAge(String userId) {
+    return Optional.ofNullable(modelCache.getIfPresent(userId)).map(GeneratedModel::age);
+  }
+
+  public long refreshes() {
+    return refreshes.sum();
+  }
+
+  public long failedRefreshes() {
+    return failedRefreshes.sum();
+  }
+
+  public long lastRefreshDuration() {
+    return lastRefreshDuration.get();
+  }
+
+  public long maxRefreshDuration() {
+    return maxRefreshDuration.get();
+  }
+
+  @Override
+  public void expire(String userId) {
+    modelCache.invalidate(userId);
+    modelSnapshotStore.delete(userId);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("models", modelCache.size())
+        .add("refreshes", refreshes()).add("failedRefreshes", failedRefreshes())
+        .add("lastRefreshDuration", lastRefreshDuration())
+        .add("maxRefreshDuration", maxRefreshDuration()).toString();
+  }
+
+  private static class GeneratedModel {
+
+    private final CloudiatorModel cloudiatorModel;
+    private final long generatedAt;
+    //set until the caches derived from the replaced model are expired
+    private final AtomicBoolean replacing;
+
+    private GeneratedModel(CloudiatorModel cloudiatorModel, long generatedAt,
+        boolean replacing) {
+      this.cloudiatorModel = cloudiatorModel;
+      this.generatedAt = generatedAt;
+      this.replacing = new AtomicBoolean(replacing);
+    }
+
+    /**
+     * True for the first caller after this model replaced an older one.
+     */
+    private boolean replaced() {
+      return replacing.compareAndSet(true, false);
+    }
+
+    private long age() {
+      return System.currentTimeMillis() - generatedAt;
+    }
+  }
+}
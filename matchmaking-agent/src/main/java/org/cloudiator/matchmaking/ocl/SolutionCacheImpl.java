@@ -11,8 +11,10 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 
 @SuppressWarnings("UnstableApiUsage")
 @Singleton
@@ -22,7 +24,7 @@ public class SolutionCacheImpl implements SolutionCache {
   private static final int EXPIRED_DURATION = 30;
 
   private static final Cache<CacheKey, Solution> EXPIRED_CACHE = CacheBuilder.newBuilder()
-      .expireAfterWrite(EXPIRED_DURATION, TimeUnit.MINUTES).build();
+      .expireAfterWrite(EXPIRED_DURATION, TimeUnit.MINUTES).recordStats().build();
 
   private static final RemovalListener<CacheKey, Solution> REMOVAL_LISTENER = new RemovalListener<CacheKey, Solution>() {
     public void onRemoval(RemovalNotification<CacheKey, Solution> removal) {
@@ -37,7 +39,13 @@ public class SolutionCacheImpl implements SolutionCache {
 
   private static final Cache<CacheKey, Solution> LIVE_CACHE = CacheBuilder.newBuilder()
       .expireAfterWrite(LIVE_DURATION, TimeUnit.MINUTES).removalListener(
-          REMOVAL_LISTENER).build();
+          REMOVAL_LISTENER).recordStats().build();
+
+  @Inject
+  public SolutionCacheImpl(MetricsRegistry metricsRegistry) {
+    metricsRegistry.cache("solution_live", LIVE_CACHE);
+    metricsRegistry.cache("solution_expired", EXPIRED_CACHE);
+  }
 
 
   @Override
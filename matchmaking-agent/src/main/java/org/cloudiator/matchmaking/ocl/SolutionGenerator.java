@@ -1,13 +1,21 @@
 package org.cloudiator.matchmaking.ocl;
 
 import java.util.List;
-import org.cloudiator.matchmaking.domain.Solution;
+import java.util.function.IntPredicate;
 
 public interface SolutionGenerator {
 
   int nodeCandidatesSize();
 
-  List<Solution> generateInitialSolutions();
+  CandidateIndex candidateIndex();
 
-  List<Solution> getChilds(Solution solution);
+  List<CompactSolution> generateInitialSolutions();
+
+  List<CompactSolution> getChilds(CompactSolution solution);
+
+  /**
+   * Generates only the children whose added candidate is accepted by the filter. Rejected
+   * children are never allocated.
+   */
+  List<CompactSolution> getChilds(CompactSolution solution, IntPredicate candidateFilter);
 }
@@ -0,0 +1,69 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded memo of the evaluation results of a search, keyed by the candidate multiset of a {@link
+ * CompactSolution}. The same multiset is reached over different parents ({A,B} from A+B and from
+ * B+A), so the memo is shared across the children of a generation and across node size
+ * iterations.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class SolutionMemo {
+
+  public static final long DEFAULT_SIZE = 1 << 17;
+
+  private final Cache<CompactSolution, Entry> cache;
+
+  public SolutionMemo(long maximumSize) {
+    checkArgument(maximumSize > 0, "maximumSize needs to be larger than zero");
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  private Entry entry(CompactSolution solution) {
+    Entry entry = cache.getIfPresent(solution);
+    if (entry == null) {
+      entry = new Entry();
+      cache.put(solution, entry);
+    }
+    return entry;
+  }
+
+  public int violations(CompactSolution solution, ToIntFunction<CompactSolution> checker) {
+    final Entry entry = entry(solution);
+    if (entry.violations < 0) {
+      entry.violations = checker.applyAsInt(solution);
+      entry.constraintState = solution.constraintState();
+    } else if (entry.constraintState != null && solution.constraintState() == null) {
+      //children of this solution can still be evaluated incrementally
+      solution.constraintState(entry.constraintState);
+    }
+    return entry.violations;
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public String toString() {
+    final CacheStats stats = stats();
+    return MoreObjects.toStringHelper(this).add("size", cache.size())
+        .add("hitRate", stats.hitRate()).add("requests", stats.requestCount())
+        .add("evictions", stats.evictionCount()).toString();
+  }
+
+  private static class Entry {
+
+    private int violations = -1;
+    @Nullable
+    private long[] constraintState;
+  }
+}
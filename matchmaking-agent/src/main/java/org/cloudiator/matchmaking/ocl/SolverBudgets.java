@@ -0,0 +1,62 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import java.util.Map;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+
+/**
+ * Budgets of the solvers, configured below {@code matchmaking.budget}. Solvers are identified by
+ * their simple class name in {@code matchmaking.budget.solvers}, missing values fall back to the
+ * default budget.
+ */
+public class SolverBudgets {
+
+  public static final SolverBudgets UNLIMITED = new SolverBudgets(SolverBudget.UNLIMITED,
+      ImmutableMap.of());
+
+  private final SolverBudget defaultBudget;
+  private final Map<String, SolverBudget> budgets;
+
+  private SolverBudgets(SolverBudget defaultBudget, Map<String, SolverBudget> budgets) {
+    this.defaultBudget = defaultBudget;
+    this.budgets = budgets;
+  }
+
+  public static SolverBudgets of(Config config) {
+    checkNotNull(config, "config is null");
+    ImmutableMap.Builder<String, SolverBudget> budgets = ImmutableMap.builder();
+    if (config.hasPath("solvers")) {
+      final Config solvers = config.getConfig("solvers");
+      for (String solver : solvers.root().keySet()) {
+        budgets.put(solver, budget(solvers.getConfig(solver).withFallback(config)));
+      }
+    }
+    return new SolverBudgets(budget(config), budgets.build());
+  }
+
+  private static SolverBudget budget(Config config) {
+    return SolverBudget.builder()
+        .timeMillis(config.getLong("timeMillis"))
+        .nodeLimit(config.getLong("nodeLimit"))
+        .failLimit(config.getLong("failLimit"))
+        .maxGenerationSize(config.getInt("maxGenerationSize"))
+        .heapFraction(config.getDouble("heapFraction"))
+        .build();
+  }
+
+  public SolverBudget budget(Solver solver) {
+    checkNotNull(solver, "solver is null");
+    return budgets.getOrDefault(solver.getClass().getSimpleName(), defaultBudget);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("default", defaultBudget).add("solvers", budgets)
+        .toString();
+  }
+}
@@ -4,18 +4,24 @@ import cloudiator.CloudiatorModel;
 import com.google.common.base.Joiner;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import de.uniulm.omi.cloudiator.util.StreamUtil;
 import io.github.cloudiator.domain.Node;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.inject.Named;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
 import org.cloudiator.matchmaking.domain.Solution;
 import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.Histogram;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Span;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,16 +35,48 @@ public class SolverHandler {
   private final ModelGenerator modelGenerator;
   private final int solvingTime;
   private final ByonCache byonCache;
+  private final SolverBudgets solverBudgets;
+  private final SolvingDeadlines solvingDeadlines;
+  private final SolverPortfolio solverPortfolio;
+  private final NodeCandidateCache nodeCandidateCache;
+  private final MetricsRegistry metricsRegistry;
+  private final PriceModelGenerator priceModelGenerator;
+  private final Tracer tracer;
+  //requests waiting for the running one, solving is sequential
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final Histogram modelTime;
+  private final Histogram candidateTime;
+  private final Histogram solvingTimer;
 
   @Inject
   public SolverHandler(
       ModelGenerator modelGenerator, Set<Solver> solvers, @Named("solvingTime") int solvingTime,
-      ByonCache byonCache) {
+      ByonCache byonCache, MetricsRegistry metricsRegistry, SolverBudgets solverBudgets,
+      SolvingDeadlines solvingDeadlines, SolverPortfolio solverPortfolio,
+      NodeCandidateCache nodeCandidateCache, PriceModelGenerator priceModelGenerator,
+      Tracer tracer) {
     this.modelGenerator = modelGenerator;
+    this.solverBudgets = solverBudgets;
+    this.solvingDeadlines = solvingDeadlines;
+    this.solverPortfolio = solverPortfolio;
     this.solvers = solvers;
     this.byonCache = byonCache;
     this.solvingTime = solvingTime;
-
+    this.nodeCandidateCache = nodeCandidateCache;
+    this.metricsRegistry = metricsRegistry;
+    this.priceModelGenerator = priceModelGenerator;
+    this.tracer = tracer;
+    metricsRegistry.gauge("matchmaking_solver_queue_depth",
+        "Solving requests waiting for the running one.", waiting::get);
+    this.modelTime = metricsRegistry
+        .timer("matchmaking_request_seconds", "Time spent per phase of a solving request.",
+            "phase", "model");
+    this.candidateTime = metricsRegistry
+        .timer("matchmaking_request_seconds", "Time spent per phase of a solving request.",
+            "phase", "candidates");
+    this.solvingTimer = metricsRegistry
+        .timer("matchmaking_request_seconds", "Time spent per phase of a solving request.",
+            "phase", "solving");
   }
 
   private Optional<Solution> generateExistingSolution(List<Node> existingNodes,
@@ -54,9 +92,8 @@ public class SolverHandler {
         throw new ModelGenerationException(
             String.format("NodeCandidate for node %s is unknown.", existingNode));
       }
-      final Optional<NodeCandidate> existingNodeCandidate = nodeCandidates.stream()
-          .filter(nodeCandidate -> nodeCandidate.id().equals(existingNode.nodeCandidate().get()))
-          .collect(StreamUtil.getOnly());
+      final Optional<NodeCandidate> existingNodeCandidate = Optional
+          .ofNullable(nodeCandidates.getById(existingNode.nodeCandidate().get()));
 
       candidates.add(existingNodeCandidate.orElseThrow(() -> new ModelGenerationException(String
           .format("NodeCandidate with id %s is no longer valid.",
@@ -76,10 +113,42 @@ public class SolverHandler {
   }
 
   @Nullable
-  public synchronized Solution solve(OclCsp csp, String userId)
+  public Solution solve(OclCsp csp, String userId) throws ModelGenerationException {
+    return solve(csp, userId, solvingDeadlines.start());
+  }
+
+  /**
+   * Solves the csp until the deadline of the given budget, which started with the request.
+   */
+  @Nullable
+  public Solution solve(OclCsp csp, String userId, SolverBudget deadline)
       throws ModelGenerationException {
+    try (Span span = tracer.startChild("solve")) {
+      waiting.incrementAndGet();
+      synchronized (this) {
+        waiting.decrementAndGet();
+        try {
+          return solveInternal(csp, userId, span, deadline);
+        } catch (ModelGenerationException | RuntimeException e) {
+          span.error(e);
+          throw e;
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private Solution solveInternal(OclCsp csp, String userId, Span span, SolverBudget deadline)
+      throws ModelGenerationException {
+
+    span.attribute("remainingMillis", deadline.remainingMillis());
+    if (deadline.deadlinePassed()) {
+      LOGGER.warn(String.format("Deadline of CSP %s passed before solving started.", csp));
+      return Solution.EMPTY_SOLUTION;
+    }
 
     final int nodeSize = deriveNodeSize(csp.getExistingNodes(), csp.getMinimumNodeSize());
+    span.attribute("nodeSize", nodeSize);
 
     ConstraintChecker cc = ConstraintChecker.create(csp);
 
@@ -88,20 +157,30 @@ public class SolverHandler {
             this, csp, userId,
             nodeSize));
 
-    final CloudiatorModel cloudiatorModel = modelGenerator.generateModel(userId);
+    final long startModel = System.nanoTime();
+    final CloudiatorModel cloudiatorModel;
+    try (Span modelSpan = tracer.startChild("model.generation")) {
+      cloudiatorModel = modelGenerator.generateModel(userId);
+      modelSpan.attribute("clouds", cloudiatorModel.getClouds().size());
+    }
+    modelTime.observeNanos(System.nanoTime() - startModel);
     NodeGenerator nodeGenerator =
         new QuotaFilter(
             cloudiatorModel, new ConsistentNodeGenerator(
-            NodeCandidateCache
+            nodeCandidateCache
                 .cache(userId,
-                    new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, byonCache
-                    )),
-            cc), csp.getQuotaSet());
+                    new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, byonCache,
+                        metricsRegistry, tracer, priceModelGenerator, userId)),
+            cc, metricsRegistry, tracer), csp.getQuotaSet(), tracer);
 
     long startGeneration = System.currentTimeMillis();
 
     //generate node candidates
-    final NodeCandidates possibleNodes = nodeGenerator.get();
+    final NodeCandidates possibleNodes;
+    try (Span candidateSpan = tracer.startChild("candidates.generation")) {
+      possibleNodes = nodeGenerator.get();
+      candidateSpan.attribute("candidates", possibleNodes.size());
+    }
 
     LOGGER.debug(String.format("CSP %s has %s possible candidates.", csp,
         possibleNodes.size()));
@@ -117,6 +196,7 @@ public class SolverHandler {
         possibleNodes);
 
     long generationTime = System.currentTimeMillis() - startGeneration;
+    candidateTime.observeNanos(TimeUnit.MILLISECONDS.toNanos(generationTime));
     LOGGER.info(
         String.format("Possible candidate generation for CSP %s took %s", csp, generationTime));
 
@@ -124,11 +204,14 @@ public class SolverHandler {
         String.format("Start solving of csp: %s using the following solvers: %s", csp,
             Joiner.on(",").join(solvers)));
 
-    MetaSolver metaSolver = new MetaSolver(solvers, solvingTime);
+    MetaSolver metaSolver = new MetaSolver(solvers, solvingTime, solverBudgets,
+        solverPortfolio, metricsRegistry, tracer);
 
+    final long startSolving = System.nanoTime();
     try {
       final Solution solve = metaSolver
-          .solve(csp, possibleNodes, existingSolution.orElse(null), nodeSize);
+          .solve(csp, possibleNodes, existingSolution.orElse(null), nodeSize, deadline);
+      solvingTimer.observeNanos(System.nanoTime() - startSolving);
 
       if (solve.isEmpty()) {
         LOGGER.info(
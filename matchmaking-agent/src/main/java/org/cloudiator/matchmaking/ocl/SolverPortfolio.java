@@ -0,0 +1,374 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.Config;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the solvers the {@link MetaSolver} launches, based on how they performed on earlier
+ * problems with the same {@link CspFeatures}.
+ * <p>
+ * Until a problem shape has {@code minSamples} requests all solvers start at once. Afterwards
+ * solvers with a (Laplace smoothed) win rate below {@code minWinRate} are unlikely to win: they
+ * start once the likely solvers took twice as long as they usually need to win, at most after
+ * {@code maxStaggerMillis}, or not at all if that is zero. Every {@code exploreEvery}th request of a
+ * shape starts all solvers, so the history does not go stale.
+ * <p>
+ * The history is configured below {@code matchmaking.portfolio} and written to a tab separated
+ * file in {@code directory}, an empty directory keeps it in memory only.
+ */
+public class SolverPortfolio {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SolverPortfolio.class);
+  private static final String HEADER = "#solver-history 1";
+  private static final String FILE_NAME = "solver-history.tsv";
+  private static final Splitter TAB = Splitter.on('\t');
+  //weight of the latest time to solution in its moving average
+  private static final double ALPHA = 0.2;
+
+  private final boolean enabled;
+  @Nullable
+  private final Path directory;
+  private final int minSamples;
+  private final double minWinRate;
+  private final long maxStaggerMillis;
+  private final int exploreEvery;
+  private final MetricsRegistry metricsRegistry;
+  //features key -> solver name -> stats
+  private final Map<String, Map<String, Stats>> history = new TreeMap<>();
+  private final Map<String, Integer> requests = new HashMap<>();
+
+  SolverPortfolio(boolean enabled, @Nullable Path directory, int minSamples, double minWinRate,
+      long maxStaggerMillis, int exploreEvery, MetricsRegistry metricsRegistry) {
+    checkArgument(minSamples >= 0, "minSamples needs to be positive");
+    checkArgument(minWinRate >= 0 && minWinRate <= 1, "minWinRate needs to be within [0, 1]");
+    checkArgument(maxStaggerMillis >= 0, "maxStaggerMillis needs to be positive");
+    checkArgument(exploreEvery >= 0, "exploreEvery needs to be positive");
+    checkNotNull(metricsRegistry, "metricsRegistry is null");
+    this.enabled = enabled;
+    this.directory = directory;
+    this.minSamples = minSamples;
+    this.minWinRate = minWinRate;
+    this.maxStaggerMillis = maxStaggerMillis;
+    this.exploreEvery = exploreEvery;
+    this.metricsRegistry = metricsRegistry;
+    load();
+  }
+
+  /**
+   * Portfolio that always starts all solvers at once.
+   */
+  public static SolverPortfolio all(MetricsRegistry metricsRegistry) {
+    return new SolverPortfolio(false, null, 0, 0, 0, 0, metricsRegistry);
+  }
+
+  public static SolverPortfolio of(Config config, MetricsRegistry metricsRegistry) {
+    checkNotNull(config, "config is null");
+    final String directory = config.getString("directory");
+    return new SolverPortfolio(config.getBoolean("enabled"),
+        Strings.isNullOrEmpty(directory) ? null : Paths.get(directory),
+        config.getInt("minSamples"), config.getDouble("minWinRate"),
+        config.getLong("maxStaggerMillis"), config.getInt("exploreEvery"), metricsRegistry);
+  }
+
+  private static String name(Solver solver) {
+    return solver.getClass().getSimpleName();
+  }
+
+  /**
+   * Decides when to start each of the given solvers for a problem with the given features.
+   */
+  public synchronized Plan plan(CspFeatures features, Collection<Solver> solvers) {
+    checkNotNull(features, "features is null");
+    checkNotNull(solvers, "solvers is null");
+
+    if (!enabled || explore(features)) {
+      return count(features, Plan.immediately(solvers));
+    }
+
+    final Map<String, Stats> stats = history.getOrDefault(features.key(), ImmutableMap.of());
+    List<Solver> likely = new ArrayList<>();
+    List<Solver> unlikely = new ArrayList<>();
+    for (Solver solver : solvers) {
+      final Stats solverStats = stats.getOrDefault(name(solver), Stats.NONE);
+      if (solverStats.runs < minSamples || solverStats.winRate() >= minWinRate) {
+        likely.add(solver);
+      } else {
+        unlikely.add(solver);
+      }
+    }
+    if (likely.isEmpty() && !unlikely.isEmpty()) {
+      Solver best = unlikely.get(0);
+      for (Solver solver : unlikely) {
+        if (stats.getOrDefault(name(solver), Stats.NONE).winRate()
+            > stats.getOrDefault(name(best), Stats.NONE).winRate()) {
+          best = solver;
+        }
+      }
+      unlikely.remove(best);
+      likely.add(best);
+    }
+
+    long usualWinMillis = 0;
+    for (Solver solver : likely) {
+      usualWinMillis = Math.max(usualWinMillis,
+          stats.getOrDefault(name(solver), Stats.NONE).winMillis);
+    }
+    final long delay =
+        usualWinMillis == 0 ? maxStaggerMillis : Math.min(maxStaggerMillis, 2 * usualWinMillis);
+
+    Map<Solver, Long> launches = new LinkedHashMap<>();
+    likely.forEach(solver -> launches.put(solver, 0L));
+    if (delay > 0) {
+      unlikely.forEach(solver -> launches.put(solver, delay));
+      unlikely.clear();
+    }
+    return count(features, new Plan(launches, unlikely));
+  }
+
+  private boolean explore(CspFeatures features) {
+    final int request = requests.merge(features.key(), 1, Integer::sum);
+    return exploreEvery > 0 && request % exploreEvery == 0;
+  }
+
+  private Plan count(CspFeatures features, Plan plan) {
+    plan.launches().forEach((solver, delay) -> metricsRegistry
+        .counter("matchmaking_portfolio_launches_total", "Solver launches by the portfolio.",
+            "solver", name(solver), "launch", delay == 0 ? "immediate" : "staggered").inc());
+    plan.skipped().forEach(solver -> metricsRegistry
+        .counter("matchmaking_portfolio_launches_total", "Solver launches by the portfolio.",
+            "solver", name(solver), "launch", "skipped").inc());
+    LOGGER.debug(String.format("Portfolio plan for %s: %s", features, plan));
+    return plan;
+  }
+
+  /**
+   * Records how a launched solver did on a problem with the given features.
+   */
+  public synchronized void record(CspFeatures features, Solver solver, Outcome outcome,
+      long millis) {
+    checkNotNull(features, "features is null");
+    checkNotNull(solver, "solver is null");
+    checkNotNull(outcome, "outcome is null");
+    if (!enabled) {
+      return;
+    }
+    history.computeIfAbsent(features.key(), k -> new TreeMap<>())
+        .computeIfAbsent(name(solver), k -> new Stats()).add(outcome, millis);
+  }
+
+  /**
+   * Writes the history to disk, if a directory is configured.
+   */
+  public synchronized void save() {
+    if (!enabled || directory == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      final Path tmp = Files.createTempFile(directory, "solver-history", ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        writer.write(HEADER);
+        writer.newLine();
+        for (Entry<String, Map<String, Stats>> features : history.entrySet()) {
+          for (Entry<String, Stats> solver : features.getValue().entrySet()) {
+            final Stats stats = solver.getValue();
+            writer.write(String.join("\t", features.getKey(), solver.getKey(),
+                String.valueOf(stats.runs), String.valueOf(stats.wins),
+                String.valueOf(stats.failures), String.valueOf(stats.winMillis)));
+            writer.newLine();
+          }
+        }
+      }
+      Files.move(tmp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOGGER.warn(String.format("Could not write solver history to %s.", directory), e);
+    }
+  }
+
+  private void load() {
+    if (!enabled || directory == null || !Files.exists(directory.resolve(FILE_NAME))) {
+      return;
+    }
+    final Path file = directory.resolve(FILE_NAME);
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      if (!HEADER.equals(reader.readLine())) {
+        throw new IOException("Unknown solver history format.");
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final List<String> fields = TAB.splitToList(line);
+        if (fields.size() != 6) {
+          throw new IOException(String.format("Invalid line %s.", line));
+        }
+        history.computeIfAbsent(fields.get(0), k -> new TreeMap<>())
+            .put(fields.get(1), new Stats(Long.parseLong(fields.get(2)),
+                Long.parseLong(fields.get(3)), Long.parseLong(fields.get(4)),
+                Long.parseLong(fields.get(5))));
+      }
+      LOGGER.info(String.format("Loaded solver history of %s problem shapes from %s.",
+          history.size(), file));
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(String.format("Discarding unreadable solver history %s: %s", file,
+          e.getMessage()));
+      history.clear();
+    }
+  }
+
+  synchronized Stats stats(CspFeatures features, Solver solver) {
+    return history.getOrDefault(features.key(), ImmutableMap.of())
+        .getOrDefault(name(solver), Stats.NONE);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("enabled", enabled).add("directory", directory)
+        .add("minSamples", minSamples).add("minWinRate", minWinRate)
+        .add("maxStaggerMillis", maxStaggerMillis).add("exploreEvery", exploreEvery).toString();
+  }
+
+  public enum Outcome {
+    /**
+     * Found the solution that was returned.
+     */
+    WON,
+    /**
+     * Found a solution, but not the best one.
+     */
+    LOST,
+    /**
+     * Returned without a solution or failed.
+     */
+    FAILED,
+    /**
+     * Did not return before the meta solver finished.
+     */
+    TIMEOUT
+  }
+
+  static class Stats {
+
+    private static final Stats NONE = new Stats();
+
+    private long runs;
+    private long wins;
+    private long failures;
+    //moving average of the time to a winning solution
+    private long winMillis;
+
+    private Stats() {
+    }
+
+    private Stats(long runs, long wins, long failures, long winMillis) {
+      this.runs = runs;
+      this.wins = wins;
+      this.failures = failures;
+      this.winMillis = winMillis;
+    }
+
+    private void add(Outcome outcome, long millis) {
+      runs++;
+      switch (outcome) {
+        case WON:
+          winMillis = wins == 0 ? millis : Math.round(ALPHA * millis + (1 - ALPHA) * winMillis);
+          wins++;
+          break;
+        case FAILED:
+        case TIMEOUT:
+          failures++;
+          break;
+        default:
+          break;
+      }
+    }
+
+    long runs() {
+      return runs;
+    }
+
+    long wins() {
+      return wins;
+    }
+
+    long failures() {
+      return failures;
+    }
+
+    long winMillis() {
+      return winMillis;
+    }
+
+    double winRate() {
+      return (wins + 1d) / (runs + 2d);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("runs", runs).add("wins", wins)
+          .add("failures", failures).add("winMillis", winMillis).toString();
+    }
+  }
+
+  /**
+   * When to start which solver: the launches map the solvers to their delay in milliseconds.
+   */
+  public static class Plan {
+
+    private final Map<Solver, Long> launches;
+    private final Set<Solver> skipped;
+
+    private Plan(Map<Solver, Long> launches, Collection<Solver> skipped) {
+      this.launches = ImmutableMap.copyOf(launches);
+      this.skipped = ImmutableSet.copyOf(skipped);
+    }
+
+    static Plan immediately(Collection<Solver> solvers) {
+      Map<Solver, Long> launches = new LinkedHashMap<>();
+      solvers.forEach(solver -> launches.put(solver, 0L));
+      return new Plan(launches, ImmutableSet.of());
+    }
+
+    public Map<Solver, Long> launches() {
+      return launches;
+    }
+
+    public Set<Solver> skipped() {
+      return skipped;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("launches", launches).add("skipped", skipped)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+
+/**
+ * Deadline of solving requests in milliseconds. The request messages cannot ask for a deadline,
+ * so every request gets the same one.
+ */
+public class SolvingDeadlines {
+
+  private final long defaultMillis;
+
+  public SolvingDeadlines(long defaultMillis) {
+    checkArgument(defaultMillis > 0, "defaultMillis needs to be larger than zero");
+    this.defaultMillis = defaultMillis;
+  }
+
+  /**
+   * Uses the legacy solving time in minutes if no deadline is configured.
+   */
+  static SolvingDeadlines of(long defaultMillis, int solvingTime) {
+    return new SolvingDeadlines(
+        defaultMillis > 0 ? defaultMillis : TimeUnit.MINUTES.toMillis(solvingTime));
+  }
+
+  /**
+   * Starts the deadline of a request now.
+   */
+  public SolverBudget start() {
+    return SolverBudget.deadline(defaultMillis);
+  }
+
+  public long defaultMillis() {
+    return defaultMillis;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("defaultMillis", defaultMillis).toString();
+  }
+}
@@ -0,0 +1,47 @@
+package org.cloudiator.matchmaking.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends every trace as one line of OTLP/JSON to a local file, which can be replayed to a
+ * collector later on.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileSpanExporter.class);
+
+  private final Path file;
+
+  public FileSpanExporter(Path file) {
+    checkNotNull(file, "file is null");
+    this.file = file;
+  }
+
+  @Override
+  public synchronized void export(List<Span> spans) {
+    try (BufferedWriter writer = Files
+        .newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+      writer.write(OtlpJson.encode(spans));
+      writer.newLine();
+    } catch (IOException e) {
+      LOGGER.warn(String.format("%s could not write %s spans.", this, spans.size()), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("file", file).toString();
+  }
+}
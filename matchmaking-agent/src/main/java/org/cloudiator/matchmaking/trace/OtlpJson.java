@@ -0,0 +1,122 @@
+package org.cloudiator.matchmaking.trace;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes spans as an OTLP/JSON {@code ExportTraceServiceRequest}, the format accepted on {@code
+ * /v1/traces} of OpenTelemetry collectors.
+ */
+final class OtlpJson {
+
+  private static final String SERVICE_NAME = "matchmaking-agent";
+  private static final String SCOPE_NAME = "org.cloudiator.matchmaking";
+  private static final int KIND_INTERNAL = 1;
+
+  private OtlpJson() {
+    throw new AssertionError("Do not instantiate");
+  }
+
+  static String encode(List<Span> spans) {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+    attribute(builder, "service.name", SERVICE_NAME);
+    builder.append("]},\"scopeSpans\":[{\"scope\":{\"name\":");
+    string(builder, SCOPE_NAME);
+    builder.append("},\"spans\":[");
+    for (int i = 0; i < spans.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      span(builder, spans.get(i));
+    }
+    return builder.append("]}]}]}").toString();
+  }
+
+  private static void span(StringBuilder builder, Span span) {
+    builder.append("{\"traceId\":");
+    string(builder, span.traceId());
+    builder.append(",\"spanId\":");
+    string(builder, span.spanId());
+    if (span.parent().isPresent()) {
+      builder.append(",\"parentSpanId\":");
+      string(builder, span.parent().get().spanId());
+    }
+    builder.append(",\"name\":");
+    string(builder, span.name());
+    builder.append(",\"kind\":").append(KIND_INTERNAL);
+    //64 bit integers are strings in OTLP/JSON
+    builder.append(",\"startTimeUnixNano\":\"").append(span.startEpochNanos()).append('"');
+    builder.append(",\"endTimeUnixNano\":\"").append(span.endEpochNanos()).append('"');
+    builder.append(",\"attributes\":[");
+    boolean first = true;
+    for (Map.Entry<String, Object> attribute : span.attributes().entrySet()) {
+      if (!first) {
+        builder.append(',');
+      }
+      first = false;
+      attribute(builder, attribute.getKey(), attribute.getValue());
+    }
+    builder.append("],\"status\":{\"code\":").append(span.status().ordinal());
+    if (span.statusMessage().isPresent()) {
+      builder.append(",\"message\":");
+      string(builder, span.statusMessage().get());
+    }
+    builder.append("}}");
+  }
+
+  private static void attribute(StringBuilder builder, String key, Object value) {
+    builder.append("{\"key\":");
+    string(builder, key);
+    builder.append(",\"value\":{");
+    if (value instanceof Boolean) {
+      builder.append("\"boolValue\":").append(value);
+    } else if (value instanceof Double || value instanceof Float) {
+      final double doubleValue = ((Number) value).doubleValue();
+      if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+        builder.append("\"doubleValue\":");
+        string(builder, Double.isNaN(doubleValue) ? "NaN"
+            : doubleValue > 0 ? "Infinity" : "-Infinity");
+      } else {
+        builder.append("\"doubleValue\":").append(doubleValue);
+      }
+    } else if (value instanceof Number) {
+      builder.append("\"intValue\":\"").append(((Number) value).longValue()).append('"');
+    } else {
+      builder.append("\"stringValue\":");
+      string(builder, value.toString());
+    }
+    builder.append("}}");
+  }
+
+  private static void string(StringBuilder builder, String value) {
+    builder.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+    builder.append('"');
+  }
+}
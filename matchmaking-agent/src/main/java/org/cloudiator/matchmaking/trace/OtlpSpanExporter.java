@@ -0,0 +1,79 @@
+package org.cloudiator.matchmaking.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the traces as OTLP/JSON over HTTP to a collector, e.g. {@code
+ * http://localhost:4318/v1/traces}. Sending happens in the background, traces are dropped if the
+ * collector does not keep up.
+ */
+public class OtlpSpanExporter implements SpanExporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OtlpSpanExporter.class);
+  private static final int QUEUE_SIZE = 256;
+  private static final int TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+
+  private final URL endpoint;
+  private final ExecutorService executor;
+
+  public OtlpSpanExporter(URL endpoint) {
+    checkNotNull(endpoint, "endpoint is null");
+    this.endpoint = endpoint;
+    this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("trace-export-%d").setDaemon(true).build());
+  }
+
+  @Override
+  public void export(List<Span> spans) {
+    final String body = OtlpJson.encode(spans);
+    try {
+      executor.execute(() -> send(body));
+    } catch (RejectedExecutionException e) {
+      LOGGER.warn(String.format("%s is dropping %s spans, collector is too slow.", this,
+          spans.size()));
+    }
+  }
+
+  private void send(String body) {
+    try {
+      final HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+      connection.setRequestMethod("POST");
+      connection.setConnectTimeout(TIMEOUT);
+      connection.setReadTimeout(TIMEOUT);
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/json");
+      try (OutputStream outputStream = connection.getOutputStream()) {
+        outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+      final int code = connection.getResponseCode();
+      if (code / 100 != 2) {
+        LOGGER.warn(String.format("%s got response code %s from collector.", this, code));
+      }
+      connection.disconnect();
+    } catch (IOException e) {
+      LOGGER.warn(String.format("%s could not send spans to collector.", this), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("endpoint", endpoint).toString();
+  }
+}
@@ -0,0 +1,153 @@
+package org.cloudiator.matchmaking.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A timed phase of a request. Spans are started by the {@link Tracer} and form a tree per trace,
+ * closing a span ends it. Attributes are strings, numbers or booleans.
+ */
+public class Span implements AutoCloseable {
+
+  public enum Status {
+    UNSET,
+    OK,
+    ERROR
+  }
+
+  private final Tracer tracer;
+  private final Trace trace;
+  private final String spanId;
+  @Nullable
+  private final Span parent;
+  //current span of the starting thread, restored when closed on that thread
+  @Nullable
+  private final Span previous;
+  private final String name;
+  private final long startEpochNanos;
+  private final long startNanos;
+  private final Map<String, Object> attributes = new LinkedHashMap<>();
+  private Status status = Status.UNSET;
+  @Nullable
+  private String statusMessage;
+  private long endEpochNanos = -1;
+
+  Span(Tracer tracer, Trace trace, String spanId, @Nullable Span parent,
+      @Nullable Span previous, String name) {
+    this.tracer = tracer;
+    this.trace = trace;
+    this.spanId = spanId;
+    this.parent = parent;
+    this.previous = previous;
+    this.name = name;
+    this.startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    this.startNanos = System.nanoTime();
+  }
+
+  public synchronized Span attribute(String key, @Nullable Object value) {
+    checkNotNull(key, "key is null");
+    if (value == null) {
+      return this;
+    }
+    if (value instanceof Number || value instanceof Boolean) {
+      attributes.put(key, value);
+    } else {
+      attributes.put(key, value.toString());
+    }
+    return this;
+  }
+
+  /**
+   * Marks the span as failed, the span still needs to be closed.
+   */
+  public synchronized Span error(Throwable throwable) {
+    checkNotNull(throwable, "throwable is null");
+    this.status = Status.ERROR;
+    this.statusMessage = throwable.toString();
+    return this;
+  }
+
+  public synchronized Span ok() {
+    if (status != Status.ERROR) {
+      this.status = Status.OK;
+    }
+    return this;
+  }
+
+  /**
+   * Ends the span. Ending it again has no effect.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (endEpochNanos >= 0) {
+        return;
+      }
+      endEpochNanos = startEpochNanos + (System.nanoTime() - startNanos);
+    }
+    tracer.ended(this);
+    trace.finished(this);
+  }
+
+  public String traceId() {
+    return trace.traceId();
+  }
+
+  public String spanId() {
+    return spanId;
+  }
+
+  public Optional<Span> parent() {
+    return Optional.ofNullable(parent);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public long startEpochNanos() {
+    return startEpochNanos;
+  }
+
+  /**
+   * End of the span in nanoseconds since the epoch, -1 while the span is running.
+   */
+  public synchronized long endEpochNanos() {
+    return endEpochNanos;
+  }
+
+  public synchronized Map<String, Object> attributes() {
+    return ImmutableMap.copyOf(attributes);
+  }
+
+  public synchronized Status status() {
+    return status;
+  }
+
+  public synchronized Optional<String> statusMessage() {
+    return Optional.ofNullable(statusMessage);
+  }
+
+  @Nullable
+  Span previous() {
+    return previous;
+  }
+
+  Trace trace() {
+    return trace;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("name", name).add("traceId", traceId())
+        .add("spanId", spanId).add("attributes", attributes()).add("status", status())
+        .toString();
+  }
+}
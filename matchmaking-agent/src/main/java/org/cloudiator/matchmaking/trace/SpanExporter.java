@@ -0,0 +1,14 @@
+package org.cloudiator.matchmaking.trace;
+
+import java.util.List;
+
+/**
+ * Receives the finished spans of a trace.
+ */
+public interface SpanExporter {
+
+  SpanExporter NONE = spans -> {
+  };
+
+  void export(List<Span> spans);
+}
@@ -0,0 +1,40 @@
+package org.cloudiator.matchmaking.trace;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Paths;
+
+public enum SpanExporters {
+
+  NONE {
+    @Override
+    public SpanExporter create(String target) {
+      return SpanExporter.NONE;
+    }
+  },
+  FILE {
+    @Override
+    public SpanExporter create(String target) {
+      checkArgument(!target.isEmpty(), "traceTarget needs to be a file");
+      return new FileSpanExporter(Paths.get(target));
+    }
+  },
+  OTLP {
+    @Override
+    public SpanExporter create(String target) {
+      try {
+        return new OtlpSpanExporter(new URL(target));
+      } catch (MalformedURLException e) {
+        throw new IllegalArgumentException(
+            String.format("traceTarget %s is not the url of a collector.", target), e);
+      }
+    }
+  };
+
+  /**
+   * @param target the file or the collector url
+   */
+  public abstract SpanExporter create(String target);
+}
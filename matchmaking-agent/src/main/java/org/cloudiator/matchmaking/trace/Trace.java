@@ -0,0 +1,61 @@
+package org.cloudiator.matchmaking.trace;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the finished spans of a trace and exports them together once the root span ended.
+ * Spans ending after the root, e.g. of solvers still running after the time limit, are exported
+ * on their own.
+ */
+class Trace {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Trace.class);
+  /**
+   * Trace of the spans started outside of a request, its spans are dropped.
+   */
+  static final Trace UNRECORDED = new Trace("00000000000000000000000000000000",
+      SpanExporter.NONE);
+
+  private final String traceId;
+  private final SpanExporter exporter;
+  private final List<Span> finished = new ArrayList<>();
+  private boolean exported = false;
+
+  Trace(String traceId, SpanExporter exporter) {
+    this.traceId = traceId;
+    this.exporter = exporter;
+  }
+
+  String traceId() {
+    return traceId;
+  }
+
+  void finished(Span span) {
+    if (this == UNRECORDED) {
+      return;
+    }
+    final List<Span> spans;
+    synchronized (this) {
+      if (exported) {
+        spans = ImmutableList.of(span);
+      } else {
+        finished.add(span);
+        if (span.parent().isPresent()) {
+          return;
+        }
+        exported = true;
+        spans = ImmutableList.copyOf(finished);
+        finished.clear();
+      }
+    }
+    try {
+      exporter.export(spans);
+    } catch (RuntimeException e) {
+      LOGGER.warn(String.format("Could not export spans of trace %s.", traceId), e);
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.cloudiator.matchmaking.trace;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nullable;
+
+/**
+ * Starts the spans of the request traces.
+ * <p>
+ * Every thread has a current span, a started span becomes the child of it and the new current
+ * span until it is closed. Work handed to other threads passes the parent explicitly, see {@link
+ * #start(String, Span)}. The agent binds one tracer, which is injected like the metrics
+ * registry.
+ * <p>
+ * Only requests start traces, the components they call start their spans by {@link
+ * #startChild(String)}. Called outside of a request, e.g. by experiments or benchmarks, these
+ * spans are not recorded.
+ */
+public class Tracer {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  //invalid span id, as the spans of the unrecorded trace are never exported
+  private static final String UNRECORDED_SPAN_ID = "0000000000000000";
+
+  private final ThreadLocal<Span> current = new ThreadLocal<>();
+  private volatile SpanExporter exporter = SpanExporter.NONE;
+
+  private static String randomId(int bytes) {
+    final char[] id = new char[bytes * 2];
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < id.length; i++) {
+      id[i] = HEX[random.nextInt(16)];
+    }
+    return new String(id);
+  }
+
+  /**
+   * Exporter of traces started from now on.
+   */
+  public void exportTo(SpanExporter exporter) {
+    checkNotNull(exporter, "exporter is null");
+    this.exporter = exporter;
+  }
+
+  /**
+   * Starts a span as child of the current span of this thread, or a new trace if there is none.
+   */
+  public Span start(String name) {
+    return start(name, current.get());
+  }
+
+  /**
+   * Starts a span as child of the given parent, or a new trace if the parent is null.
+   */
+  public Span start(String name, @Nullable Span parent) {
+    checkNotNull(name, "name is null");
+    final Trace trace = parent != null ? parent.trace() : new Trace(randomId(16), exporter);
+    final Span span = new Span(this, trace, randomId(8), parent, current.get(), name);
+    current.set(span);
+    return span;
+  }
+
+  /**
+   * Starts a span as child of the current span of this thread. Without a current span the span
+   * is not recorded and does not become the current span.
+   */
+  public Span startChild(String name) {
+    checkNotNull(name, "name is null");
+    final Span parent = current.get();
+    if (parent == null) {
+      return new Span(this, Trace.UNRECORDED, UNRECORDED_SPAN_ID, null, null, name);
+    }
+    return start(name, parent);
+  }
+
+  public Optional<Span> current() {
+    return Optional.ofNullable(current.get());
+  }
+
+  void ended(Span span) {
+    if (current.get() == span) {
+      //skip spans closed out of order
+      Span previous = span.previous();
+      while (previous != null && previous.endEpochNanos() >= 0) {
+        previous = previous.previous();
+      }
+      if (previous != null) {
+        current.set(previous);
+      } else {
+        current.remove();
+      }
+    }
+  }
+}
@@ -6,11 +6,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import org.chocosolver.solver.Model;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
 import org.cloudiator.matchmaking.ocl.ConstraintChecker;
 import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
 import org.cloudiator.matchmaking.ocl.ExampleModel;
 import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.eclipse.ocl.pivot.utilities.ParserException;
 import org.junit.Test;
 
@@ -27,9 +29,12 @@ public class ModelGenerationTest {
     final CloudiatorModel cloudiatorModel = ExampleModel.testModel();
     final OclCsp oclCsp = OclCsp.ofConstraints(CSP, Collections.emptyList(), QuotaSet.EMPTY, null);
 
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    final Tracer tracer = new Tracer();
     final ConsistentNodeGenerator nodeGenerator = new ConsistentNodeGenerator(
-        new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, null),
-        ConstraintChecker.create(oclCsp));
+        new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, null, metricsRegistry,
+            tracer),
+        ConstraintChecker.create(oclCsp), metricsRegistry, tracer);
 
     SolvingModelGenerator solvingModelGenerator = new SolvingModelGenerator();
     final CloudiatorModel solvingModel = solvingModelGenerator.apply(nodeGenerator.get());
@@ -7,11 +7,13 @@ import java.util.HashSet;
 import java.util.Set;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
 import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
 import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
 import org.cloudiator.matchmaking.ocl.ConstraintChecker;
 import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
 import org.cloudiator.matchmaking.ocl.ExampleModel;
 import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.eclipse.ocl.pivot.utilities.ParserException;
 import org.junit.Test;
 
@@ -39,9 +41,12 @@ public class CMPLEvaluationTest {
         .ofConstraints(constraints, Collections.emptyList(), QuotaSet.EMPTY, null);
 
     final CloudiatorModel cloudiatorModel = ExampleModel.testModel();
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    final Tracer tracer = new Tracer();
     final ConsistentNodeGenerator nodeGenerator = new ConsistentNodeGenerator(
-        new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, null),
-        ConstraintChecker.create(oclCsp));
+        new DefaultNodeGenerator(nodeCandidateFactory, cloudiatorModel, null, metricsRegistry,
+            tracer),
+        ConstraintChecker.create(oclCsp), metricsRegistry, tracer);
 
     final Solution solution = new CMPLSolver().solve(oclCsp, nodeGenerator.get(), null, null);
 
@@ -0,0 +1,109 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.choco.TimeLimit;
+import org.cloudiator.matchmaking.experiment.CampaignResult.Status;
+import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.eclipse.ocl.pivot.utilities.ParserException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CampaignRunnerTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static Campaign campaign() throws ParserException {
+    return Campaign.builder()
+        .oclCsp(OclCsp.ofConstraints(Collections.emptySet(), Collections.emptyList(),
+            QuotaSet.EMPTY, 1))
+        .solvers(CampaignSolver.BEST_FIT)
+        .catalogues("synthetic:100")
+        .nodeSizeRange(1, 2)
+        .timeLimits(new TimeLimit(TimeUnit.SECONDS, 10))
+        .seeds(1L, 2L)
+        .build();
+  }
+
+  @Test
+  public void testRunAndResume() throws IOException, InterruptedException, ParserException {
+    final Path checkpoint = temporaryFolder.getRoot().toPath().resolve("campaign.csv");
+
+    final List<CampaignResult> results = new CampaignRunner(campaign(), checkpoint, 2).run();
+    assertThat(results.size(), equalTo(4));
+    for (CampaignResult result : results) {
+      assertThat(result.status(), equalTo(Status.SOLVED));
+    }
+    assertThat(Files.readAllLines(checkpoint).size(), equalTo(5));
+
+    //everything is part of the checkpoint, nothing runs again
+    final List<CampaignResult> resumed = new CampaignRunner(campaign(), checkpoint, 2).run();
+    assertThat(resumed.size(), equalTo(4));
+    assertThat(Files.readAllLines(checkpoint).size(), equalTo(5));
+
+    //header and one line per solver, catalogue, node size and time limit
+    assertThat(CampaignReport.of(resumed).lines().size(), equalTo(3));
+  }
+
+  @Test
+  public void testPartialLineIsSkipped() throws IOException, InterruptedException,
+      ParserException {
+    final Path checkpoint = temporaryFolder.getRoot().toPath().resolve("campaign.csv");
+    new CampaignRunner(campaign(), checkpoint, 2).run();
+
+    //the campaign stopped while writing the last result
+    final List<String> lines = Files.readAllLines(checkpoint);
+    final String last = lines.remove(lines.size() - 1);
+    Files.write(checkpoint, (String.join("\n", lines) + "\n" + last.substring(0, 10))
+        .getBytes(StandardCharsets.UTF_8));
+    assertThat(CampaignRunner.readCheckpoint(checkpoint).size(), equalTo(3));
+
+    //only the partial cell runs again
+    final List<CampaignResult> resumed = new CampaignRunner(campaign(), checkpoint, 2).run();
+    assertThat(resumed.size(), equalTo(4));
+    assertThat(Files.readAllLines(checkpoint).size(), equalTo(5));
+    assertThat(CampaignRunner.readCheckpoint(checkpoint).size(), equalTo(4));
+  }
+
+  @Test
+  public void testFailedCellRunsAgain() throws IOException, InterruptedException,
+      ParserException {
+    final Path checkpoint = temporaryFolder.getRoot().toPath().resolve("campaign.csv");
+    new CampaignRunner(campaign(), checkpoint, 2).run();
+
+    //the last result of a cell counts
+    Files.write(checkpoint, (CampaignResult.failed(campaign().cells().get(0), 1234).toLine()
+        + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    assertThat(CampaignRunner.readCheckpoint(checkpoint).size(), equalTo(5));
+
+    final List<CampaignResult> resumed = new CampaignRunner(campaign(), checkpoint, 2).run();
+    assertThat(resumed.size(), equalTo(4));
+    for (CampaignResult result : resumed) {
+      assertThat(result.status(), equalTo(Status.SOLVED));
+    }
+    //the failed line stays, the new result is appended
+    assertThat(Files.readAllLines(checkpoint).size(), equalTo(7));
+  }
+
+  @Test
+  public void testResultLineRoundTrip() throws ParserException {
+    final CampaignResult result = CampaignResult
+        .failed(campaign().cells().get(0), 1234);
+    final CampaignResult parsed = CampaignResult.parse(result.toLine());
+    assertThat(parsed.cell(), equalTo(result.cell()));
+    assertThat(parsed.status(), equalTo(Status.FAILED));
+    assertThat(parsed.timeMillis(), equalTo(1234L));
+  }
+}
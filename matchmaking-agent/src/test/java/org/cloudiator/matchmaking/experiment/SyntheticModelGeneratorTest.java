@@ -0,0 +1,65 @@
+package org.cloudiator.matchmaking.experiment;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+import cloudiator.CloudiatorModel;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
+import org.cloudiator.matchmaking.ocl.NodeCandidates;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+public class SyntheticModelGeneratorTest {
+
+  private static NodeCandidates candidates(CloudiatorModel cloudiatorModel) {
+    return new DefaultNodeGenerator(NodeCandidateFactory.create(), cloudiatorModel, null,
+        new MetricsRegistry(), new Tracer()).get();
+  }
+
+  @Test
+  public void testSameSeedSameModel() {
+    final SyntheticModelGenerator generator = SyntheticModelGenerator.builder().seed(7)
+        .priceSparsity(0.3).build();
+    assertThat(EcoreUtil.equals(generator.generateModel("test"), generator.generateModel("test")),
+        equalTo(true));
+    assertThat(EcoreUtil.equals(generator.generateModel("test"),
+        SyntheticModelGenerator.builder().seed(8).priceSparsity(0.3).build()
+            .generateModel("test")), equalTo(false));
+  }
+
+  @Test
+  public void testScale() {
+    final SyntheticModelGenerator generator = SyntheticModelGenerator.builder().clouds(3)
+        .regions(2).zones(3).hardware(5).images(2).build();
+    assertThat((long) candidates(generator.generateModel("test")).size(),
+        equalTo(generator.combinations()));
+
+    final SyntheticModelGenerator targeted = SyntheticModelGenerator.forCandidates(1000, 42);
+    assertThat(targeted.combinations(), equalTo(1024L));
+    assertThat(candidates(targeted.generateModel("test")).size(), equalTo(1024));
+  }
+
+  @Test
+  public void testPriceSparsity() {
+    final SyntheticModelGenerator generator = SyntheticModelGenerator.builder().hardware(20)
+        .priceSparsity(0.5).build();
+    final int size = candidates(generator.generateModel("test")).size();
+    assertThat(size, greaterThan(0));
+    assertThat((long) size, lessThan(generator.combinations()));
+  }
+
+  @Test
+  public void testByonNodes() {
+    final SyntheticModelGenerator generator = SyntheticModelGenerator.builder().byonNodes(5)
+        .build();
+    assertThat(generator.byonNodeCandidates().size(), equalTo(5));
+    assertThat(generator.byonNodeCandidates().getById("synthetic-byon-3").getHardware().getCores(),
+        equalTo(generator.byonNodeCandidates().getById("synthetic-byon-3").getHardware()
+            .getCores()));
+  }
+}
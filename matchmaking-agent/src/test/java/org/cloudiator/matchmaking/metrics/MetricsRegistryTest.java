@@ -0,0 +1,66 @@
+package org.cloudiator.matchmaking.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+  private static String export(MetricsRegistry registry) throws IOException {
+    final StringWriter writer = new StringWriter();
+    registry.write(writer);
+    return writer.toString();
+  }
+
+  @Test
+  public void testCounter() throws IOException {
+    final MetricsRegistry registry = new MetricsRegistry();
+    final Counter counter = registry.counter("test_total", "Test.", "solver", "choco");
+    counter.inc();
+    counter.inc();
+
+    assertThat(registry.counter("test_total", "Test.", "solver", "choco"),
+        sameInstance(counter));
+
+    final String export = export(registry);
+    assertThat(export, containsString("# TYPE test_total counter\n"));
+    assertThat(export, containsString("test_total{solver=\"choco\"} 2\n"));
+  }
+
+  @Test
+  public void testHistogramIsCumulative() throws IOException {
+    final MetricsRegistry registry = new MetricsRegistry();
+    final Histogram histogram = registry
+        .histogram("test_seconds", "Test.", new double[]{1, 10});
+    histogram.observe(0.5);
+    histogram.observe(5);
+    histogram.observe(50);
+
+    final String export = export(registry);
+    assertThat(export, containsString("test_seconds_bucket{le=\"1\"} 1\n"));
+    assertThat(export, containsString("test_seconds_bucket{le=\"10\"} 2\n"));
+    assertThat(export, containsString("test_seconds_bucket{le=\"+Inf\"} 3\n"));
+    assertThat(export, containsString("test_seconds_sum 55.5\n"));
+    assertThat(export, containsString("test_seconds_count 3\n"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTypeMismatch() {
+    final MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("test", "Test.");
+    registry.gauge("test", "Test.", () -> 1);
+  }
+
+  @Test
+  public void testGaugeIsReplaced() throws IOException {
+    final MetricsRegistry registry = new MetricsRegistry();
+    registry.gauge("test", "Test.", () -> 1);
+    registry.gauge("test", "Test.", () -> 2);
+    assertThat(export(registry), equalTo("# HELP test Test.\n# TYPE test gauge\ntest 2\n"));
+  }
+}
@@ -1,12 +1,30 @@
 package org.cloudiator.matchmaking.ocl;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
 import cloudiator.CloudiatorModel;
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
 import org.cloudiator.matchmaking.choco.ChocoSolver;
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.domain.SearchStatistics;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolutionBound;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.eclipse.ocl.pivot.utilities.ParserException;
 import org.junit.Test;
 
 public class ChocoSolverTest {
 
-  private static final ChocoSolver CHOCO_SOLVER = new ChocoSolver();
+  private static final ChocoSolver CHOCO_SOLVER =
+      new ChocoSolver(new MetricsRegistry(), new GenerationEstimate(), new Tracer());
 
   @Test
   public void testSolve() {
@@ -15,4 +33,49 @@ public class ChocoSolverTest {
 
 
   }
+
+  @Test
+  public void testSolutionHasStatistics() throws ParserException {
+    final NodeCandidates nodeCandidates = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        ExampleModel.testModel(), null, new MetricsRegistry(), new Tracer()).get();
+    final OclCsp oclCsp = OclCsp
+        .ofConstraints(Collections.emptySet(), Collections.emptyList(), QuotaSet.EMPTY, 1);
+
+    final Solution solution = CHOCO_SOLVER.solve(oclCsp, nodeCandidates, null, 1);
+
+    assertThat(solution.noSolution(), equalTo(false));
+    final SearchStatistics statistics = solution.getStatistics().get();
+    assertThat(statistics.runs(), equalTo(1));
+    assertThat(statistics.nodes(), greaterThan(0L));
+    assertThat(statistics.solutions(), greaterThanOrEqualTo(1L));
+    assertThat((long) statistics.trajectory().size(), equalTo(statistics.solutions()));
+  }
+
+  @Test
+  public void testBoundDoesNotStopLargerNodeSizes() throws ParserException {
+    final NodeCandidates nodeCandidates = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        ExampleModel.testModel(), null, new MetricsRegistry(), new Tracer()).get();
+    //no single node is in both countries
+    final OclCsp oclCsp = OclCsp.ofConstraints(ImmutableSet
+            .of("nodes->exists(location.geoLocation.country = 'DE')",
+                "nodes->exists(location.geoLocation.country = 'US')"), Collections.emptyList(),
+        QuotaSet.EMPTY, 1);
+    final SolutionBound bound = new SolutionBound() {
+      @Override
+      public double costs() {
+        return 10000;
+      }
+
+      @Override
+      public void offer(Solution solution) {
+      }
+    };
+
+    final Solution solution = CHOCO_SOLVER.solve(oclCsp, nodeCandidates, null, 1,
+        SolverBudget.UNLIMITED.withBound(bound));
+
+    assertThat(solution.noSolution(), equalTo(false));
+    assertThat(solution.nodeSize(), equalTo(2));
+    assertThat(solution.getCosts() < bound.costs(), equalTo(true));
+  }
 }
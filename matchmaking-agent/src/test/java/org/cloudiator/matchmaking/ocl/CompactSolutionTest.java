@@ -0,0 +1,59 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Test;
+
+public class CompactSolutionTest {
+
+  private static final CandidateIndex CANDIDATE_INDEX = CandidateIndex.of(
+      new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+          new MetricsRegistry(), new Tracer())
+          .get());
+
+  @Test
+  public void testMultisetEquality() {
+
+    final CompactSolution ab = CompactSolution.single(CANDIDATE_INDEX, 0)
+        .with(CANDIDATE_INDEX, 1);
+    final CompactSolution ba = CompactSolution.single(CANDIDATE_INDEX, 1)
+        .with(CANDIDATE_INDEX, 0);
+    final CompactSolution aa = CompactSolution.single(CANDIDATE_INDEX, 0)
+        .with(CANDIDATE_INDEX, 0);
+
+    assertThat(ab, equalTo(ba));
+    assertThat(ab.hashCode(), equalTo(ba.hashCode()));
+    assertThat(ab.equals(aa), equalTo(false));
+    assertThat(aa.nodeSize(), equalTo(2));
+  }
+
+  @Test
+  public void testConversion() {
+
+    final CompactSolution compactSolution = CompactSolution.single(CANDIDATE_INDEX, 2)
+        .with(CANDIDATE_INDEX, 0).with(CANDIDATE_INDEX, 2);
+    final Solution solution = compactSolution.toSolution(CANDIDATE_INDEX);
+
+    assertThat(solution.nodeSize(), equalTo(3));
+    assertThat(solution.getCosts(), closeTo(compactSolution.getCosts(), 1e-9));
+    assertThat(CompactSolution.of(CANDIDATE_INDEX, solution), equalTo(compactSolution));
+  }
+
+  @Test
+  public void testNoStateOnTheEmptySolution() {
+    CompactSolution.EMPTY.constraintState(new long[]{1});
+    CompactSolution.EMPTY.quotaUsage(new long[]{1});
+
+    assertThat(CompactSolution.EMPTY.constraintState() == null, equalTo(true));
+    assertThat(CompactSolution.EMPTY.quotaUsage() == null, equalTo(true));
+    assertThat(CompactSolution.EMPTY.with(CANDIDATE_INDEX, 0).parentConstraintState() == null,
+        equalTo(true));
+  }
+
+}
@@ -8,6 +8,8 @@ import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
 import java.util.Collections;
 import org.cloudiator.matchmaking.domain.NodeCandidate;
 import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
 import org.eclipse.ocl.pivot.utilities.ParserException;
 import org.junit.Test;
 
@@ -21,10 +23,10 @@ public class ConsistentNodeGeneratorTest {
     final OclCsp oclCsp = OclCsp.ofConstraints(Collections.singleton(forAllCountry),Collections.emptyList(),
         QuotaSet.EMPTY, 1);
     NodeGenerator nodeGenerator = new DefaultNodeGenerator(NodeCandidateFactory.create(),
-        testModel, null);
+        testModel, null, new MetricsRegistry(), new Tracer());
     ConstraintChecker constraintChecker = ConstraintChecker.create(oclCsp);
     ConsistentNodeGenerator consistentNodeGenerator = new ConsistentNodeGenerator(nodeGenerator,
-        constraintChecker);
+        constraintChecker, new MetricsRegistry(), new Tracer());
 
     final NodeCandidates nodeCandidates = consistentNodeGenerator.get();
 
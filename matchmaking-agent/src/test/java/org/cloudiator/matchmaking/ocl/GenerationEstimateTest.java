@@ -0,0 +1,26 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.junit.Test;
+
+public class GenerationEstimateTest {
+
+  @Test
+  public void testLearnsPerInstance() {
+    final GenerationEstimate learned = new GenerationEstimate();
+    learned.observe(10000, 100, 1);
+
+    assertThat(learned.estimateMillis(100, 2), equalTo(20000d));
+    assertThat(learned.tooLittleTime(SolverBudget.deadline(5000), 100, 2), equalTo(true));
+    assertThat(learned.tooLittleTime(SolverBudget.UNLIMITED, 100, 2), equalTo(false));
+
+    //another estimate does not see the observations
+    final GenerationEstimate fresh = new GenerationEstimate();
+    assertThat(fresh.estimateMillis(100, 2), equalTo(100d));
+    assertThat(fresh.tooLittleTime(SolverBudget.deadline(5000), 100, 2), equalTo(false));
+  }
+}
@@ -0,0 +1,65 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.Random;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.eclipse.ocl.pivot.utilities.ParserException;
+import org.junit.Test;
+
+public class IncrementalConstraintCheckerTest {
+
+  @Test
+  public void testSameViolationsAsOcl() throws ParserException {
+    assertSameViolations(OclCsp
+        .ofConstraints(OclTestCsp.TEST_CSP, Collections.emptyList(), QuotaSet.EMPTY, 1));
+  }
+
+  @Test
+  public void testCompoundConstraintUsesOcl() throws ParserException {
+    final String constraint = "nodes->exists(n | n.location.geoLocation.country = 'DE') "
+        + "and nodes->exists(n | n.location.geoLocation.country = 'US')";
+    assertThat(IncrementalConstraintChecker.closing(constraint, constraint.indexOf('(')),
+        equalTo(constraint.indexOf(')')));
+    assertSameViolations(OclCsp
+        .ofConstraints(ImmutableSet.of(constraint), Collections.emptyList(), QuotaSet.EMPTY, 1));
+  }
+
+  @Test
+  public void testClosingIgnoresLiterals() {
+    assertThat(IncrementalConstraintChecker.closing("exists(n | n.name = ')')", 6), equalTo(23));
+    assertThat(IncrementalConstraintChecker.closing("exists(n | (n.name = 'a')", 6),
+        equalTo(-1));
+  }
+
+  private static void assertSameViolations(OclCsp oclCsp) {
+
+    final CandidateIndex candidateIndex = CandidateIndex.of(
+        new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+            new MetricsRegistry(), new Tracer())
+            .get());
+
+    final ConstraintChecker constraintChecker = ConstraintChecker.create(oclCsp);
+    final IncrementalConstraintChecker incrementalConstraintChecker = IncrementalConstraintChecker
+        .create(oclCsp, candidateIndex);
+
+    final Random random = new Random(42);
+    for (int run = 0; run < 20; run++) {
+      CompactSolution solution = CompactSolution
+          .single(candidateIndex, random.nextInt(candidateIndex.size()));
+      for (int size = 1; size <= 6; size++) {
+        //check every step so the child is derived from the state of its parent
+        assertThat(incrementalConstraintChecker.check(solution),
+            equalTo(constraintChecker.check(solution.nodeCandidates(candidateIndex))));
+        solution = solution.with(candidateIndex, random.nextInt(candidateIndex.size()));
+      }
+    }
+  }
+
+}
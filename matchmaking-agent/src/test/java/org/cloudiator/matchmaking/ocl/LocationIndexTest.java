@@ -0,0 +1,30 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import cloudiator.CloudiatorFactory;
+import cloudiator.CloudiatorModel;
+import cloudiator.Location;
+import org.cloudiator.matchmaking.LocationIndex;
+import org.junit.Test;
+
+public class LocationIndexTest {
+
+  @Test
+  public void testIndexSeesModifiedModel() {
+    final CloudiatorModel cloudiatorModel = ExampleModel.testModel();
+    final Location parent = cloudiatorModel.getClouds().get(0).getLocations().get(0);
+    assertThat(LocationIndex.of(cloudiatorModel).indexOf("added"), equalTo(-1));
+
+    //e.g. discovery adding a location to the served model
+    final Location added = CloudiatorFactory.eINSTANCE.createLocation();
+    added.setId("added");
+    added.setParent(parent);
+    cloudiatorModel.getClouds().get(0).getLocations().add(added);
+
+    final LocationIndex locationIndex = LocationIndex.of(cloudiatorModel);
+    assertThat(locationIndex.findLocation("added").isPresent(), equalTo(true));
+    assertThat(locationIndex.inHierarchy(parent.getId(), added), equalTo(true));
+  }
+}
@@ -0,0 +1,75 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+import cloudiator.CloudiatorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cloudiator.matchmaking.experiment.LargeModelGenerator;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+public class ModelCodecTest {
+
+  private static byte[] encode(ModelCodec modelCodec, CloudiatorModel cloudiatorModel)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    modelCodec.encode(cloudiatorModel, out);
+    return out.toByteArray();
+  }
+
+  private static void assertRoundTrip(CloudiatorModel cloudiatorModel) throws IOException {
+    for (ModelCodec modelCodec : ModelCodec.values()) {
+      final CloudiatorModel decoded = modelCodec
+          .decode(new ByteArrayInputStream(encode(modelCodec, cloudiatorModel)));
+      assertThat(modelCodec.name(), EcoreUtil.equals(cloudiatorModel, decoded), equalTo(true));
+    }
+  }
+
+  @Test
+  public void testRoundTripExampleModel() throws IOException {
+    assertRoundTrip(ExampleModel.testModel());
+  }
+
+  @Test
+  public void testRoundTripLargeModel() throws IOException {
+    final CloudiatorModel cloudiatorModel = new LargeModelGenerator().generateModel("user");
+    assertRoundTrip(cloudiatorModel);
+
+    assertThat(encode(ModelCodec.BINARY, cloudiatorModel).length,
+        lessThan(encode(ModelCodec.XMI, cloudiatorModel).length));
+  }
+
+  @Test
+  public void testEncodingDoesNotModifyModel() throws IOException {
+    final CloudiatorModel cloudiatorModel = ExampleModel.testModel();
+    encode(ModelCodec.BINARY, cloudiatorModel);
+    assertThat(cloudiatorModel.eResource() == null, equalTo(true));
+  }
+
+  @Test
+  public void testStreamsOfTheCallerStayOpen() throws IOException {
+    final AtomicBoolean closed = new AtomicBoolean();
+    for (ModelCodec modelCodec : ModelCodec.values()) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          closed.set(true);
+        }
+      };
+      modelCodec.encode(ExampleModel.testModel(), out);
+      modelCodec.decode(new ByteArrayInputStream(out.toByteArray()) {
+        @Override
+        public void close() {
+          closed.set(true);
+        }
+      });
+      assertThat(modelCodec.name(), closed.get(), equalTo(false));
+    }
+  }
+
+}
@@ -0,0 +1,148 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import cloudiator.Cloud;
+import cloudiator.CloudCredential;
+import cloudiator.CloudiatorModel;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.cloudiator.matchmaking.ocl.ModelSnapshotStore.Snapshot;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ModelSnapshotStoreTest {
+
+  //length of magic, version, creation time, payload length and checksum
+  private static final int HEADER_LENGTH = 28;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static CredentialSource credentialsOf(CloudiatorModel cloudiatorModel) {
+    final Map<String, CloudCredential> credentials = cloudiatorModel.getClouds().stream()
+        .collect(Collectors.toMap(Cloud::getId, Cloud::getCloudcredential));
+    return userId -> credentials;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    final CloudiatorModel model = ExampleModel.testModel();
+    final ModelSnapshotStore store = new ModelSnapshotStore(
+        temporaryFolder.newFolder().getAbsolutePath(), credentialsOf(model));
+
+    store.save("user", model, 42L);
+
+    final Optional<Snapshot> snapshot = store.load("user");
+    assertThat(snapshot.isPresent(), equalTo(true));
+    assertThat(snapshot.get().createdAt(), equalTo(42L));
+    assertThat(EcoreUtil.equals(model, snapshot.get().cloudiatorModel()), equalTo(true));
+    assertThat(store.load("otherUser").isPresent(), equalTo(false));
+  }
+
+  @Test
+  public void testCorruptSnapshotIsDiscarded() throws IOException {
+    final Path directory = temporaryFolder.newFolder().toPath();
+    final CloudiatorModel model = ExampleModel.testModel();
+    final ModelSnapshotStore store = new ModelSnapshotStore(directory.toString(),
+        credentialsOf(model));
+    store.save("user", model, 42L);
+
+    final Path file = Files.list(directory).collect(Collectors.toList()).get(0);
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+      randomAccessFile.seek(randomAccessFile.length() - 1);
+      final int last = randomAccessFile.read();
+      randomAccessFile.seek(randomAccessFile.length() - 1);
+      randomAccessFile.write(last ^ 0xFF);
+    }
+
+    assertThat(store.load("user").isPresent(), equalTo(false));
+    assertThat(Files.exists(file), equalTo(false));
+  }
+
+  @Test
+  public void testCredentialsAreNotWritten() throws IOException {
+    final Path directory = temporaryFolder.newFolder().toPath();
+    final CloudiatorModel model = ExampleModel.testModel();
+    final ModelSnapshotStore store = new ModelSnapshotStore(directory.toString(),
+        credentialsOf(model));
+    store.save("user", model, 42L);
+
+    final Path file = Files.list(directory).collect(Collectors.toList()).get(0);
+    final byte[] bytes = Files.readAllBytes(file);
+    final CloudiatorModel written = ModelCodec.BINARY.decode(
+        new ByteArrayInputStream(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length)));
+    for (Cloud cloud : written.getClouds()) {
+      assertThat(cloud.getCloudcredential(), nullValue());
+    }
+    //the served model keeps its credentials
+    for (Cloud cloud : model.getClouds()) {
+      assertThat(cloud.getCloudcredential().getSecret(), equalTo("verySecurePassword"));
+    }
+  }
+
+  @Test
+  public void testCredentialsAreReattached() throws IOException {
+    final CloudiatorModel model = ExampleModel.testModel();
+    final Map<String, CloudCredential> rotated = model.getClouds().stream()
+        .collect(Collectors.toMap(Cloud::getId, cloud -> {
+          final CloudCredential cloudCredential = EcoreUtil.copy(cloud.getCloudcredential());
+          cloudCredential.setSecret("rotatedPassword");
+          return cloudCredential;
+        }));
+    final ModelSnapshotStore store = new ModelSnapshotStore(
+        temporaryFolder.newFolder().getAbsolutePath(), userId -> rotated);
+    store.save("user", model, 42L);
+
+    final Optional<Snapshot> snapshot = store.load("user");
+    assertThat(snapshot.isPresent(), equalTo(true));
+    for (Cloud cloud : snapshot.get().cloudiatorModel().getClouds()) {
+      assertThat(cloud.getCloudcredential().getSecret(), equalTo("rotatedPassword"));
+    }
+  }
+
+  @Test
+  public void testSnapshotWithRemovedCloudIsDiscarded() throws IOException {
+    final Path directory = temporaryFolder.newFolder().toPath();
+    final CloudiatorModel model = ExampleModel.testModel();
+    final Map<String, CloudCredential> credentials = model.getClouds().stream().skip(1)
+        .collect(Collectors.toMap(Cloud::getId, Cloud::getCloudcredential));
+    final ModelSnapshotStore store = new ModelSnapshotStore(directory.toString(),
+        userId -> credentials);
+    store.save("user", model, 42L);
+
+    assertThat(store.load("user").isPresent(), equalTo(false));
+    assertThat(Files.list(directory).count(), equalTo(0L));
+  }
+
+  @Test
+  public void testUnavailableCredentialsKeepTheSnapshot() throws IOException {
+    final Path directory = temporaryFolder.newFolder().toPath();
+    final ModelSnapshotStore store = new ModelSnapshotStore(directory.toString(), userId -> {
+      throw new ModelGenerationException("cloud service unavailable");
+    });
+    store.save("user", ExampleModel.testModel(), 42L);
+
+    assertThat(store.load("user").isPresent(), equalTo(false));
+    assertThat(Files.list(directory).count(), equalTo(1L));
+  }
+
+  @Test
+  public void testDisabledStore() {
+    final ModelSnapshotStore store = ModelSnapshotStore.disabled();
+    store.save("user", ExampleModel.testModel(), 42L);
+    assertThat(store.load("user").isPresent(), equalTo(false));
+  }
+
+}
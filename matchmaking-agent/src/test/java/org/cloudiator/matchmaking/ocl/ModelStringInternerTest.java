@@ -0,0 +1,32 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import cloudiator.CloudiatorModel;
+import cloudiator.Hardware;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.Test;
+
+public class ModelStringInternerTest {
+
+  @Test
+  public void testInternsValuesAcrossModels() {
+    final ModelStringInterner modelStringInterner = new ModelStringInterner(
+        new MetricsRegistry());
+
+    final CloudiatorModel first = ExampleModel.testModel();
+    final CloudiatorModel second = EcoreUtil.copy(first);
+    final Hardware hardware = second.getClouds().get(0).getHardwareList().get(0);
+    //equal, but not the same instance
+    hardware.setName(new String(hardware.getName().toCharArray()));
+
+    modelStringInterner.intern(first);
+    modelStringInterner.intern(second);
+
+    assertThat(hardware.getName(),
+        sameInstance(first.getClouds().get(0).getHardwareList().get(0).getName()));
+  }
+
+}
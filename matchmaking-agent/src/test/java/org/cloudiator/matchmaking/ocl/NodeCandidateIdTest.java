@@ -0,0 +1,61 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.cloudiator.matchmaking.domain.HashingNodeCandidateIdGenerator;
+import org.cloudiator.matchmaking.domain.IdHashing;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Test;
+
+public class NodeCandidateIdTest {
+
+  private static NodeCandidates nodeCandidates() {
+    return new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+        new MetricsRegistry(), new Tracer())
+        .get();
+  }
+
+  @Test
+  public void testDefaultIdsKeepTheMd5Format() {
+    final HashingNodeCandidateIdGenerator md5 = new HashingNodeCandidateIdGenerator(IdHashing.MD5);
+    for (NodeCandidate nodeCandidate : nodeCandidates()) {
+      assertThat(md5.generateId(nodeCandidate), equalTo(nodeCandidate.id()));
+      assertThat(nodeCandidate.legacyId(), equalTo(nodeCandidate.id()));
+    }
+  }
+
+  @Test
+  public void testNoCollisions() {
+    final NodeCandidates nodeCandidates = nodeCandidates();
+    assertThat(nodeCandidates.collisions(), equalTo(0));
+
+    for (IdHashing idHashing : IdHashing.values()) {
+      final HashingNodeCandidateIdGenerator generator = new HashingNodeCandidateIdGenerator(
+          idHashing);
+      Set<String> ids = new HashSet<>();
+      for (NodeCandidate nodeCandidate : nodeCandidates) {
+        ids.add(generator.generateId(nodeCandidate));
+        //ids are stable
+        assertThat(generator.generateId(nodeCandidate),
+            equalTo(generator.generateId(nodeCandidate)));
+      }
+      assertThat(ids.size(), equalTo(nodeCandidates.size()));
+    }
+  }
+
+  @Test
+  public void testLookupById() {
+    final NodeCandidates nodeCandidates = nodeCandidates();
+    for (NodeCandidate nodeCandidate : nodeCandidates) {
+      assertThat(nodeCandidates.getById(nodeCandidate.id()), sameInstance(nodeCandidate));
+      assertThat(nodeCandidates.getById(nodeCandidate.legacyId()), sameInstance(nodeCandidate));
+    }
+  }
+}
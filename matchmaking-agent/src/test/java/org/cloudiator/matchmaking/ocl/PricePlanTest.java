@@ -0,0 +1,187 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import cloudiator.Cloud;
+import cloudiator.CloudiatorModel;
+import cloudiator.Hardware;
+import cloudiator.Image;
+import cloudiator.Location;
+import cloudiator.OSArchitecture;
+import cloudiator.OSFamily;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.cloudiator.messages.entities.IaasEntities;
+import org.junit.Test;
+
+public class PricePlanTest {
+
+  private static IaasEntities.Price price(String provider, String hardware, double value) {
+    return IaasEntities.Price.newBuilder().setCloudAPIProviderName(provider)
+        .setHardwareProviderId(hardware).setLocationProviderId("eu-west-1")
+        .setOsArchitecture("AMD64").setOsFamily("UBUNTU").setPrice(value).build();
+  }
+
+  @Test
+  public void testLookup() {
+    final PricePlan pricePlan = PricePlan.of("aws-ec2",
+        Arrays.asList(price("aws-ec2", "t2.micro", 1), price("aws-ec2", "t2.micro", 2),
+            price("openstack", "t2.small", 3)));
+
+    assertThat(pricePlan.get("t2.micro", "eu-west-1", PricePlan.osKey("AMD64", "UBUNTU"))
+        .getPrice(), equalTo(1d));
+    assertThat(pricePlan.duplicates(), equalTo(1));
+    //prices of other providers are ignored
+    assertThat(pricePlan.get("t2.small", "eu-west-1", PricePlan.osKey("AMD64", "UBUNTU")),
+        nullValue());
+    assertThat(pricePlan.get("t2.micro", "eu-west-1", PricePlan.osKey("AMD64", "WINDOWS")),
+        nullValue());
+  }
+
+  @Test
+  public void testPlansWithTheSamePricesAreEqual() {
+    final PricePlan pricePlan = PricePlan.of("aws-ec2",
+        Arrays.asList(price("aws-ec2", "t2.micro", 1), price("aws-ec2", "t2.small", 2)));
+    final PricePlan reloaded = PricePlan.of("aws-ec2",
+        Arrays.asList(price("aws-ec2", "t2.small", 2), price("aws-ec2", "t2.micro", 1)));
+
+    assertThat(reloaded, equalTo(pricePlan));
+    assertThat(reloaded.hashCode(), equalTo(pricePlan.hashCode()));
+    assertThat(PricePlan.of("aws-ec2", Collections.singletonList(price("aws-ec2", "t2.micro", 3)))
+        .equals(pricePlan), equalTo(false));
+  }
+
+  @Test
+  public void testMissesAreCountedPerLookup() {
+    final Cloud cloud = ExampleModel.testModel().getClouds().get(0);
+    final Hardware hardware = cloud.getHardwareList().get(0);
+    final Location location = cloud.getLocations().get(0);
+    final IaasEntities.Price price = IaasEntities.Price.newBuilder()
+        .setCloudAPIProviderName(cloud.getApi().getProviderName())
+        .setHardwareProviderId(hardware.getProviderId())
+        .setLocationProviderId(location.getProviderId())
+        .setOsArchitecture(OSArchitecture.AMD64.getName()).setOsFamily(OSFamily.UBUNTU.getName())
+        .setPrice(1).build();
+    final PricePlan pricePlan = PricePlan
+        .of(cloud.getApi().getProviderName(), Collections.singletonList(price));
+    final PriceFunction planBased = new CSPSourcedPricePlanPriceFunction(
+        new PricingSupplierFactory(null) {
+          @Override
+          public PricingSupplier newInstance(String userId, String cloudAPIProviderName) {
+            return new PricingSupplier(userId, cloudAPIProviderName, null) {
+              @Override
+              public PricePlan get() {
+                return pricePlan;
+              }
+            };
+          }
+        });
+    final CompositePriceFunction compositePriceFunction = new CompositePriceFunction(
+        Collections.singleton(planBased));
+
+    final PriceTable priceTable = new PriceTable(cloud.getHardwareList().size(),
+        cloud.getLocations().size(), cloud.getImages().size());
+    compositePriceFunction.fillPricing(cloud, cloud.getHardwareList(), cloud.getLocations(),
+        cloud.getImages(), "user", priceTable);
+
+    //all images share one operating system, so there is one lookup per hardware and location
+    final int lookups = cloud.getHardwareList().size() * cloud.getLocations().size();
+    assertThat(priceTable.misses(), equalTo(priceTable.size() - cloud.getImages().size()));
+    assertThat(priceTable.missedLookups(), equalTo(lookups - 1));
+    assertThat(compositePriceFunction.misses(planBased), equalTo((long) lookups - 1));
+  }
+
+  @Test
+  public void testPriceTableKeepsFirstPrice() {
+    final PriceTable priceTable = new PriceTable(3, 1, 1);
+    priceTable.skip(2, 0, 0);
+    assertThat(priceTable.misses(), equalTo(2));
+
+    priceTable.set(0, 0, 0, 1d);
+    priceTable.set(0, 0, 0, 5d);
+    priceTable.set(1, 0, 0, 2d);
+    priceTable.set(2, 0, 0, 3d);
+
+    assertThat(priceTable.misses(), equalTo(0));
+    assertThat(priceTable.get(0, 0, 0).getAsDouble(), equalTo(1d));
+    assertThat(priceTable.get(1, 0, 0).getAsDouble(), equalTo(2d));
+    assertThat(priceTable.isMissing(2, 0, 0), equalTo(false));
+    assertThat(priceTable.get(2, 0, 0).isPresent(), equalTo(false));
+  }
+
+  @Test
+  public void testOnlyCandidatesArePriced() {
+    final NodeCandidates modelPriced = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        ExampleModel.testModel(), null, new MetricsRegistry(), new Tracer()).get();
+
+    final CloudiatorModel withoutPrices = ExampleModel.testModel();
+    for (Cloud cloud : withoutPrices.getClouds()) {
+      cloud.getPrices().clear();
+    }
+    final AtomicInteger priced = new AtomicInteger();
+    final HardwareBasedPriceFunction hardwareBased = new HardwareBasedPriceFunction();
+    final PriceFunction counting = new PriceFunction() {
+      @Override
+      public Optional<Double> calculatePricing(Cloud cloud, Hardware hardware,
+          Location location, Image image, String userId) {
+        priced.incrementAndGet();
+        return hardwareBased.calculatePricing(cloud, hardware, location, image, userId);
+      }
+
+      @Override
+      public int getPriority() {
+        return Priority.LOW;
+      }
+    };
+    final NodeCandidates lazilyPriced = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        withoutPrices, null, new MetricsRegistry(), new Tracer(), new PriceModelGenerator(counting),
+        "user")
+        .get();
+
+    assertThat(lazilyPriced.size(), equalTo(modelPriced.size()));
+    assertThat(priced.get(), equalTo(lazilyPriced.size()));
+    assertThat(lazilyPriced.stream().mapToDouble(NodeCandidate::getPrice).sum(),
+        equalTo(modelPriced.stream().mapToDouble(NodeCandidate::getPrice).sum()));
+  }
+
+  @Test
+  public void testUnpricedCandidatesAreKept() {
+    final CloudiatorModel withoutPrices = ExampleModel.testModel();
+    final int combinations = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        withoutPrices, null, new MetricsRegistry(), new Tracer()).get().size();
+    for (Cloud cloud : withoutPrices.getClouds()) {
+      cloud.getPrices().clear();
+    }
+    final PriceFunction pricesNothing = new PriceFunction() {
+      @Override
+      public Optional<Double> calculatePricing(Cloud cloud, Hardware hardware,
+          Location location, Image image, String userId) {
+        return Optional.empty();
+      }
+
+      @Override
+      public int getPriority() {
+        return Priority.LOW;
+      }
+    };
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    final NodeCandidates unpriced = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        withoutPrices, null, metricsRegistry, new Tracer(), new PriceModelGenerator(pricesNothing),
+        "user")
+        .get();
+
+    assertThat(unpriced.size(), equalTo(combinations));
+    assertThat(unpriced.stream().allMatch(c -> c.getPrice() == Double.MAX_VALUE), equalTo(true));
+    assertThat(metricsRegistry.counter("matchmaking_candidates_unpriced_total", "").value(),
+        equalTo((long) combinations));
+  }
+
+}
@@ -0,0 +1,58 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import de.uniulm.omi.cloudiator.sword.domain.AttributeQuota.Attribute;
+import de.uniulm.omi.cloudiator.sword.domain.Quotas;
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import java.math.BigDecimal;
+import java.util.Collections;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Test;
+
+public class QuotaAwareSolutionGeneratorTest {
+
+  private static final CandidateIndex CANDIDATE_INDEX = CandidateIndex.of(
+      new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+          new MetricsRegistry(), new Tracer())
+          .get());
+
+  private static int initialSolutions(Attribute attribute, BigDecimal remaining) {
+    final String locationId = CANDIDATE_INDEX.get(0).getLocation().getId();
+    final QuotaSet quotaSet = new QuotaSet(Collections
+        .singleton(Quotas.attributeQuota(attribute, remaining, locationId)));
+    return new QuotaAwareSolutionGenerator(quotaSet, new BaseSolutionGenerator(CANDIDATE_INDEX))
+        .generateInitialSolutions().size();
+  }
+
+  private static int candidatesOutside(String locationId) {
+    int outside = 0;
+    for (int candidate = 0; candidate < CANDIDATE_INDEX.size(); candidate++) {
+      if (!CANDIDATE_INDEX.get(candidate).getLocation().getId().equals(locationId)) {
+        outside++;
+      }
+    }
+    return outside;
+  }
+
+  @Test
+  public void testLargeAttributeQuotaIsClamped() {
+    assertThat(initialSolutions(Attribute.HARDWARE_CORES, BigDecimal.valueOf(Long.MAX_VALUE)
+        .multiply(BigDecimal.TEN)), equalTo(CANDIDATE_INDEX.size()));
+  }
+
+  @Test
+  public void testExhaustedAttributeQuotaOnlyRejectsItsCandidates() {
+    final int outside = candidatesOutside(CANDIDATE_INDEX.get(0).getLocation().getId());
+
+    assertThat(initialSolutions(Attribute.HARDWARE_CORES, BigDecimal.ZERO), equalTo(outside));
+    assertThat(initialSolutions(Attribute.NODES_SIZE, new BigDecimal("0.00")), equalTo(outside));
+    //an exceeded quota must not make the solutions of other locations infeasible
+    assertThat(initialSolutions(Attribute.HARDWARE_CORES, BigDecimal.valueOf(-4)),
+        equalTo(outside));
+    assertThat(initialSolutions(Attribute.HARDWARE_RAM, new BigDecimal("-0.5")), equalTo(outside));
+  }
+}
@@ -0,0 +1,134 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.choco.ChocoSolver;
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.SolverPortfolio.Outcome;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Test;
+
+public class RaceCoordinatorTest {
+
+  private static final List<NodeCandidate> CANDIDATES = new ArrayList<>(
+      new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+          new MetricsRegistry(), new Tracer())
+          .get());
+  private static final Solver CHOCO =
+      new ChocoSolver(new MetricsRegistry(), new GenerationEstimate(), new Tracer());
+  private static final Solver BEST_FIT = new BestFitSolver(new MetricsRegistry());
+
+  private static Solution solution(NodeCandidate nodeCandidate, Class<? extends Solver> solver) {
+    final Solution solution = Solution.of(Collections.singletonList(nodeCandidate));
+    solution.setSolver(solver);
+    return solution;
+  }
+
+  private static double cheapest() {
+    return CANDIDATES.stream().mapToDouble(NodeCandidate::getPrice).min().getAsDouble();
+  }
+
+  @Test
+  public void testConcurrentOffersKeepTheCheapest() throws Exception {
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(1);
+    final ExecutorService executorService = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Void>> offers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final List<NodeCandidate> shuffled = new ArrayList<>(CANDIDATES);
+        Collections.shuffle(shuffled);
+        offers.add(() -> {
+          shuffled.forEach(candidate -> raceCoordinator.offer(solution(candidate,
+              BestFitSolver.class)));
+          return null;
+        });
+      }
+      for (Future<Void> future : executorService.invokeAll(offers)) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    assertThat(raceCoordinator.costs(), equalTo(cheapest()));
+    assertThat(raceCoordinator.best().get().getCosts(), equalTo(cheapest()));
+  }
+
+  @Test
+  public void testOptimalSolutionEndsTheRace() throws InterruptedException {
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(2);
+    raceCoordinator.launch(CHOCO, 0);
+    raceCoordinator.launch(BEST_FIT, 0);
+
+    final Solution optimal = solution(CANDIDATES.get(0), ChocoSolver.class);
+    optimal.setIsOptimal(true);
+    raceCoordinator.returned(CHOCO, optimal);
+
+    final long start = System.nanoTime();
+    assertThat(raceCoordinator.await(1, TimeUnit.MINUTES).get(), equalTo(optimal));
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), equalTo(true));
+    assertThat(raceCoordinator.outcome(CHOCO), equalTo(Outcome.WON));
+    assertThat(raceCoordinator.outcome(BEST_FIT), equalTo(Outcome.LOST));
+  }
+
+  @Test
+  public void testNothingCheaperThanTheBoundIsNoFailure() throws InterruptedException {
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(2);
+    raceCoordinator.launch(CHOCO, 0);
+    raceCoordinator.launch(BEST_FIT, 0);
+    assertThat(raceCoordinator.isBounded(), equalTo(false));
+
+    raceCoordinator.offer(solution(CANDIDATES.get(0), ChocoSolver.class));
+    assertThat(raceCoordinator.isBounded(), equalTo(true));
+
+    raceCoordinator.returned(BEST_FIT, Solution.EMPTY_SOLUTION);
+    raceCoordinator.failed(CHOCO);
+
+    assertThat(raceCoordinator.await(1, TimeUnit.MINUTES).isPresent(), equalTo(true));
+    assertThat(raceCoordinator.solutions(), equalTo(0L));
+    assertThat(raceCoordinator.outcome(BEST_FIT), equalTo(Outcome.LOST));
+    assertThat(raceCoordinator.outcome(CHOCO), equalTo(Outcome.WON));
+  }
+
+  @Test
+  public void testStaggeredSolverIsNotStartedAfterASolution() throws InterruptedException {
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(2, ImmutableSet.of(BEST_FIT));
+    raceCoordinator.launch(CHOCO, 0);
+    raceCoordinator.returned(CHOCO, solution(CANDIDATES.get(0), ChocoSolver.class));
+
+    final long start = System.nanoTime();
+    assertThat(raceCoordinator.launch(BEST_FIT, TimeUnit.MINUTES.toMillis(1)), equalTo(false));
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), equalTo(true));
+    raceCoordinator.failed(BEST_FIT);
+
+    assertThat(raceCoordinator.await(1, TimeUnit.MINUTES).isPresent(), equalTo(true));
+    assertThat(raceCoordinator.hasStarted(BEST_FIT), equalTo(false));
+  }
+
+  @Test
+  public void testStaggeredSolverStartsEarlyWithoutASolution() throws InterruptedException {
+    final RaceCoordinator raceCoordinator = new RaceCoordinator(2, ImmutableSet.of(BEST_FIT));
+    raceCoordinator.launch(CHOCO, 0);
+    raceCoordinator.returned(CHOCO, Solution.EMPTY_SOLUTION);
+
+    final long start = System.nanoTime();
+    assertThat(raceCoordinator.launch(BEST_FIT, TimeUnit.MINUTES.toMillis(1)), equalTo(true));
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), equalTo(true));
+    assertThat(raceCoordinator.hasStarted(BEST_FIT), equalTo(true));
+  }
+}
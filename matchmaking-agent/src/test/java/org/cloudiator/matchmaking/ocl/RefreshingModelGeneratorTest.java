@@ -0,0 +1,125 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import cloudiator.Cloud;
+import cloudiator.CloudiatorFactory;
+import cloudiator.CloudiatorModel;
+import com.google.common.collect.ImmutableSet;
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Test;
+
+public class RefreshingModelGeneratorTest {
+
+  @Test
+  public void testServesExistingModelWhileRefreshing() throws Exception {
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger generations = new AtomicInteger();
+    final ModelGenerator base = userId -> {
+      if (generations.incrementAndGet() > 1) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new ModelGenerationException(e);
+        }
+      }
+      return CloudiatorFactory.eINSTANCE.createCloudiatorModel();
+    };
+
+    //cache time zero: every access triggers a refresh
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    final RefreshingModelGenerator generator = new RefreshingModelGenerator(base, 0,
+        ModelSnapshotStore.disabled(), new ModelStringInterner(metricsRegistry),
+        Collections::emptySet, metricsRegistry);
+
+    final CloudiatorModel first = generator.generateModel("user");
+    //refresh is blocked, so all callers get the existing model and only one refresh runs
+    for (int i = 0; i < 10; i++) {
+      assertThat(generator.generateModel("user"), sameInstance(first));
+    }
+    waitFor(() -> generations.get() >= 2);
+    assertThat(generations.get(), equalTo(2));
+
+    release.countDown();
+    waitFor(() -> generator.refreshes() >= 2);
+    assertThat(generator.generateModel("user") == first, equalTo(false));
+  }
+
+  @Test
+  public void testRefreshReachesSolving() throws Exception {
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger generations = new AtomicInteger();
+    final ModelGenerator base = userId -> {
+      if (generations.incrementAndGet() > 1) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new ModelGenerationException(e);
+        }
+      }
+      //new ids on every generation
+      return ExampleModel.testModel();
+    };
+
+    final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    final NodeCandidateCache nodeCandidateCache = new NodeCandidateCache(metricsRegistry);
+    final RefreshingModelGenerator generator = new RefreshingModelGenerator(base, 0,
+        ModelSnapshotStore.disabled(), new ModelStringInterner(metricsRegistry),
+        () -> ImmutableSet.of(nodeCandidateCache), metricsRegistry);
+    final SolverHandler solverHandler = new SolverHandler(generator,
+        ImmutableSet.of(new BestFitSolver(metricsRegistry)), 1,
+        new ByonCache(new ByonGenerator(), Collections.emptySet(), metricsRegistry),
+        metricsRegistry, SolverBudgets.UNLIMITED, new SolvingDeadlines(60000),
+        SolverPortfolio.all(metricsRegistry), nodeCandidateCache,
+        new PriceModelGenerator(new HardwareBasedPriceFunction()), new Tracer());
+    final OclCsp oclCsp = OclCsp.ofConstraints(ImmutableSet.of("nodes->size() = 1"),
+        Collections.emptyList(), QuotaSet.EMPTY, 1);
+
+    final CloudiatorModel first = generator.generateModel("user");
+    assertThat(cloudIds(first).contains(solvedCloud(solverHandler.solve(oclCsp, "user"))),
+        equalTo(true));
+
+    release.countDown();
+    waitFor(() -> servedModel(generator) != first);
+    assertThat(cloudIds(first).contains(solvedCloud(solverHandler.solve(oclCsp, "user"))),
+        equalTo(false));
+  }
+
+  private static Set<String> cloudIds(CloudiatorModel cloudiatorModel) {
+    return cloudiatorModel.getClouds().stream().map(Cloud::getId).collect(Collectors.toSet());
+  }
+
+  private static String solvedCloud(Solution solution) {
+    return solution.getNodeCandidates().get(0).getCloud().getId();
+  }
+
+  private static CloudiatorModel servedModel(ModelGenerator generator) {
+    try {
+      return generator.generateModel("user");
+    } catch (ModelGenerationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.ConfigFactory;
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.choco.ChocoSolver;
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.eclipse.ocl.pivot.utilities.ParserException;
+import org.junit.Test;
+
+public class SolverBudgetsTest {
+
+  private static final SolverBudgets SOLVER_BUDGETS = SolverBudgets.of(ConfigFactory.parseString(
+      "timeMillis = 1000, nodeLimit = 0, failLimit = 0, maxGenerationSize = 100, "
+          + "heapFraction = 0.5, solvers.ChocoSolver.nodeLimit = 10"));
+  private static final ChocoSolver CHOCO_SOLVER = new ChocoSolver(new MetricsRegistry(),
+      new GenerationEstimate(), new Tracer());
+  private static final BestFitSolver BEST_FIT_SOLVER = new BestFitSolver(new MetricsRegistry());
+
+  @Test
+  public void testSolverOverridesDefault() {
+    final SolverBudget choco = SOLVER_BUDGETS.budget(CHOCO_SOLVER);
+    assertThat(choco.nodeLimit(), equalTo(10L));
+    assertThat(choco.timeMillis(), equalTo(1000L));
+
+    final SolverBudget bestFit = SOLVER_BUDGETS.budget(BEST_FIT_SOLVER);
+    assertThat(bestFit.nodeLimit(), equalTo(0L));
+    assertThat(bestFit.maxGenerationSize(), equalTo(100));
+  }
+
+  @Test
+  public void testDeadlineStartsWithSolver() {
+    final SolverBudget budget = SOLVER_BUDGETS.budget(BEST_FIT_SOLVER);
+    assertThat(budget.hasDeadline(), equalTo(false));
+    assertThat(budget.deadlinePassed(), equalTo(false));
+
+    final SolverBudget started = budget.start();
+    assertThat(started.hasDeadline(), equalTo(true));
+    assertThat(started.remainingMillis() <= 1000, equalTo(true));
+    assertThat(SolverBudget.UNLIMITED.start().hasDeadline(), equalTo(false));
+  }
+
+  private static OclCsp csp(String... constraints) throws ParserException {
+    return OclCsp.ofConstraints(ImmutableSet.copyOf(constraints), Collections.emptyList(),
+        QuotaSet.EMPTY, 1);
+  }
+
+  //no single node is in both countries
+  private static OclCsp germanAndAmerican() throws ParserException {
+    return csp("nodes->exists(location.geoLocation.country = 'DE')",
+        "nodes->exists(location.geoLocation.country = 'US')");
+  }
+
+  private static NodeCandidates candidates() {
+    return new DefaultNodeGenerator(NodeCandidateFactory.create(), ExampleModel.testModel(), null,
+        new MetricsRegistry(), new Tracer())
+        .get();
+  }
+
+  /**
+   * The candidates with distinct prices, the german ones being the cheapest and the american
+   * ones the most expensive.
+   */
+  private static NodeCandidates germanFirst() {
+    final NodeCandidateFactory factory = NodeCandidateFactory.create();
+    final Set<NodeCandidate> priced = new HashSet<>();
+    int i = 0;
+    for (NodeCandidate candidate : candidates()) {
+      final String country = candidate.getLocation().getGeoLocation() == null ? null
+          : candidate.getLocation().getGeoLocation().getCountry();
+      final double offset = "DE".equals(country) ? 1 : "US".equals(country) ? 1000 : 100;
+      priced.add(factory.of(candidate.getCloud(), candidate.getHardware(), candidate.getImage(),
+          candidate.getLocation(), offset + i++));
+    }
+    return NodeCandidates.of(priced);
+  }
+
+  @Test
+  public void testChocoNodeLimitStopsTheSearch() throws ParserException {
+    final NodeCandidates candidates = candidates();
+    final OclCsp anyNode = csp();
+    assertThat(CHOCO_SOLVER.solve(anyNode, candidates, null, 1, SolverBudget.UNLIMITED)
+        .isOptimal(), equalTo(true));
+
+    final Solution limited = CHOCO_SOLVER.solve(anyNode, candidates, null, 1,
+        SolverBudget.builder().nodeLimit(1).build().start());
+    assertThat(limited.isOptimal(), equalTo(false));
+  }
+
+  @Test
+  public void testChocoFailLimitStopsTheSearch() throws ParserException {
+    final NodeCandidates candidates = candidates();
+    final OclCsp germanAndAmerican = germanAndAmerican();
+    assertThat(CHOCO_SOLVER
+        .solve(germanAndAmerican, candidates, null, 1, SolverBudget.UNLIMITED).nodeSize(),
+        equalTo(2));
+
+    //the search for one node fails, so no solution is ever proven optimal
+    final Solution limited = CHOCO_SOLVER.solve(germanAndAmerican, candidates, null, 1,
+        SolverBudget.builder().failLimit(1).build().start());
+    assertThat(limited.isOptimal(), equalTo(false));
+  }
+
+  @Test
+  public void testBestFitKeepsOnlyTheCheapestOfAGeneration() throws ParserException {
+    final NodeCandidates candidates = germanFirst();
+    final OclCsp germanAndAmerican = germanAndAmerican();
+    assertThat(BEST_FIT_SOLVER
+        .solve(germanAndAmerican, candidates, null, 1, SolverBudget.UNLIMITED).nodeSize(),
+        equalTo(2));
+
+    //only adding the cheapest german node survives, an american one is never added
+    final Solution limited = BEST_FIT_SOLVER.solve(germanAndAmerican, candidates, null, 1,
+        SolverBudget.builder().maxGenerationSize(1).timeMillis(500).build().start());
+    assertThat(limited.isEmpty(), equalTo(true));
+  }
+
+  @Test
+  public void testDeadlineStopsTheSearch() throws ParserException {
+    //without a deadline best fit would try larger node sizes forever
+    final OclCsp unsatisfiable = csp("nodes->exists(location.geoLocation.country = 'FR')");
+
+    final long start = System.nanoTime();
+    final Solution solution = BEST_FIT_SOLVER.solve(unsatisfiable, candidates(), null, 1,
+        SolverBudget.deadline(200));
+
+    assertThat(solution.isEmpty(), equalTo(true));
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), equalTo(true));
+  }
+}
@@ -0,0 +1,166 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.uniulm.omi.cloudiator.sword.domain.QuotaSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+import org.cloudiator.matchmaking.choco.ChocoSolver;
+import org.cloudiator.matchmaking.choco.GenerationEstimate;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.domain.NodeCandidate.NodeCandidateFactory;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.domain.Solver;
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.SolverPortfolio.Outcome;
+import org.cloudiator.matchmaking.ocl.SolverPortfolio.Plan;
+import org.cloudiator.matchmaking.trace.Tracer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SolverPortfolioTest {
+
+  private static final CspFeatures FEATURES = new CspFeatures(10, 1,
+      ImmutableSet.of("forAll"), false);
+  private static final Solver CHOCO =
+      new ChocoSolver(new MetricsRegistry(), new GenerationEstimate(), new Tracer());
+  private static final Solver BEST_FIT = new BestFitSolver(new MetricsRegistry());
+  private static final List<Solver> SOLVERS = ImmutableList.of(CHOCO, BEST_FIT);
+  private static final MetricsRegistry METRICS = new MetricsRegistry();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static void chocoWins(SolverPortfolio portfolio, int times) {
+    for (int i = 0; i < times; i++) {
+      portfolio.record(FEATURES, CHOCO, Outcome.WON, 100);
+      portfolio.record(FEATURES, BEST_FIT, Outcome.LOST, 150);
+    }
+  }
+
+  @Test
+  public void testFeatures() {
+    assertThat(CspFeatures.bucket(0), equalTo(0));
+    assertThat(CspFeatures.bucket(1), equalTo(0));
+    assertThat(CspFeatures.bucket(1000), equalTo(10));
+    assertThat(FEATURES.key(),
+        equalTo("candidates=2^10;nodes=2^1;constraints=forAll;quotas=false"));
+  }
+
+  @Test
+  public void testAllSolversStartWithoutHistory() {
+    final SolverPortfolio portfolio = new SolverPortfolio(true, null, 5, 0.2, 1000, 0, METRICS);
+    final Plan plan = portfolio.plan(FEATURES, SOLVERS);
+    assertThat(plan.launches().get(CHOCO), equalTo(0L));
+    assertThat(plan.launches().get(BEST_FIT), equalTo(0L));
+  }
+
+  @Test
+  public void testLosingSolverIsStaggered() {
+    final SolverPortfolio portfolio = new SolverPortfolio(true, null, 5, 0.2, 1000, 0, METRICS);
+    chocoWins(portfolio, 10);
+
+    final Plan plan = portfolio.plan(FEATURES, SOLVERS);
+    assertThat(plan.launches().get(CHOCO), equalTo(0L));
+    //twice the usual time choco needs to win
+    assertThat(plan.launches().get(BEST_FIT), equalTo(200L));
+  }
+
+  @Test
+  public void testLosingSolverIsSkipped() {
+    final SolverPortfolio portfolio = new SolverPortfolio(true, null, 5, 0.2, 0, 2, METRICS);
+    chocoWins(portfolio, 10);
+
+    final Plan plan = portfolio.plan(FEATURES, SOLVERS);
+    assertThat(plan.launches().keySet(), equalTo(ImmutableSet.of(CHOCO)));
+    assertThat(plan.skipped(), equalTo(ImmutableSet.of(BEST_FIT)));
+
+    //every second request explores
+    assertThat(portfolio.plan(FEATURES, SOLVERS).launches().size(), equalTo(2));
+  }
+
+  @Test
+  public void testHistoryIsPersisted() throws IOException {
+    final Path directory = temporaryFolder.newFolder().toPath();
+    final SolverPortfolio portfolio = new SolverPortfolio(true, directory, 5, 0.2, 1000, 0,
+        METRICS);
+    chocoWins(portfolio, 3);
+    portfolio.save();
+
+    final SolverPortfolio loaded = new SolverPortfolio(true, directory, 5, 0.2, 1000, 0,
+        METRICS);
+    assertThat(loaded.stats(FEATURES, CHOCO).runs(), equalTo(3L));
+    assertThat(loaded.stats(FEATURES, CHOCO).wins(), equalTo(3L));
+    assertThat(loaded.stats(FEATURES, CHOCO).winMillis(), equalTo(100L));
+    assertThat(loaded.stats(FEATURES, BEST_FIT).wins(), equalTo(0L));
+  }
+
+  @Test
+  public void testStaggeredSolverDoesNotHoldTheRace() throws Exception {
+    final NodeCandidate candidate = new DefaultNodeGenerator(NodeCandidateFactory.create(),
+        ExampleModel.testModel(), null, new MetricsRegistry(), new Tracer()).get().iterator()
+        .next();
+    final OclCsp oclCsp = OclCsp.ofConstraints(ImmutableSet.of("nodes->size() = 1"),
+        Collections.emptyList(), QuotaSet.EMPTY, 1);
+    final CspFeatures features = CspFeatures.of(oclCsp, NodeCandidates.empty(), null);
+    final FixedSolver favourite = new FixedSolver(candidate);
+    final UnlikelySolver unlikely = new UnlikelySolver();
+
+    final SolverPortfolio portfolio = new SolverPortfolio(true, null, 5, 0.2, 60000, 0, METRICS);
+    for (int i = 0; i < 10; i++) {
+      portfolio.record(features, favourite, Outcome.WON, 20000);
+      portfolio.record(features, unlikely, Outcome.LOST, 30000);
+    }
+    assertThat(portfolio.plan(features, ImmutableSet.of(favourite, unlikely)).launches()
+        .get(unlikely), equalTo(40000L));
+
+    final long start = System.nanoTime();
+    final Solution solution = new MetaSolver(ImmutableSet.of(favourite, unlikely), 1,
+        SolverBudgets.UNLIMITED, portfolio, METRICS, new Tracer())
+        .solve(oclCsp, NodeCandidates.empty(), null, null,
+            SolverBudget.deadline(TimeUnit.MINUTES.toMillis(1)));
+
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), equalTo(true));
+    assertThat(solution.getSolver(), equalTo(FixedSolver.class));
+    assertThat(unlikely.called.get(), equalTo(false));
+  }
+
+  private static class FixedSolver implements Solver {
+
+    private final NodeCandidate candidate;
+
+    private FixedSolver(NodeCandidate candidate) {
+      this.candidate = candidate;
+    }
+
+    @Override
+    public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+        @Nullable Solution existingSolution, @Nullable Integer targetNodeSize) {
+      final Solution solution = Solution.of(Collections.singletonList(candidate));
+      solution.setSolver(FixedSolver.class);
+      return solution;
+    }
+  }
+
+  private static class UnlikelySolver implements Solver {
+
+    private final AtomicBoolean called = new AtomicBoolean();
+
+    @Override
+    public Solution solve(OclCsp oclCsp, NodeCandidates nodeCandidates,
+        @Nullable Solution existingSolution, @Nullable Integer targetNodeSize) {
+      called.set(true);
+      return Solution.EMPTY_SOLUTION;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.cloudiator.matchmaking.ocl;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.cloudiator.matchmaking.domain.SolverBudget;
+import org.junit.Test;
+
+public class SolvingDeadlinesTest {
+
+  @Test
+  public void testDefaultsToSolvingTime() {
+    assertThat(SolvingDeadlines.of(0, 5).defaultMillis(), equalTo(300000L));
+    assertThat(SolvingDeadlines.of(2000, 5).defaultMillis(), equalTo(2000L));
+  }
+
+  @Test
+  public void testSolverBudgetEndsWithRequest() {
+    final SolverBudget request = new SolvingDeadlines(1000).start();
+    final SolverBudget solver = SolverBudget.builder().timeMillis(60000).nodeLimit(10).build()
+        .start().within(request);
+    assertThat(solver.nodeLimit(), equalTo(10L));
+    assertThat(solver.remainingMillis() <= 1000, equalTo(true));
+
+    final SolverBudget unlimited = SolverBudget.UNLIMITED.within(request);
+    assertThat(unlimited.hasDeadline(), equalTo(true));
+  }
+}
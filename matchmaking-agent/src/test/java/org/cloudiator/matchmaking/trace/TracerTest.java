@@ -0,0 +1,80 @@
+package org.cloudiator.matchmaking.trace;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TracerTest {
+
+  @Test
+  public void testSpansAreExportedWithRoot() throws InterruptedException {
+    final List<List<Span>> exports = new ArrayList<>();
+    final Tracer tracer = new Tracer();
+    tracer.exportTo(exports::add);
+
+    try (Span root = tracer.start("root")) {
+      try (Span child = tracer.start("child")) {
+        assertThat(child.parent().get(), sameInstance(root));
+        assertThat(child.traceId(), equalTo(root.traceId()));
+        assertThat(tracer.current().get(), sameInstance(child));
+      }
+      assertThat(tracer.current().get(), sameInstance(root));
+
+      final Thread worker = new Thread(() -> {
+        try (Span span = tracer.start("worker", root)) {
+          span.error(new IllegalStateException());
+        }
+      });
+      worker.start();
+      worker.join();
+
+      assertThat(exports.isEmpty(), equalTo(true));
+    }
+
+    assertThat(tracer.current().isPresent(), equalTo(false));
+    assertThat(exports.size(), equalTo(1));
+    assertThat(exports.get(0).size(), equalTo(3));
+    assertThat(exports.get(0).get(1).status(), equalTo(Span.Status.ERROR));
+  }
+
+  @Test
+  public void testLateSpanIsExportedAlone() {
+    final List<List<Span>> exports = new ArrayList<>();
+    final Tracer tracer = new Tracer();
+    tracer.exportTo(exports::add);
+
+    final Span root = tracer.start("root");
+    final Span late = tracer.start("late", root);
+    root.close();
+    late.close();
+
+    assertThat(exports.size(), equalTo(2));
+    assertThat(exports.get(1).get(0), sameInstance(late));
+  }
+
+  @Test
+  public void testChildSpansNeedARequest() {
+    final List<List<Span>> exports = new ArrayList<>();
+    final Tracer tracer = new Tracer();
+    tracer.exportTo(exports::add);
+
+    //e.g. a node generator in a benchmark
+    try (Span unrecorded = tracer.startChild("candidates")) {
+      assertThat(tracer.current().isPresent(), equalTo(false));
+      unrecorded.attribute("candidates", 1).ok();
+    }
+    assertThat(exports.isEmpty(), equalTo(true));
+
+    try (Span request = tracer.start("request")) {
+      try (Span child = tracer.startChild("candidates")) {
+        assertThat(child.parent().get(), sameInstance(request));
+      }
+    }
+    assertThat(exports.size(), equalTo(1));
+    assertThat(exports.get(0).size(), equalTo(2));
+  }
+}
@@ -0,0 +1,36 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the matchmaking benchmarks and writes the results as JSON.
+ * <p>
+ * Accepts the usual JMH command line, e.g. {@code java -jar target/benchmarks.jar
+ * SolverBenchmark -p catalogue=EXPERIMENT -p nodeSize=5}. The results are written to {@value
+ * #DEFAULT_RESULT} unless {@code -rff} is given.
+ */
+public class BenchmarkRunner {
+
+  private static final String DEFAULT_RESULT = "matchmaking-benchmarks.json";
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+    if (!commandLineOptions.getResult().hasValue()) {
+      options = options.result(DEFAULT_RESULT);
+    }
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      options = options.resultFormat(ResultFormatType.JSON);
+    }
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      options = options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,77 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import cloudiator.CloudiatorModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.experiment.Catalogues;
+import org.cloudiator.matchmaking.experiment.Experiment.CloudiatorModelType;
+import org.cloudiator.matchmaking.experiment.ExperimentCSP;
+import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
+import org.cloudiator.matchmaking.ocl.ConstraintChecker;
+import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
+import org.cloudiator.matchmaking.ocl.NodeCandidates;
+import org.cloudiator.matchmaking.ocl.OclCsp;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Shared benchmark input: a catalogue, the node candidates generated from it and the constraints
+ * of the experiments. The experiment models are generated once per fork, see {@link
+ * CloudiatorModelType}.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+  private static final long SEED = 42;
+  private static final int SAMPLES = 256;
+
+  /**
+   * Size of the catalogue, {@link CloudiatorModelType#SMALL} has one cloud, {@link
+   * CloudiatorModelType#EXPERIMENT} nine. {@code synthetic:<candidates>} generates a catalogue
+   * with roughly the given number of candidates, see {@link Catalogues}.
+   */
+  @Param({"SMALL", "EXPERIMENT"})
+  public String catalogue;
+
+  @Param({"2", "5", "10"})
+  public int nodeSize;
+
+  CloudiatorModel cloudiatorModel;
+  OclCsp oclCsp;
+  ConstraintChecker constraintChecker;
+  NodeCandidates nodeCandidates;
+  NodeCandidates consistentNodeCandidates;
+  List<List<NodeCandidate>> solutions;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    cloudiatorModel = Catalogues.model(catalogue, SEED);
+    oclCsp = ExperimentCSP.CSP;
+    constraintChecker = ConstraintChecker.create(oclCsp);
+    nodeCandidates = new DefaultNodeGenerator(ExperimentCSP.NODE_CANDIDATE_FACTORY,
+        cloudiatorModel, null, ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER).get();
+    consistentNodeCandidates = new ConsistentNodeGenerator(() -> nodeCandidates,
+        constraintChecker, ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER).get();
+
+    //random solutions of the requested size, the same for every run
+    final List<NodeCandidate> candidates = new ArrayList<>(consistentNodeCandidates);
+    if (candidates.isEmpty()) {
+      throw new IllegalStateException(
+          String.format("Catalogue %s has no consistent node candidates.", catalogue));
+    }
+    final Random random = new Random(SEED);
+    solutions = new ArrayList<>(SAMPLES);
+    for (int i = 0; i < SAMPLES; i++) {
+      List<NodeCandidate> solution = new ArrayList<>(nodeSize);
+      for (int n = 0; n < nodeSize; n++) {
+        solution.add(candidates.get(random.nextInt(candidates.size())));
+      }
+      solutions.add(solution);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import cloudiator.CloudiatorModel;
+import java.util.concurrent.TimeUnit;
+import org.chocosolver.solver.Model;
+import org.cloudiator.matchmaking.choco.ChocoModelGeneration;
+import org.cloudiator.matchmaking.choco.ModelGenerationContext;
+import org.cloudiator.matchmaking.choco.SolvingModelGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ChocoModelBenchmark {
+
+  private CloudiatorModel solvingModel;
+
+  @Setup(Level.Trial)
+  public void setUp(CatalogueState state) {
+    solvingModel = new SolvingModelGenerator().apply(state.consistentNodeCandidates);
+  }
+
+  @Benchmark
+  public CloudiatorModel solvingModelGenerator(CatalogueState state) {
+    return new SolvingModelGenerator().apply(state.consistentNodeCandidates);
+  }
+
+  @Benchmark
+  public Model chocoModelGeneration(CatalogueState state) {
+    final ModelGenerationContext modelGenerationContext = new ModelGenerationContext(
+        solvingModel, new Model(), state.nodeSize, state.oclCsp, null);
+    ChocoModelGeneration.visit(modelGenerationContext);
+    return modelGenerationContext.getModel();
+  }
+}
@@ -0,0 +1,63 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.domain.HashingNodeCandidateIdGenerator;
+import org.cloudiator.matchmaking.domain.IdHashing;
+import org.cloudiator.matchmaking.domain.NodeCandidate;
+import org.cloudiator.matchmaking.experiment.Catalogues;
+import org.cloudiator.matchmaking.experiment.ExperimentCSP;
+import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Generates the ids of all node candidates of a catalogue with every {@link IdHashing}, the part
+ * of the {@link NodeGenerationBenchmark} spent on hashing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class IdHashingBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"SMALL", "EXPERIMENT"})
+  public String catalogue;
+
+  @Param({"MD5", "MURMUR3_128"})
+  public IdHashing idHashing;
+
+  private HashingNodeCandidateIdGenerator idGenerator;
+  private List<NodeCandidate> nodeCandidates;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    idGenerator = new HashingNodeCandidateIdGenerator(idHashing);
+    nodeCandidates = new ArrayList<>(new DefaultNodeGenerator(
+        ExperimentCSP.NODE_CANDIDATE_FACTORY, Catalogues.model(catalogue, SEED), null,
+        ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER).get());
+  }
+
+  @Benchmark
+  public void generateIds(Blackhole blackhole) {
+    for (NodeCandidate nodeCandidate : nodeCandidates) {
+      blackhole.consume(idGenerator.generateId(nodeCandidate));
+    }
+  }
+}
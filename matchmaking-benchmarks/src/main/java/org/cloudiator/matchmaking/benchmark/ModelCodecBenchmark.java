@@ -0,0 +1,77 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import cloudiator.CloudiatorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.experiment.Catalogues;
+import org.cloudiator.matchmaking.ocl.ModelCodec;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes the catalogues with every {@link ModelCodec}, as the model snapshots do.
+ * The encoded size is reported as secondary result {@code encodedBytes} of the encode benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelCodecBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"SMALL", "EXPERIMENT", "synthetic:10000"})
+  public String catalogue;
+
+  @Param({"XMI", "BINARY"})
+  public ModelCodec codec;
+
+  private CloudiatorModel cloudiatorModel;
+  private byte[] encoded;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class EncodedSize {
+
+    public long encodedBytes;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    cloudiatorModel = Catalogues.model(catalogue, SEED);
+    encoded = encodeModel();
+  }
+
+  private byte[] encodeModel() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    codec.encode(cloudiatorModel, out);
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] encode(EncodedSize encodedSize) throws IOException {
+    final byte[] bytes = encodeModel();
+    encodedSize.encodedBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public CloudiatorModel decode() throws IOException {
+    return codec.decode(new ByteArrayInputStream(encoded));
+  }
+}
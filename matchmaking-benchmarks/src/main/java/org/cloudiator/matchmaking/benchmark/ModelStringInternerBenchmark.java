@@ -0,0 +1,61 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import cloudiator.CloudiatorModel;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.experiment.Catalogues;
+import org.cloudiator.matchmaking.metrics.MetricsRegistry;
+import org.cloudiator.matchmaking.ocl.ModelStringInterner;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of interning the strings of a model, which the agent pays for every generated model.
+ * {@code interned} walks a model whose strings are already interned, i.e. only the walk over
+ * all contents and the interner lookups. {@code copied} interns a copy of the model with an empty
+ * interner, i.e. the first model of a provider, including the time of the copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelStringInternerBenchmark {
+
+  private static final long SEED = 42;
+
+  @Param({"SMALL", "EXPERIMENT", "synthetic:10000"})
+  public String catalogue;
+
+  private CloudiatorModel cloudiatorModel;
+  private ModelStringInterner modelStringInterner;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    cloudiatorModel = Catalogues.model(catalogue, SEED);
+    modelStringInterner = new ModelStringInterner(new MetricsRegistry());
+    modelStringInterner.intern(cloudiatorModel);
+  }
+
+  @Benchmark
+  public CloudiatorModel interned() {
+    return modelStringInterner.intern(cloudiatorModel);
+  }
+
+  @Benchmark
+  public CloudiatorModel copied() {
+    return new ModelStringInterner(new MetricsRegistry())
+        .intern(EcoreUtil.copy(cloudiatorModel));
+  }
+}
@@ -0,0 +1,34 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.experiment.ExperimentCSP;
+import org.cloudiator.matchmaking.ocl.ConsistentNodeGenerator;
+import org.cloudiator.matchmaking.ocl.DefaultNodeGenerator;
+import org.cloudiator.matchmaking.ocl.NodeCandidates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NodeGenerationBenchmark {
+
+  @Benchmark
+  public NodeCandidates defaultNodeGenerator(CatalogueState state) {
+    return new DefaultNodeGenerator(ExperimentCSP.NODE_CANDIDATE_FACTORY, state.cloudiatorModel,
+        null, ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER).get();
+  }
+
+  @Benchmark
+  public NodeCandidates consistentNodeGenerator(CatalogueState state) {
+    return new ConsistentNodeGenerator(() -> state.nodeCandidates, state.constraintChecker,
+        ExperimentCSP.METRICS_REGISTRY, ExperimentCSP.TRACER).get();
+  }
+}
@@ -0,0 +1,73 @@
+package org.cloudiator.matchmaking.benchmark;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.cloudiator.matchmaking.domain.Solution;
+import org.cloudiator.matchmaking.experiment.CampaignSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solves the experiment constraints with every solver. Solvers search until they are interrupted,
+ * so each invocation is limited to {@link #solvingTime} seconds, like the {@link
+ * org.cloudiator.matchmaking.ocl.MetaSolver} does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+  @Param({"CHOCO", "BEST_FIT"})
+  public CampaignSolver solver;
+
+  @Param({"10"})
+  public int solvingTime;
+
+  private ScheduledExecutorService timer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    timer = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("solving-time-%d").setDaemon(true).build());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    timer.shutdownNow();
+  }
+
+  @Benchmark
+  public Solution solve(CatalogueState state) throws Exception {
+    final Thread solvingThread = Thread.currentThread();
+    final ScheduledFuture<?> interrupt = timer
+        .schedule(solvingThread::interrupt, solvingTime, TimeUnit.SECONDS);
+    try {
+      return solver.create()
+          .solve(state.oclCsp, state.consistentNodeCandidates, null, state.nodeSize);
+    } finally {
+      if (!interrupt.cancel(false)) {
+        //the time limit is already interrupting, wait for it before clearing the interrupt
+        Uninterruptibles.getUninterruptibly(interrupt);
+      }
+      Thread.interrupted();
+    }
+  }
+}